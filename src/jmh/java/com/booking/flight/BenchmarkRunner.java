@@ -0,0 +1,30 @@
+package com.booking.flight;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for the JMH benchmarks (mvn -Pbenchmarks test-compile exec:exec).
+ * Accepts the usual JMH command line (benchmark regex, -f, -wi, -i, ...) and always adds the
+ * GC profiler, so every run reports allocation rate next to throughput and sample-time percentiles.
+ * Results are also written to target/jmh-result.json for comparison between runs.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-result.json")
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,138 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.BookingRequest;
+import com.booking.flight.dto.response.BookingResponse;
+import com.booking.flight.exception.SeatAlreadyReservedException;
+import com.booking.flight.metrics.BookingMetrics;
+import com.booking.flight.models.Booking;
+import com.booking.flight.models.Flight;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.models.SeatInventory;
+import com.booking.flight.models.SeatLabels;
+import com.booking.flight.repository.ScheduleRepository;
+import com.booking.flight.support.InMemoryRepositories;
+import com.booking.flight.support.InMemorySeatAvailabilityCounter;
+import com.booking.flight.support.InMemorySeatLockService;
+import com.booking.flight.support.TestFixtures;
+import com.booking.flight.util.EntityToDtoConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BookingService.createBookings against in-memory repositories and seat locks.
+ * Uncontended: every thread books its own schedule. Contended: all threads fight for the same seats,
+ * and the auxiliary counters report how many attempts were booked vs rejected.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class BookingServiceBenchmark {
+
+    private static final int TOTAL_SEATS = 180;
+
+    @State(Scope.Benchmark)
+    public static class BookingState {
+
+        @Param({"1", "6"})
+        int seatsPerBooking;
+
+        final AtomicLong scheduleIds = new AtomicLong();
+        final SeatInventory emptyInventory = SeatInventory.allAvailable(TOTAL_SEATS);
+        Map<Long, Schedule> schedules;
+        Flight flight;
+        BookingService bookingService;
+        Schedule contendedSchedule;
+        BookingRequest contendedRequest;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            schedules = InMemoryRepositories.newStore();
+            Map<Long, Booking> bookings = InMemoryRepositories.newStore();
+            ScheduleRepository scheduleRepository = InMemoryRepositories.scheduleRepository(schedules);
+            bookingService = new BookingService(
+                    InMemoryRepositories.bookingRepository(bookings),
+                    scheduleRepository,
+                    new InMemorySeatLockService(),
+                    new SeatMapCache(new EntityToDtoConverter(), 10_000, 0),
+                    new InMemorySeatAvailabilityCounter(),
+                    new ScheduleSearchIndex(scheduleRepository, new EntityToDtoConverter()),
+                    new SeatMapEventPublisher(null, new ObjectMapper(), 0, 1, 64, 0),
+                    new BookingMetrics(new SimpleMeterRegistry()));
+
+            flight = TestFixtures.flight(1L, "DEL", "BOM", TestFixtures.plane(1L, TOTAL_SEATS));
+            contendedSchedule = newSchedule();
+            contendedRequest = new BookingRequest(contendedSchedule.getScheduleId(), seats(0, seatsPerBooking), 1L);
+        }
+
+        Schedule newSchedule() {
+            Schedule schedule = TestFixtures.schedule(scheduleIds.incrementAndGet(), flight, LocalDateTime.now().plusDays(1));
+            schedules.put(schedule.getScheduleId(), schedule);
+            return schedule;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class UserState {
+        Schedule ownSchedule;
+        BookingRequest ownRequest;
+
+        @Setup(Level.Trial)
+        public void setUp(BookingState booking) {
+            ownSchedule = booking.newSchedule();
+            ownRequest = new BookingRequest(ownSchedule.getScheduleId(), seats(0, booking.seatsPerBooking), 2L);
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+        public long booked;
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            booked = 0;
+            conflicts = 0;
+        }
+    }
+
+    @Benchmark
+    public List<BookingResponse> createBookingsUncontended(BookingState booking, UserState user) {
+        List<BookingResponse> responses = booking.bookingService.createBookings(user.ownRequest);
+        // Put the seats back on sale so every invocation books the same seats again.
+        user.ownSchedule.setSeatInventory(booking.emptyInventory);
+        return responses;
+    }
+
+    @Benchmark
+    public Object createBookingsContended(BookingState booking, Outcomes outcomes) {
+        try {
+            List<BookingResponse> responses = booking.bookingService.createBookings(booking.contendedRequest);
+            booking.contendedSchedule.setSeatInventory(booking.emptyInventory);
+            outcomes.booked++;
+            return responses;
+        } catch (SeatAlreadyReservedException e) {
+            outcomes.conflicts++;
+            return e;
+        }
+    }
+
+    static List<String> seats(int firstSeatIndex, int count) {
+        List<String> seats = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            seats.add(SeatLabels.label(firstSeatIndex + i));
+        }
+        return seats;
+    }
+}
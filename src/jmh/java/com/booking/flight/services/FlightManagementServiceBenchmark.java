@@ -0,0 +1,37 @@
+package com.booking.flight.services;
+
+import com.booking.flight.models.Plane;
+import com.booking.flight.models.SeatInventory;
+import com.booking.flight.support.TestFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seat inventory initialization done for every new schedule.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlightManagementServiceBenchmark {
+
+    @Param({"180", "550", "853"})
+    int totalSeats;
+
+    FlightManagementService managementService;
+    Plane plane;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        managementService = new FlightManagementService(null, null, null, null, null, null, null, null, null);
+        plane = TestFixtures.plane(1L, totalSeats);
+    }
+
+    @Benchmark
+    public SeatInventory initializeSeatInventory() {
+        return managementService.initializeSeatInventory(plane);
+    }
+}
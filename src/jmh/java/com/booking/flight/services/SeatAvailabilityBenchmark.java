@@ -0,0 +1,60 @@
+package com.booking.flight.services;
+
+import com.booking.flight.models.Schedule;
+import com.booking.flight.models.SeatLabels;
+import com.booking.flight.models.SeatState;
+import com.booking.flight.support.TestFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking prevalidation (seat label resolution + areSeatsAvailable) on half-sold schedules.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SeatAvailabilityBenchmark {
+
+    @Param({"180", "853"})
+    int totalSeats;
+
+    @Param({"1", "6"})
+    int requestedSeats;
+
+    BookingService bookingService;
+    Schedule schedule;
+    List<String> seatNumbers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bookingService = new BookingService(null, null, null, null, null, null, null, null);
+        schedule = TestFixtures.schedule(1L,
+                TestFixtures.flight(1L, "DEL", "BOM", TestFixtures.plane(1L, totalSeats)),
+                LocalDateTime.now().plusDays(1));
+
+        // Book every even seat; request odd (available) seats from the back of the plane.
+        int[] booked = new int[totalSeats / 2];
+        for (int i = 0; i < booked.length; i++) {
+            booked[i] = i * 2;
+        }
+        schedule.setSeatInventory(schedule.getSeatInventory().withState(booked, SeatState.BOOKED));
+        int lastOddSeat = (totalSeats - 1) % 2 == 1 ? totalSeats - 1 : totalSeats - 2;
+        seatNumbers = new ArrayList<>(requestedSeats);
+        for (int i = 0; i < requestedSeats; i++) {
+            seatNumbers.add(SeatLabels.label(lastOddSeat - 2 * i));
+        }
+    }
+
+    @Benchmark
+    public boolean areSeatsAvailable() {
+        int[] seatIndices = bookingService.resolveSeatIndices(schedule, seatNumbers);
+        return bookingService.areSeatsAvailable(schedule, seatNumbers, seatIndices);
+    }
+}
@@ -0,0 +1,47 @@
+package com.booking.flight.util;
+
+import com.booking.flight.dto.response.ScheduleResponse;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.models.SeatState;
+import com.booking.flight.support.TestFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedule -> ScheduleResponse conversion, dominated by expanding the seat map.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntityToDtoConverterBenchmark {
+
+    @Param({"180", "550", "853"})
+    int totalSeats;
+
+    EntityToDtoConverter converter;
+    Schedule schedule;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        converter = new EntityToDtoConverter();
+        schedule = TestFixtures.schedule(1L,
+                TestFixtures.flight(1L, "DEL", "BOM", TestFixtures.plane(1L, totalSeats)),
+                LocalDateTime.now().plusDays(1));
+
+        int[] booked = new int[totalSeats / 3];
+        for (int i = 0; i < booked.length; i++) {
+            booked[i] = i * 3;
+        }
+        schedule.setSeatInventory(schedule.getSeatInventory().withState(booked, SeatState.BOOKED));
+    }
+
+    @Benchmark
+    public ScheduleResponse toScheduleResponse() {
+        return converter.toScheduleResponse(schedule);
+    }
+}
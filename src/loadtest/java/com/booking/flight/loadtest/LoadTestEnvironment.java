@@ -0,0 +1,110 @@
+package com.booking.flight.loadtest;
+
+import com.booking.flight.metrics.BookingMetrics;
+import com.booking.flight.models.Booking;
+import com.booking.flight.models.Flight;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.models.SeatState;
+import com.booking.flight.repository.ScheduleRepository;
+import com.booking.flight.services.BookingService;
+import com.booking.flight.services.FlightDetailsServiceImpl;
+import com.booking.flight.services.ScheduleSearchIndex;
+import com.booking.flight.services.SeatMapCache;
+import com.booking.flight.services.SeatMapEventPublisher;
+import com.booking.flight.support.InMemoryRepositories;
+import com.booking.flight.support.InMemorySeatAvailabilityCounter;
+import com.booking.flight.support.InMemorySeatLockService;
+import com.booking.flight.support.InMemoryTransactionManager;
+import com.booking.flight.support.TestFixtures;
+import com.booking.flight.util.EntityToDtoConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The booking and search services wired to in-memory stand-ins for MariaDB and Aerospike.
+ * Bookings run inside InMemoryTransactionManager transactions, so the schedule row lock, the seat
+ * map write-through and the seat counters behave as they do in the application.
+ */
+final class LoadTestEnvironment {
+
+    static final String ORIGIN = "DEL";
+    static final String DESTINATION = "BOM";
+    static final LocalDate DEPARTURE_DATE = LocalDate.now().plusDays(30);
+
+    final Map<Long, Schedule> schedules = InMemoryRepositories.newStore();
+    final Map<Long, Booking> bookings = InMemoryRepositories.newStore();
+    final InMemorySeatAvailabilityCounter seatCounter = new InMemorySeatAvailabilityCounter();
+    final BookingService bookingService;
+    final FlightDetailsServiceImpl flightService;
+    final TransactionTemplate transactionTemplate = new TransactionTemplate(new InMemoryTransactionManager());
+
+    private final Flight flight;
+    private final AtomicLong scheduleIds = new AtomicLong();
+
+    LoadTestEnvironment(int scheduleCount, int seatsPerSchedule) {
+        ScheduleRepository scheduleRepository = InMemoryRepositories.scheduleRepository(schedules);
+        EntityToDtoConverter converter = new EntityToDtoConverter();
+        SeatMapCache seatMapCache = new SeatMapCache(converter, 10_000, 0);
+        ScheduleSearchIndex searchIndex = new ScheduleSearchIndex(scheduleRepository, converter);
+
+        flightService = new FlightDetailsServiceImpl(scheduleRepository, null, null, converter, seatMapCache,
+                searchIndex, seatCounter);
+        bookingService = new BookingService(
+                InMemoryRepositories.bookingRepository(bookings),
+                scheduleRepository,
+                new InMemorySeatLockService(),
+                seatMapCache,
+                seatCounter,
+                searchIndex,
+                new SeatMapEventPublisher(flightService, new ObjectMapper(), 0, 1, 64, 0),
+                new BookingMetrics(new SimpleMeterRegistry()));
+
+        flight = TestFixtures.flight(1L, ORIGIN, DESTINATION, TestFixtures.plane(1L, seatsPerSchedule));
+        for (int i = 0; i < scheduleCount; i++) {
+            addSchedule();
+        }
+        searchIndex.build();
+    }
+
+    /**
+     * Adds a schedule with every seat available; it is not in the search index.
+     */
+    Schedule addSchedule() {
+        long scheduleId = scheduleIds.incrementAndGet();
+        // Spread departures over the day so searches return a sorted list
+        LocalDateTime departure = DEPARTURE_DATE.atStartOfDay().plusMinutes(scheduleId % (24 * 60));
+        Schedule schedule = TestFixtures.schedule(scheduleId, flight, departure);
+        schedules.put(scheduleId, schedule);
+        seatCounter.reconcile(List.of(schedule));
+        return schedule;
+    }
+
+    /**
+     * Seats that ended up with more than one booking; must be zero.
+     */
+    long doubleBookedSeats() {
+        Map<String, Integer> bookingsPerSeat = new HashMap<>();
+        for (Booking booking : bookings.values()) {
+            bookingsPerSeat.merge(booking.getSchedule().getScheduleId() + ":" + booking.getSeatNumber(), 1, Integer::sum);
+        }
+        return bookingsPerSeat.values().stream().filter(count -> count > 1).count();
+    }
+
+    /**
+     * Booking rows that are not reflected as BOOKED in their schedule's inventory (lost updates); must be zero.
+     */
+    long bookingsMissingFromInventory() {
+        long bookedSeats = schedules.values().stream()
+                .mapToLong(schedule -> schedule.getSeatInventory().count(SeatState.BOOKED))
+                .sum();
+        return bookings.size() - bookedSeats;
+    }
+}
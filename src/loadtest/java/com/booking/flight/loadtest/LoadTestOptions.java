@@ -0,0 +1,60 @@
+package com.booking.flight.loadtest;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Load-test settings, parsed from name=value arguments; see {@link #USAGE}.
+ */
+record LoadTestOptions(Scenario scenario, int threads, int requests, int warmupRequests,
+                       int schedules, int seatsPerSchedule, int groupSize, int bookingShare) {
+
+    static final String USAGE = """
+            Options (all optional):
+              scenario=hot_seat|random_seats|group|mixed   (default random_seats)
+              threads=N            concurrent virtual users (default 32)
+              requests=N           measured requests (default 50000)
+              warmup=N             requests run before measuring (default 10000)
+              schedules=N          schedules on sale (default 50)
+              seats=N              seats per schedule (default 180)
+              group-size=N         largest group booking, GROUP scenario (default 6)
+              booking-share=P      percent of requests that book, MIXED scenario (default 10)
+            """;
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals < 1) {
+                throw new IllegalArgumentException("Unrecognized argument: " + arg);
+            }
+            values.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+
+        String scenario = values.getOrDefault("scenario", "random_seats");
+        values.remove("scenario");
+        LoadTestOptions options = new LoadTestOptions(
+                Scenario.valueOf(scenario.toUpperCase(Locale.ROOT)),
+                intValue(values, "threads", 32),
+                intValue(values, "requests", 50_000),
+                intValue(values, "warmup", 10_000),
+                intValue(values, "schedules", 50),
+                intValue(values, "seats", 180),
+                intValue(values, "group-size", 6),
+                intValue(values, "booking-share", 10));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        if (options.threads() < 1 || options.schedules() < 1 || options.groupSize() < 2
+                || options.groupSize() > options.seatsPerSchedule()) {
+            throw new IllegalArgumentException("threads and schedules must be positive, group-size within 2..seats");
+        }
+        return options;
+    }
+
+    private static int intValue(Map<String, String> values, String name, int defaultValue) {
+        String value = values.remove(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
@@ -0,0 +1,141 @@
+package com.booking.flight.loadtest;
+
+import com.booking.flight.loadtest.Scenario.Outcome;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load generator for the booking and search services (mvn -Pload-test test-compile exec:exec).
+ * <p>
+ * A fixed number of virtual users run the chosen scenario back to back against in-memory stand-ins
+ * for MariaDB and Aerospike. After the warm-up, it reports throughput, the booking conflict rate and
+ * HDR latency percentiles per operation, then checks that no seat was booked twice and no booking was
+ * lost. The exit code is non-zero when that check fails.
+ */
+public final class LoadTestRunner {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final LoadTestOptions options;
+    private final LoadTestEnvironment env;
+    private final Scenario.Workload workload;
+    private final Recorder bookingLatency = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Recorder searchLatency = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+
+    private LoadTestRunner(LoadTestOptions options) {
+        this.options = options;
+        this.env = new LoadTestEnvironment(options.schedules(), options.seatsPerSchedule());
+        this.workload = options.scenario().workload(env, options);
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        boolean consistent = new LoadTestRunner(options).run();
+        System.exit(consistent ? 0 : 1);
+    }
+
+    private boolean run() throws InterruptedException {
+        System.out.printf(Locale.ROOT, "Scenario %s: %d users, %d requests after %d warm-up, %d schedules x %d seats%n",
+                options.scenario(), options.threads(), options.requests(), options.warmupRequests(),
+                options.schedules(), options.seatsPerSchedule());
+
+        drive(options.warmupRequests());
+        bookingLatency.reset();
+        searchLatency.reset();
+        outcomes.values().forEach(LongAdder::reset);
+
+        long start = System.nanoTime();
+        drive(options.requests());
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        report(elapsedSeconds);
+        return checkConsistency();
+    }
+
+    /**
+     * Runs the given number of requests spread over the virtual users and waits for all of them.
+     */
+    private void drive(int requests) throws InterruptedException {
+        AtomicLong remaining = new AtomicLong(requests);
+        CountDownLatch done = new CountDownLatch(options.threads());
+        for (int user = 1; user <= options.threads(); user++) {
+            long userId = user;
+            Thread thread = new Thread(() -> {
+                try {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (remaining.getAndDecrement() > 0) {
+                        long begin = System.nanoTime();
+                        Outcome outcome = workload.run(random, userId);
+                        long micros = (System.nanoTime() - begin) / 1_000;
+                        (outcome == Outcome.SEARCHED ? searchLatency : bookingLatency)
+                                .recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+                        outcomes.get(outcome).increment();
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-user-" + user);
+            thread.start();
+        }
+        done.await();
+    }
+
+    private void report(double elapsedSeconds) {
+        long booked = outcomes.get(Outcome.BOOKED).sum();
+        long conflicts = outcomes.get(Outcome.CONFLICT).sum();
+        long errors = outcomes.get(Outcome.ERROR).sum();
+        long searches = outcomes.get(Outcome.SEARCHED).sum();
+        long bookingAttempts = booked + conflicts + errors;
+
+        System.out.printf(Locale.ROOT, "Throughput: %.0f requests/s over %.2f s%n",
+                (bookingAttempts + searches) / elapsedSeconds, elapsedSeconds);
+        if (bookingAttempts > 0) {
+            System.out.printf(Locale.ROOT, "Bookings:   %d booked, %d conflicts (%.1f%%), %d errors%n",
+                    booked, conflicts, 100.0 * conflicts / bookingAttempts, errors);
+            printLatency("Booking", bookingLatency.getIntervalHistogram());
+        }
+        if (searches > 0) {
+            System.out.printf(Locale.ROOT, "Searches:   %d%n", searches);
+            printLatency("Search", searchLatency.getIntervalHistogram());
+        }
+    }
+
+    private static void printLatency(String operation, Histogram micros) {
+        System.out.printf(Locale.ROOT,
+                "%-8s latency (ms): p50 %.3f  p90 %.3f  p99 %.3f  p99.9 %.3f  max %.3f%n", operation,
+                micros.getValueAtPercentile(50) / 1000.0,
+                micros.getValueAtPercentile(90) / 1000.0,
+                micros.getValueAtPercentile(99) / 1000.0,
+                micros.getValueAtPercentile(99.9) / 1000.0,
+                micros.getMaxValue() / 1000.0);
+    }
+
+    private boolean checkConsistency() {
+        long doubleBooked = env.doubleBookedSeats();
+        long lost = env.bookingsMissingFromInventory();
+        System.out.printf(Locale.ROOT, "Consistency: %d double-booked seats, %d bookings missing from seat inventories%n",
+                doubleBooked, lost);
+        return doubleBooked == 0 && lost == 0;
+    }
+}
@@ -0,0 +1,109 @@
+package com.booking.flight.loadtest;
+
+import com.booking.flight.dto.BookingRequest;
+import com.booking.flight.dto.ScheduleSearchRequest;
+import com.booking.flight.exception.SeatAlreadyReservedException;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.models.SeatLabels;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Load-test workloads. Each creates the operation a virtual user runs per request.
+ */
+enum Scenario {
+
+    /**
+     * Every user books seat 001 of the same schedule. Once it is taken, the winner puts a new
+     * schedule on sale, so contention never stops.
+     */
+    HOT_SEAT {
+        @Override
+        Workload workload(LoadTestEnvironment env, LoadTestOptions options) {
+            AtomicReference<Schedule> onSale = new AtomicReference<>(env.addSchedule());
+            return (random, userId) -> {
+                Schedule schedule = onSale.get();
+                Outcome outcome = book(env, new BookingRequest(schedule.getScheduleId(), List.of(SeatLabels.label(0)), userId));
+                if (outcome == Outcome.BOOKED) {
+                    onSale.compareAndSet(schedule, env.addSchedule());
+                }
+                return outcome;
+            };
+        }
+    },
+
+    /**
+     * One random seat on a random schedule.
+     */
+    RANDOM_SEATS {
+        @Override
+        Workload workload(LoadTestEnvironment env, LoadTestOptions options) {
+            return (random, userId) -> book(env, randomRequest(random, options, userId, 1));
+        }
+    },
+
+    /**
+     * Blocks of adjacent seats (2 up to group-size) on a random schedule.
+     */
+    GROUP {
+        @Override
+        Workload workload(LoadTestEnvironment env, LoadTestOptions options) {
+            return (random, userId) -> book(env,
+                    randomRequest(random, options, userId, random.nextInt(2, options.groupSize() + 1)));
+        }
+    },
+
+    /**
+     * Searches for the route with a share of single-seat bookings (booking-share percent).
+     */
+    MIXED {
+        @Override
+        Workload workload(LoadTestEnvironment env, LoadTestOptions options) {
+            ScheduleSearchRequest search = new ScheduleSearchRequest(LoadTestEnvironment.ORIGIN,
+                    LoadTestEnvironment.DESTINATION, LoadTestEnvironment.DEPARTURE_DATE);
+            return (random, userId) -> {
+                if (random.nextInt(100) < options.bookingShare()) {
+                    return book(env, randomRequest(random, options, userId, 1));
+                }
+                env.flightService.searchSchedules(search);
+                return Outcome.SEARCHED;
+            };
+        }
+    };
+
+    enum Outcome {
+        BOOKED, CONFLICT, SEARCHED, ERROR
+    }
+
+    @FunctionalInterface
+    interface Workload {
+        Outcome run(ThreadLocalRandom random, long userId);
+    }
+
+    abstract Workload workload(LoadTestEnvironment env, LoadTestOptions options);
+
+    static Outcome book(LoadTestEnvironment env, BookingRequest request) {
+        try {
+            env.transactionTemplate.execute(status -> env.bookingService.createBookings(request));
+            return Outcome.BOOKED;
+        } catch (SeatAlreadyReservedException e) {
+            // Includes ScheduleSoldOutException
+            return Outcome.CONFLICT;
+        } catch (RuntimeException e) {
+            return Outcome.ERROR;
+        }
+    }
+
+    private static BookingRequest randomRequest(ThreadLocalRandom random, LoadTestOptions options, long userId, int seats) {
+        long scheduleId = random.nextLong(1, options.schedules() + 1);
+        int firstSeat = random.nextInt(options.seatsPerSchedule() - seats + 1);
+        List<String> seatNumbers = new ArrayList<>(seats);
+        for (int i = 0; i < seats; i++) {
+            seatNumbers.add(SeatLabels.label(firstSeat + i));
+        }
+        return new BookingRequest(scheduleId, seatNumbers, userId);
+    }
+}
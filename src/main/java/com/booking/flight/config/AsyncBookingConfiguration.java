@@ -0,0 +1,40 @@
+package com.booking.flight.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executor for the blocking MariaDB step of the async booking path (aerospike.lock-mode=async)
+ * and of the inventory engine (booking.engine.enabled=true).
+ * Lock futures complete on Aerospike event-loop threads and engine commands run on single
+ * partition threads, neither of which may block, so persistence hops onto this pool.
+ * Its size should roughly match the Hikari pool; a full queue rejects the booking instead of
+ * queueing unbounded work behind the database.
+ */
+@Configuration
+@ConditionalOnExpression("'${aerospike.lock-mode:sync}' == 'async' or ${booking.engine.enabled:false}")
+public class AsyncBookingConfiguration {
+
+    @Value("${booking.async.persistence-threads:10}")
+    private int persistenceThreads;
+
+    @Value("${booking.async.persistence-queue:1000}")
+    private int persistenceQueue;
+
+    @Bean(name = "bookingPersistenceExecutor")
+    public ThreadPoolTaskExecutor bookingPersistenceExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(persistenceThreads);
+        executor.setMaxPoolSize(persistenceThreads);
+        executor.setQueueCapacity(persistenceQueue);
+        executor.setThreadNamePrefix("booking-persist-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
@@ -1,8 +1,13 @@
 package com.booking.flight.config.aeroSpikeConfig;
 
 import com.aerospike.client.*;
+import com.aerospike.client.async.EventLoops;
+import com.aerospike.client.async.EventPolicy;
+import com.aerospike.client.async.NioEventLoops;
 import com.aerospike.client.policy.*;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -18,19 +23,63 @@ public class AerospikeConfiguration {
     @Value("${aerospike.namespace}")
     private String aerospikeNamespace;
 
+    // 0 = one event loop per available processor
+    @Value("${aerospike.event-loops:0}")
+    private int eventLoopCount;
+
+    @Value("${aerospike.async.max-commands-in-process:200}")
+    private int maxCommandsInProcess;
+
+    @Value("${aerospike.async.max-commands-in-queue:5000}")
+    private int maxCommandsInQueue;
+
+    // Lease of the seat locks taken for the duration of one booking request
+    @Value("${booking.lock.lease-seconds:30}")
+    private int lockLeaseSeconds;
+
+    // Lease of the seats of a hold (POST /bookings/holds), i.e. the payment window
+    @Value("${booking.hold.ttl-seconds:600}")
+    private int holdTtlSeconds;
+
+    // Lease of the seats of a write-behind booking until the outbox writer has persisted it
+    @Value("${booking.write-behind.lease-seconds:600}")
+    private int writeBehindLeaseSeconds;
+
+    /**
+     * Event loops for the non-blocking lock path (aerospike.lock-mode=async).
+     * Commands beyond maxCommandsInProcess wait in the loop's queue; beyond maxCommandsInQueue they are
+     * rejected immediately instead of piling up behind a slow cluster.
+     */
     @Bean
-    public AerospikeClient aerospikeClient() throws AerospikeException {
+    @ConditionalOnProperty(name = "aerospike.lock-mode", havingValue = "async")
+    public EventLoops aerospikeEventLoops() {
+        EventPolicy eventPolicy = new EventPolicy();
+        eventPolicy.maxCommandsInProcess = maxCommandsInProcess;
+        eventPolicy.maxCommandsInQueue = maxCommandsInQueue;
+        int size = eventLoopCount > 0 ? eventLoopCount : Runtime.getRuntime().availableProcessors();
+        return new NioEventLoops(eventPolicy, size);
+    }
+
+    @Bean
+    public AerospikeClient aerospikeClient(ObjectProvider<EventLoops> aerospikeEventLoops) throws AerospikeException {
         // Production Ready: Using standard host/port. Add security/auth if needed.
         Host[] hosts = new Host[] { new Host(aerospikeHost, aerospikePort) };
-        return new AerospikeClient(new ClientPolicy(), hosts);
+        ClientPolicy clientPolicy = new ClientPolicy();
+        // Only set in async lock mode; the synchronous API works either way.
+        clientPolicy.eventLoops = aerospikeEventLoops.getIfAvailable();
+        return new AerospikeClient(clientPolicy, hosts);
     }
 
     @Bean(name = "aerospikeLockingPolicy")
     public WritePolicy aerospikeLockingPolicy() {
         WritePolicy policy = new WritePolicy();
-        policy.recordExistsAction = RecordExistsAction.CREATE_ONLY;
-        // Fail immediately if lock exists
+        // Seat locks live as map entries inside one record per schedule, so the record itself
+        // must be updatable. Conflicts are detected per seat by the CREATE_ONLY map write flag.
+        policy.recordExistsAction = RecordExistsAction.UPDATE;
         policy.totalTimeout = 100;      // ms
+        // Every ledger entry carries its own lease expiry and expired entries are purged on the next
+        // acquire. The record TTL only has to outlive the longest lease so an idle ledger disappears.
+        policy.expiration = Math.max(lockLeaseSeconds, Math.max(holdTtlSeconds, writeBehindLeaseSeconds));
 
         policy.commitLevel = CommitLevel.COMMIT_ALL;
 
@@ -40,4 +89,16 @@ public class AerospikeConfiguration {
     public String getNamespace() {
         return aerospikeNamespace;
     }
+
+    public int getLockLeaseSeconds() {
+        return lockLeaseSeconds;
+    }
+
+    public int getHoldTtlSeconds() {
+        return holdTtlSeconds;
+    }
+
+    public int getWriteBehindLeaseSeconds() {
+        return writeBehindLeaseSeconds;
+    }
 }
@@ -0,0 +1,89 @@
+package com.booking.flight.config.dataSourceConfig;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Read replicas (booking.datasource.replica-urls). Without replicas Spring Boot's single Hikari pool
+ * on spring.datasource.url is used as before.
+ * With replicas, the application DataSource routes read-only transactions (FlightDetailsServiceImpl,
+ * repository reads outside a write transaction) to the replica pools and all other work to the primary.
+ * Every pool reports hikaricp.* metrics tagged with its pool name (primary, replica-1, ...).
+ */
+@Configuration
+@ConditionalOnExpression("!'${booking.datasource.replica-urls:}'.isBlank()")
+public class ReadReplicaDataSourceConfiguration {
+
+    @Value("${booking.datasource.replica-urls}")
+    private List<String> replicaUrls;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int primaryPoolSize;
+
+    @Value("${booking.datasource.replica-pool-size:10}")
+    private int replicaPoolSize;
+
+    // Staleness budget of ordinary read-only transactions (searches, schedule details)
+    @Value("${booking.datasource.replica-max-lag-ms:5000}")
+    private long replicaMaxLagMillis;
+
+    // Seat maps populate the seat map cache, so they get a tighter budget. The lag is measured in whole
+    // seconds every replica-lag-check-ms, so 0 admits a replica that was under a second behind at its
+    // last check: it may still be up to about a second plus the check interval behind.
+    @Value("${booking.datasource.seatmap-max-staleness-ms:0}")
+    private long seatMapMaxStalenessMillis;
+
+    @Value("${booking.datasource.replica-lag-check-ms:1000}")
+    private long lagCheckMillis;
+
+    // Treat a replica without replication status as up to date (local setups with two plain databases)
+    @Value("${booking.datasource.assume-unreplicated-current:false}")
+    private boolean assumeUnreplicatedCurrent;
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        HikariDataSource primary = pool(properties, ReplicaRoutingDataSource.PRIMARY, properties.determineUrl(),
+                primaryPoolSize, meterRegistry);
+        LinkedHashMap<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            String name = "replica-" + (i + 1);
+            HikariDataSource replica = pool(properties, name, replicaUrls.get(i).trim(), replicaPoolSize, meterRegistry);
+            replica.setReadOnly(true);
+            replicas.put(name, replica);
+        }
+
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(replicas, assumeUnreplicatedCurrent, meterRegistry);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas, lagMonitor,
+                replicaMaxLagMillis, seatMapMaxStalenessMillis, meterRegistry);
+        routing.afterPropertiesSet();
+        lagMonitor.start(lagCheckMillis);
+        return routing;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, String name, String url, int size,
+                                         MeterRegistry meterRegistry) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+        pool.setPoolName(name);
+        pool.setMaximumPoolSize(size);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
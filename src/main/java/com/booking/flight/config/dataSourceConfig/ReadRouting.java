@@ -0,0 +1,35 @@
+package com.booking.flight.config.dataSourceConfig;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks reads whose staleness budget differs from the default one of read-only transactions.
+ * Only has an effect when read replicas are configured (see {@link ReplicaRoutingDataSource}).
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> SEAT_MAP_READ = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    /**
+     * Runs a seat-map load: a replica serves it only while its lag is within
+     * booking.datasource.seatmap-max-staleness-ms, otherwise it goes to the primary.
+     */
+    public static <T> T seatMapRead(Supplier<T> read) {
+        if (Boolean.TRUE.equals(SEAT_MAP_READ.get())) {
+            return read.get();
+        }
+        SEAT_MAP_READ.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            SEAT_MAP_READ.remove();
+        }
+    }
+
+    static boolean isSeatMapRead() {
+        return Boolean.TRUE.equals(SEAT_MAP_READ.get());
+    }
+}
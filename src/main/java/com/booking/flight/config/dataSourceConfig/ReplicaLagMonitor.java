@@ -0,0 +1,107 @@
+package com.booking.flight.config.dataSourceConfig;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the replication lag of each replica (SHOW SLAVE STATUS, Seconds_Behind_Master) on one
+ * background thread. A replica whose lag is unknown (not checked yet, replication stopped, check
+ * failed) counts as infinitely stale, so reads fall back to the primary.
+ * A database without replication configured reports no status row. That is unknown too, unless
+ * assumeUnreplicatedCurrent is set (booking.datasource.assume-unreplicated-current), which lets two
+ * plain local databases stand in for a primary and a replica; in production a replica whose
+ * replication was reset would otherwise be read as up to date forever.
+ * <p>
+ * Seconds_Behind_Master has whole-second resolution and is sampled every check interval, so a lag
+ * of 0 means the replica was less than a second behind at the last check, not that it is caught up.
+ */
+@Slf4j
+class ReplicaLagMonitor implements AutoCloseable {
+
+    static final long UNKNOWN = Long.MAX_VALUE;
+
+    private final Map<String, DataSource> replicas;
+    private final boolean assumeUnreplicatedCurrent;
+    private final Map<String, Long> lagMillis = new ConcurrentHashMap<>();
+    // Pools already reported for having no replication status, so the warning is not repeated every check
+    private final Set<String> reportedUnreplicated = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-lag-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    ReplicaLagMonitor(Map<String, DataSource> replicas, boolean assumeUnreplicatedCurrent, MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+        this.assumeUnreplicatedCurrent = assumeUnreplicatedCurrent;
+        for (String pool : replicas.keySet()) {
+            Gauge.builder("booking.datasource.replica.lag", this, monitor -> monitor.lagSeconds(pool))
+                    .description("Replication lag of a read replica; NaN while unknown")
+                    .tag("pool", pool)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    void start(long intervalMillis) {
+        scheduler.scheduleWithFixedDelay(this::check, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    long lagMillis(String pool) {
+        return lagMillis.getOrDefault(pool, UNKNOWN);
+    }
+
+    void record(String pool, long lag) {
+        lagMillis.put(pool, lag);
+    }
+
+    void check() {
+        replicas.forEach((pool, dataSource) -> record(pool, measure(pool, dataSource)));
+    }
+
+    private long measure(String pool, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet status = statement.executeQuery("SHOW SLAVE STATUS")) {
+            if (!status.next()) {
+                if (assumeUnreplicatedCurrent) {
+                    return 0;
+                }
+                if (reportedUnreplicated.add(pool)) {
+                    log.warn("{} reports no replication status; its reads go to the primary", pool);
+                }
+                return UNKNOWN;
+            }
+            reportedUnreplicated.remove(pool);
+            long seconds = status.getLong("Seconds_Behind_Master");
+            // NULL while the replication threads are not running
+            return status.wasNull() ? UNKNOWN : TimeUnit.SECONDS.toMillis(seconds);
+        } catch (SQLException e) {
+            log.warn("Replication lag check failed for {}: {}", pool, e.getMessage());
+            return UNKNOWN;
+        }
+    }
+
+    private double lagSeconds(String pool) {
+        long lag = lagMillis(pool);
+        return lag == UNKNOWN ? Double.NaN : lag / 1000.0;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,105 @@
+package com.booking.flight.config.dataSourceConfig;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to the replica pools (round robin) and everything else to the primary.
+ * A replica is skipped while its replication lag exceeds the staleness budget of the read: maxLagMillis
+ * by default, seatMapMaxStalenessMillis inside {@link ReadRouting#seatMapRead}. With no replica within
+ * budget the read goes to the primary.
+ * <p>
+ * The read-only flag of a transaction is only set after the transaction manager has begun it, so this
+ * must sit behind a LazyConnectionDataSourceProxy, which fetches the connection at the first statement.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final List<String> replicaNames;
+    private final ReplicaLagMonitor lagMonitor;
+    private final long maxLagMillis;
+    private final long seatMapMaxStalenessMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, Counter> routedCounters = new HashMap<>();
+    private final Counter fallbacks;
+
+    ReplicaRoutingDataSource(DataSource primary, LinkedHashMap<String, DataSource> replicas, ReplicaLagMonitor lagMonitor,
+                             long maxLagMillis, long seatMapMaxStalenessMillis, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.replicaNames = new ArrayList<>(replicas.keySet());
+        this.lagMonitor = lagMonitor;
+        this.maxLagMillis = maxLagMillis;
+        this.seatMapMaxStalenessMillis = seatMapMaxStalenessMillis;
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        for (Object pool : targets.keySet()) {
+            routedCounters.put((String) pool, Counter.builder("booking.datasource.routed")
+                    .description("Transactions routed to each connection pool")
+                    .tag("pool", (String) pool)
+                    .register(meterRegistry));
+        }
+        this.fallbacks = Counter.builder("booking.datasource.replica.fallbacks")
+                .description("Read-only transactions sent to the primary because no replica was within its staleness budget")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return routed(PRIMARY);
+        }
+
+        long allowedLag = ReadRouting.isSeatMapRead() ? seatMapMaxStalenessMillis : maxLagMillis;
+        int first = Math.floorMod(nextReplica.getAndIncrement(), replicaNames.size());
+        for (int i = 0; i < replicaNames.size(); i++) {
+            String replica = replicaNames.get((first + i) % replicaNames.size());
+            if (lagMonitor.lagMillis(replica) <= allowedLag) {
+                return routed(replica);
+            }
+        }
+        fallbacks.increment();
+        log.debug("No replica within {} ms of the primary; reading from the primary", allowedLag);
+        return routed(PRIMARY);
+    }
+
+    private String routed(String pool) {
+        routedCounters.get(pool).increment();
+        return pool;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lagMonitor.close();
+        for (DataSource pool : replicas.values()) {
+            closePool(pool);
+        }
+        closePool(primary);
+    }
+
+    private static void closePool(DataSource pool) throws IOException {
+        if (pool instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -2,23 +2,32 @@ package com.booking.flight.controller;
 
 import com.booking.flight.dto.PlaneCreationRequest; // <-- NEW IMPORT
 import com.booking.flight.dto.FlightCreationRequest; // <-- REQUIRED DTO FOR FLIGHT CREATION
+import com.booking.flight.dto.RecurringScheduleRequest;
 import com.booking.flight.dto.ScheduleCreationRequest;
 import com.booking.flight.dto.response.FlightResponse;
 import com.booking.flight.dto.response.PlaneResponse;
+import com.booking.flight.dto.response.RecurringScheduleResponse;
 import com.booking.flight.dto.response.ScheduleResponse;
+import com.booking.flight.dto.response.TimetableImportResponse;
 import com.booking.flight.models.Plane; // <-- NEW IMPORT
 import com.booking.flight.models.Flight;
 import com.booking.flight.models.Schedule;
 import com.booking.flight.services.FlightManagementService;
+import com.booking.flight.services.TimetableImportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 @RestController
 // NOTE: Use the plural 'flights' or 'management' for the base path
 @RequestMapping("/api/v1/admin/management")
@@ -29,6 +38,7 @@ public class AdminFlightController {
 
 
     private final FlightManagementService managementService;
+    private final TimetableImportService timetableImportService;
 
     // ========================================================
     // ENDPOINT 1: CREATE PLANES (New Requirement)
@@ -60,11 +70,37 @@ public class AdminFlightController {
     // POST /api/v1/admin/management/schedules
     // ========================================================
     @PostMapping("/schedules")
-    public ResponseEntity<ScheduleResponse> createSchedule(@RequestBody ScheduleCreationRequest request) {        ScheduleResponse schedule = managementService.createSchedule(request);
+    public ResponseEntity<ScheduleResponse> createSchedule(@RequestBody ScheduleCreationRequest request) {
         ScheduleResponse response = managementService.createSchedule(request);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    // ========================================================
+    // ENDPOINT 3b: CREATE RECURRING SCHEDULES
+    // POST /api/v1/admin/management/schedules/recurring
+    // ========================================================
+    @PostMapping("/schedules/recurring")
+    @Operation(summary = "Generate a season of schedules for a Flight route",
+               description = "Creates one schedule on every selected day of week between the start and end dates, "
+                       + "in batched inserts. Departures that already exist for the route are skipped.")
+    public ResponseEntity<RecurringScheduleResponse> createRecurringSchedules(
+            @Valid @RequestBody RecurringScheduleRequest request) {
+        RecurringScheduleResponse response = managementService.createRecurringSchedules(request);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    // ========================================================
+    // ENDPOINT 3c: RECONCILE SEAT COUNTERS
+    // POST /api/v1/admin/management/schedules/seat-counters/reconcile
+    // ========================================================
+    @PostMapping("/schedules/seat-counters/reconcile")
+    @Operation(summary = "Reconcile the available-seat counters with MariaDB",
+               description = "Resets the Aerospike seat counter of every upcoming schedule to the free seats "
+                       + "of its seat inventory. Returns the number of counters written.")
+    public ResponseEntity<Integer> reconcileSeatCounters() {
+        return ResponseEntity.ok(managementService.reconcileSeatCounters());
+    }
+
     // ========================================================
     // ENDPOINT 4: MATCH/REASSIGN PLANES TO FLIGHT ROUTE
     // PUT /api/v1/admin/management/flights/{flightId}/plane/{newPlaneId}
@@ -80,4 +116,22 @@ public class AdminFlightController {
         FlightResponse updatedFlight = managementService.reassignPlaneToFlightRoute(flightId, newPlaneId);
         return ResponseEntity.ok(updatedFlight);
     }
-}
\ No newline at end of file
+
+    // ========================================================
+    // ENDPOINT 5: BULK TIMETABLE IMPORT
+    // POST /api/v1/admin/management/import
+    // ========================================================
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    @Operation(summary = "Import planes, flight routes and schedules in bulk",
+               description = "Streams an NDJSON or CSV timetable, one plane, flight or schedule per line, and writes "
+                       + "it in batched transactions. Lines that cannot be imported are reported by line number; "
+                       + "schedules that already exist are skipped.")
+    public ResponseEntity<TimetableImportResponse> importTimetable(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        TimetableImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? TimetableImportService.Format.NDJSON
+                : TimetableImportService.Format.CSV;
+        return ResponseEntity.ok(timetableImportService.importTimetable(body, format));
+    }
+}
@@ -1,15 +1,31 @@
 package com.booking.flight.controller;
 
+import com.booking.flight.dto.AdjacentSeatsRequest;
 import com.booking.flight.dto.BookingRequest;
 import com.booking.flight.dto.response.BookingResponse;
+import com.booking.flight.dto.response.HoldResponse;
+import com.booking.flight.exception.ScheduleBusyException;
+import com.booking.flight.metrics.BookingTimings;
+import com.booking.flight.services.AsyncBookingService;
 import com.booking.flight.services.BookingService;
+import com.booking.flight.services.IdempotencyStore;
+import com.booking.flight.services.ScheduleAdmissionControl;
+import com.booking.flight.services.SeatAllocationService;
+import com.booking.flight.services.SeatHoldService;
+import com.booking.flight.services.SeatInventoryEngine;
+import com.booking.flight.services.WriteBehindBookingService;
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/bookings")
@@ -17,18 +33,148 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final SeatHoldService seatHoldService;
+    private final SeatAllocationService seatAllocationService;
+    private final IdempotencyStore idempotencyStore;
+    private final ScheduleAdmissionControl admissionControl;
+    // Present only when aerospike.lock-mode=async
+    private final ObjectProvider<AsyncBookingService> asyncBookingService;
+    // Present only when booking.engine.enabled=true; takes precedence over both lock modes
+    private final ObjectProvider<SeatInventoryEngine> seatInventoryEngine;
+    // Present only when booking.write-behind.enabled=true; takes precedence over both lock modes
+    private final ObjectProvider<WriteBehindBookingService> writeBehindBookingService;
 
     @PostMapping
-    public ResponseEntity<List<BookingResponse>> createBookings(@RequestBody BookingRequest request) {
+    @Operation(summary = "Book seats",
+            description = "With an Idempotency-Key header, a retry of the same request gets the stored response "
+                    + "(Idempotent-Replayed: true) instead of booking again; 409 while the first one is still running. "
+                    + "During a rush on the schedule, 429 with a Waiting-Room-Ticket to send back after Retry-After.")
+    public CompletableFuture<ResponseEntity<List<BookingResponse>>> createBookings(
+            @RequestBody BookingRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = ScheduleBusyException.TICKET_HEADER, required = false) String waitingRoomTicket,
+            HttpServletResponse response) {
 
-        List<BookingResponse> bookings = bookingService.createBookings(request);
+        if (idempotencyKey == null) {
+            // Turned away before any Aerospike or MariaDB work while the schedule is rushed
+            admissionControl.admit(request.scheduleId(), waitingRoomTicket);
+            return book(request, response);
+        }
+        // A retry of a finished request is answered from the store, even while the schedule is rushed.
+        Optional<IdempotencyStore.StoredResponse> stored = idempotencyStore.begin(idempotencyKey, request);
+        if (stored.isPresent()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(stored.get().status())
+                    .header(IdempotencyStore.REPLAYED_HEADER, "true")
+                    .body(stored.get().bookings()));
+        }
+        // This request owns the key: store its response, or release the key so that a retry books again.
+        CompletableFuture<ResponseEntity<List<BookingResponse>>> booking;
+        try {
+            admissionControl.admit(request.scheduleId(), waitingRoomTicket);
+            booking = book(request, response);
+        } catch (RuntimeException e) {
+            idempotencyStore.release(idempotencyKey);
+            throw e;
+        }
+        // Async bookings complete on Aerospike event loops or engine partition threads; the store's
+        // writes are blocking, so they run on its own threads.
+        return booking.whenCompleteAsync((entity, failure) -> {
+            if (failure == null) {
+                idempotencyStore.complete(idempotencyKey, request, entity.getStatusCode().value(), entity.getBody());
+            } else {
+                idempotencyStore.release(idempotencyKey);
+            }
+        }, idempotencyStore.completions());
+    }
+
+    private CompletableFuture<ResponseEntity<List<BookingResponse>>> book(BookingRequest request,
+                                                                         HttpServletResponse response) {
+        // Phase durations go back to the client in a Server-Timing header, on success and on failure.
+        BookingTimings timings = new BookingTimings();
+
+        SeatInventoryEngine engine = seatInventoryEngine.getIfAvailable();
+        if (engine != null) {
+            // Seats are taken on the schedule's partition thread; only accepted bookings reach MariaDB.
+            return engine.createBookings(request, timings)
+                    .whenComplete((bookings, failure) -> response.setHeader(BookingTimings.HEADER, timings.toHeaderValue()))
+                    .thenApply(bookings -> new ResponseEntity<>(bookings, HttpStatus.CREATED));
+        }
+
+        WriteBehindBookingService writeBehind = writeBehindBookingService.getIfAvailable();
+        if (writeBehind != null) {
+            // Acknowledged once the seats are leased and the booking is in the outbox; MariaDB follows.
+            try {
+                List<BookingResponse> bookings = writeBehind.createBookings(request, timings);
+                return CompletableFuture.completedFuture(new ResponseEntity<>(bookings, HttpStatus.ACCEPTED));
+            } finally {
+                response.setHeader(BookingTimings.HEADER, timings.toHeaderValue());
+            }
+        }
+
+        AsyncBookingService asyncBooking = asyncBookingService.getIfAvailable();
+        if (asyncBooking != null) {
+            // The request thread is released while the seat locks are acquired on the Aerospike event loops.
+            return asyncBooking.createBookings(request, timings)
+                    .whenComplete((bookings, failure) -> response.setHeader(BookingTimings.HEADER, timings.toHeaderValue()))
+                    .thenApply(bookings -> new ResponseEntity<>(bookings, HttpStatus.CREATED));
+        }
+
+        try {
+            List<BookingResponse> bookings = bookingService.createBookings(request, timings);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(bookings, HttpStatus.CREATED));
+        } finally {
+            response.setHeader(BookingTimings.HEADER, timings.toHeaderValue());
+        }
+    }
+
+    @PostMapping("/together")
+    @Operation(summary = "Book adjacent seats",
+            description = "Books seatCount seats next to each other, optionally in one cabin, chosen by the server "
+                    + "(front-most row first). Requires a plane with a seat layout; 409 if no such block is free. "
+                    + "During a rush on the schedule, 429 with a Waiting-Room-Ticket to send back after Retry-After.")
+    public ResponseEntity<List<BookingResponse>> bookAdjacentSeats(
+            @Valid @RequestBody AdjacentSeatsRequest request,
+            @RequestHeader(value = ScheduleBusyException.TICKET_HEADER, required = false) String waitingRoomTicket) {
+        admissionControl.admit(request.scheduleId(), waitingRoomTicket);
+        List<BookingResponse> bookings = seatAllocationService.bookTogether(request);
         return new ResponseEntity<>(bookings, HttpStatus.CREATED);
     }
 
+    // ========================================================
+    // SEAT HOLDS: hold seats for the payment window, then confirm
+    // ========================================================
+    @PostMapping("/holds")
+    @Operation(summary = "Hold seats",
+            description = "Takes time-limited leases on the seats and returns a hold ID. Holds that are not "
+                    + "confirmed before expiresAt free their seats by themselves. During a rush on the schedule, "
+                    + "429 with a Waiting-Room-Ticket to send back after Retry-After; confirming a hold is not queued.")
+    public ResponseEntity<HoldResponse> createHold(
+            @Valid @RequestBody BookingRequest request,
+            @RequestHeader(value = ScheduleBusyException.TICKET_HEADER, required = false) String waitingRoomTicket) {
+        // Same waiting room as POST /bookings: a hold takes seats just as a booking does
+        admissionControl.admit(request.scheduleId(), waitingRoomTicket);
+        HoldResponse hold = seatHoldService.createHold(request);
+        return new ResponseEntity<>(hold, HttpStatus.CREATED);
+    }
+
+    @PostMapping("/holds/{holdId}/confirm")
+    @Operation(summary = "Confirm a seat hold", description = "Books the held seats. Returns 410 if the hold has expired.")
+    public ResponseEntity<List<BookingResponse>> confirmHold(@PathVariable String holdId) {
+        List<BookingResponse> bookings = seatHoldService.confirmHold(holdId);
+        return new ResponseEntity<>(bookings, HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    @Operation(summary = "Release a seat hold", description = "Frees the held seats before the hold expires.")
+    public ResponseEntity<Void> releaseHold(@PathVariable String holdId) {
+        seatHoldService.releaseHold(holdId);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/schedule/{scheduleId}/reserved")
     @Operation(summary = "Reserved scheduled details",
             description = "Gets the list of reserved seats for a specific flight schedule.")
-    public ResponseEntity<List<String>> getReservedSeats(@PathVariable String scheduleId) {
+    public ResponseEntity<List<String>> getReservedSeats(@PathVariable Long scheduleId) {
         List<String> reservedSeats = bookingService.getReservedSeats(scheduleId);
         return ResponseEntity.ok(reservedSeats);
     }
@@ -1,20 +1,35 @@
 package com.booking.flight.controller;
 
 
+import com.booking.flight.dto.FareCalendarRequest;
+import com.booking.flight.dto.ItinerarySearchRequest;
+import com.booking.flight.dto.ScheduleSearchPageRequest;
 import com.booking.flight.dto.ScheduleSearchRequest; // <-- DTO for search parameters
+import com.booking.flight.dto.response.FareCalendarDayResponse;
 import com.booking.flight.dto.response.FlightResponse;
+import com.booking.flight.dto.response.ItineraryResponse;
 import com.booking.flight.dto.response.PlaneResponse;
 import com.booking.flight.dto.response.ScheduleResponse;
-import com.booking.flight.dto.response.SeatMapResponse;
+import com.booking.flight.dto.response.ScheduleSearchPageResponse;
+import com.booking.flight.dto.response.SeatLegendResponse;
 import com.booking.flight.services.FlightDetailsServiceImpl;
+import com.booking.flight.services.ItinerarySearchService;
+import com.booking.flight.services.SeatMapCache;
+import com.booking.flight.services.SeatMapEventPublisher;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
         import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/v1/flights") // Base path for public flight information
@@ -22,7 +37,12 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Public Flight View", description = "Endpoints for searching and viewing schedules, flights, and planes.")
 public class ViewOnlyFlightDetailsController {
 
+    // Binary seat map: the schedule's packed seat inventory, see SeatLegendResponse
+    public static final String SEAT_BITMAP_MEDIA_TYPE = "application/vnd.flightbooking.seat-bitmap";
+
     private final FlightDetailsServiceImpl flightService; // The read-only service
+    private final SeatMapEventPublisher seatMapEventPublisher;
+    private final ItinerarySearchService itinerarySearchService;
 
     // ========================================================
     // ENDPOINT 1: SEARCH SCHEDULES (Most common query)
@@ -30,7 +50,8 @@ public class ViewOnlyFlightDetailsController {
     // ========================================================
     @PostMapping("/search")
     @Operation(summary = "Search available flight schedules",
-            description = "Finds all available flight schedules based on origin, destination, and departure date.")
+            description = "Finds all available flight schedules based on origin, destination, and departure date. "
+                    + "Results omit the seat map; fetch it from /schedules/{scheduleId}/seats.")
     public ResponseEntity<List<ScheduleResponse>> searchSchedules(
             @Valid @RequestBody ScheduleSearchRequest request) {
 
@@ -38,6 +59,53 @@ public class ViewOnlyFlightDetailsController {
         return ResponseEntity.ok(schedules);
     }
 
+    // ========================================================
+    // ENDPOINT 1A: PAGINATED SEARCH
+    // POST /api/v1/flights/search/page
+    // ========================================================
+    @PostMapping("/search/page")
+    @Operation(summary = "Search schedules one page at a time",
+            description = "Like /search, as compact rows (flight number, times, price, seats left) in departure "
+                    + "order, pageSize at a time. Pass the returned nextCursor to get the next page.")
+    public ResponseEntity<ScheduleSearchPageResponse> searchSchedulePage(
+            @Valid @RequestBody ScheduleSearchPageRequest request) {
+
+        ScheduleSearchPageResponse page = flightService.searchSchedulePage(request);
+        return ResponseEntity.ok(page);
+    }
+
+    // ========================================================
+    // ENDPOINT 1B: SEARCH CONNECTING ITINERARIES
+    // POST /api/v1/flights/itineraries
+    // ========================================================
+    @PostMapping("/itineraries")
+    @Operation(summary = "Search direct and connecting itineraries",
+            description = "Finds itineraries of up to maxStops connections (default and at most 2) departing on the "
+                    + "given date, ordered by arrival time. Connections respect minimum and maximum connection times. "
+                    + "Answers 503 while the schedule index is still being built.")
+    public ResponseEntity<List<ItineraryResponse>> searchItineraries(
+            @Valid @RequestBody ItinerarySearchRequest request) {
+
+        List<ItineraryResponse> itineraries = itinerarySearchService.searchItineraries(request);
+        return ResponseEntity.ok(itineraries);
+    }
+
+    // ========================================================
+    // ENDPOINT 1C: FARE CALENDAR
+    // POST /api/v1/flights/fare-calendar
+    // ========================================================
+    @PostMapping("/fare-calendar")
+    @Operation(summary = "Lowest fare per day of a route",
+            description = "For every day between startDate and endDate (at most "
+                    + FareCalendarRequest.MAX_CALENDAR_DAYS + " days), the lowest base price among schedules "
+                    + "with seats left and how many schedules have seats. Replaces one search per day.")
+    public ResponseEntity<List<FareCalendarDayResponse>> getFareCalendar(
+            @Valid @RequestBody FareCalendarRequest request) {
+
+        List<FareCalendarDayResponse> calendar = flightService.getFareCalendar(request);
+        return ResponseEntity.ok(calendar);
+    }
+
     // ========================================================
     // ENDPOINT 2: GET SCHEDULE BY ID
     // GET /api/v1/flights/schedules/{scheduleId}
@@ -75,13 +143,79 @@ public class ViewOnlyFlightDetailsController {
     }
 
 
+    // ========================================================
+    // ENDPOINT 5: GET SEAT LEGEND OF A PLANE
+    // GET /api/v1/flights/planes/{planeId}/seat-legend
+    // ========================================================
+    @GetMapping("/planes/{planeId}/seat-legend")
+    @Operation(summary = "Get the seat legend of a Plane",
+            description = "Seat labels and state codes needed to decode the binary seat map of the plane's schedules. "
+                    + "It only changes with the plane's seat count or seat layout, so clients may cache it for a day.")
+    public ResponseEntity<SeatLegendResponse> getSeatLegend(@PathVariable Long planeId) {
+        try {
+            SeatLegendResponse legend = flightService.getSeatLegend(planeId);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic())
+                    // The content hash covers the seat names, which change with the layout at the same seat count.
+                    .eTag("\"plane-" + planeId + "-" + legend.seatCount() + "-" + Integer.toHexString(legend.hashCode()) + "\"")
+                    .body(legend);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @GetMapping("/schedules/{scheduleId}/seats")
-    public ResponseEntity<SeatMapResponse> getSeats(@PathVariable Long scheduleId) {
+    @Operation(summary = "Get the seat map of a schedule",
+            description = "Returns the status of every seat. The ETag changes whenever the map does; "
+                    + "send it back in If-None-Match to get 304 Not Modified for an unchanged map. "
+                    + "With Accept: " + SEAT_BITMAP_MEDIA_TYPE + " the map is returned as a packed bitmap, "
+                    + "decoded with the plane's seat legend.")
+    public ResponseEntity<?> getSeats(@PathVariable Long scheduleId,
+                                      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        try {
+            SeatMapCache.VersionedSeatMap seatMap = flightService.getScheduleSeats(scheduleId);
+            // Spring answers a matching If-None-Match with 304 and skips serializing the body.
+            if (acceptsSeatBitmap(accept)) {
+                return ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(SEAT_BITMAP_MEDIA_TYPE))
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .eTag(seatMap.binaryETag())
+                        .body(seatMap.inventory().toBytes());
+            }
+            return ResponseEntity.ok()
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .eTag(seatMap.eTag())
+                    .body(seatMap.seatMap());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // JSON stays the default: the bitmap is only sent to clients that ask for it by name.
+    static boolean acceptsSeatBitmap(String accept) {
+        if (accept == null || !accept.contains(SEAT_BITMAP_MEDIA_TYPE)) {
+            return false;
+        }
+        try {
+            MediaType bitmap = MediaType.parseMediaType(SEAT_BITMAP_MEDIA_TYPE);
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(type -> type.equalsTypeAndSubtype(bitmap) && type.getQualityValue() > 0);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    @GetMapping(value = "/schedules/{scheduleId}/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream seat map changes of a schedule",
+            description = "Server-Sent Events: one 'snapshot' event with the full seat map, then a 'delta' event "
+                    + "with the new status of the seats that changed (LOCKED while a booking is in progress).")
+    public ResponseEntity<SseEmitter> streamSeats(@PathVariable Long scheduleId) {
         try {
-            SeatMapResponse seatMap = flightService.getScheduleSeats(scheduleId);
-            return ResponseEntity.ok(seatMap);
+            // Loads the seat map into the cache (or fails for an unknown schedule) before subscribing.
+            flightService.getScheduleSeats(scheduleId);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.ok(seatMapEventPublisher.subscribe(scheduleId));
     }
 }
\ No newline at end of file
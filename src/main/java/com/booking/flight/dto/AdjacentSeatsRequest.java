@@ -0,0 +1,23 @@
+package com.booking.flight.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Books seatCount seats next to each other, chosen by the server (POST /api/v1/bookings/together).
+ */
+public record AdjacentSeatsRequest(
+
+        @NotNull(message = "Schedule ID is required")
+        Long scheduleId,
+
+        @NotNull(message = "User ID is required for the booking")
+        Long userId,
+
+        @Min(value = 1, message = "At least one seat is required")
+        @Max(value = 10, message = "At most 10 seats can be booked together")
+        int seatCount,
+
+        String cabin // e.g. "Y"; null = any cabin
+) {}
@@ -0,0 +1,40 @@
+package com.booking.flight.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Lowest fare and availability per day of a route between startDate and endDate (inclusive),
+ * e.g. three days either side of a preferred date (POST /api/v1/flights/fare-calendar).
+ */
+public record FareCalendarRequest(
+        @NotBlank(message = "Origin airport code is required.")
+        String origin,
+
+        @NotBlank(message = "Destination airport code is required.")
+        String destination,
+
+        @NotNull(message = "Start date is required.")
+        @FutureOrPresent(message = "Start date must be today or in the future.")
+        LocalDate startDate,
+
+        @NotNull(message = "End date is required.")
+        LocalDate endDate
+) {
+
+    public static final int MAX_CALENDAR_DAYS = 62;
+
+    @AssertTrue(message = "End date must be on or after the start date, at most " + MAX_CALENDAR_DAYS + " days later")
+    public boolean isValidDateRange() {
+        if (startDate == null || endDate == null) {
+            return true; // reported by @NotNull
+        }
+        long days = ChronoUnit.DAYS.between(startDate, endDate);
+        return days >= 0 && days < MAX_CALENDAR_DAYS;
+    }
+}
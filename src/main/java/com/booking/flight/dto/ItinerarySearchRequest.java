@@ -0,0 +1,27 @@
+package com.booking.flight.dto;
+
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDate;
+
+/**
+ * Direct and connecting itineraries departing on a date (POST /api/v1/flights/itineraries).
+ */
+public record ItinerarySearchRequest(
+        @NotBlank(message = "Origin airport code is required.")
+        String origin,
+
+        @NotBlank(message = "Destination airport code is required.")
+        String destination,
+
+        @NotNull(message = "Departure date is required.")
+        @FutureOrPresent(message = "Departure date must be today or in the future.")
+        LocalDate departureDate,
+
+        @Min(value = 0, message = "maxStops cannot be negative.")
+        @Max(value = 2, message = "At most 2 stops are supported.")
+        Integer maxStops // null = 2
+) { }
@@ -1,5 +1,7 @@
 package com.booking.flight.dto;
 
+import com.booking.flight.models.SeatInventory;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -14,5 +16,9 @@ public record PlaneCreationRequest(
 
         @NotNull(message = "Total seats must be specified")
         @Min(value = 10, message = "Plane must have at least 10 seats")
-        Integer totalSeats // e.g., 189
+        @Max(value = SeatInventory.MAX_SEATS, message = "Plane exceeds the maximum supported seat count")
+        Integer totalSeats, // e.g., 189
+
+        // Optional, e.g. "J:1-4:AC|DF;Y:10-35:ABC|DEF" (cabin:rows:columns, '|' = aisle); must hold totalSeats seats
+        String seatLayout
 ) {}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.booking.flight.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+
+/**
+ * Request DTO for generating a season of schedules for one Flight route.
+ * One schedule is created on every matching day of week between startDate and endDate (inclusive).
+ */
+public record RecurringScheduleRequest(
+
+        // ID of the pre-defined flight route (e.g., UA123)
+        @NotNull(message = "Flight ID is required")
+        Long flightId,
+
+        // e.g., ["MONDAY", "WEDNESDAY", "FRIDAY"]
+        @NotEmpty(message = "At least one day of week is required")
+        Set<DayOfWeek> daysOfWeek,
+
+        @NotNull(message = "Start date is required")
+        @FutureOrPresent(message = "Start date must be today or in the future")
+        LocalDate startDate,
+
+        @NotNull(message = "End date is required")
+        LocalDate endDate,
+
+        // Local departure time on each generated day
+        @NotNull(message = "Departure time is required")
+        LocalTime departureTime,
+
+        // Arrival = departure + duration, so overnight flights need no special handling
+        @NotNull(message = "Flight duration is required")
+        @Min(value = 1, message = "Flight duration must be at least one minute")
+        @Max(value = 24 * 60, message = "Flight duration cannot exceed 24 hours")
+        Integer durationMinutes,
+
+        @NotNull(message = "Base price is required")
+        @DecimalMin("0.01")
+        BigDecimal basePrice
+) {
+
+    public static final int MAX_SEASON_DAYS = 366;
+
+    @AssertTrue(message = "End date must be on or after the start date, at most " + MAX_SEASON_DAYS + " days later")
+    public boolean isValidDateRange() {
+        if (startDate == null || endDate == null) {
+            return true; // reported by @NotNull
+        }
+        long days = ChronoUnit.DAYS.between(startDate, endDate);
+        return days >= 0 && days < MAX_SEASON_DAYS;
+    }
+}
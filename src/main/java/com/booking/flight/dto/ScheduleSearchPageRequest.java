@@ -0,0 +1,29 @@
+package com.booking.flight.dto;
+
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDate;
+
+/**
+ * One page of schedules of a route on a date (POST /api/v1/flights/search/page).
+ */
+public record ScheduleSearchPageRequest(
+        @NotBlank(message = "Origin airport code is required.")
+        String origin,
+
+        @NotBlank(message = "Destination airport code is required.")
+        String destination,
+
+        @NotNull(message = "Departure date is required.")
+        @FutureOrPresent(message = "Departure date must be today or in the future.")
+        LocalDate departureDate,
+
+        @Min(value = 1, message = "Page size must be at least 1.")
+        @Max(value = 100, message = "Page size cannot exceed 100.")
+        Integer pageSize, // null = 20
+
+        String cursor // nextCursor of the previous page; null for the first page
+) { }
@@ -0,0 +1,84 @@
+package com.booking.flight.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * One line of a timetable import (POST /api/v1/admin/management/import): a plane, a flight route or a
+ * schedule, as selected by type. Only the fields of that type are used.
+ * <p>
+ * NDJSON: one JSON object per line, e.g.
+ * {"type":"schedule","flightNumber":"AI101","departureTime":"2030-01-07T06:00","arrivalTime":"2030-01-07T08:10","basePrice":4999}.
+ * CSV: the type, then the fields in the order below; a header line starting with "type," and lines
+ * starting with '#' are skipped.
+ * <pre>
+ * plane,ref,model,totalSeats,seatLayout
+ * flight,flightNumber,departureAirport,arrivalAirport,plane
+ * schedule,flightNumber,departureTime,arrivalTime,basePrice
+ * </pre>
+ * A flight's plane is the ref of a plane earlier in the same import, or the ID of an existing plane.
+ * A schedule's flight is a flight number, from the import or already in the database.
+ */
+public record TimetableImportLine(
+        String type, // plane | flight | schedule
+
+        // plane
+        String ref,
+        String model,
+        Integer totalSeats,
+        String seatLayout,
+
+        // flight (flightNumber also identifies the flight of a schedule)
+        String flightNumber,
+        String departureAirport,
+        String arrivalAirport,
+        String plane,
+
+        // schedule
+        LocalDateTime departureTime,
+        LocalDateTime arrivalTime,
+        BigDecimal basePrice
+) {
+
+    public static final String PLANE = "plane";
+    public static final String FLIGHT = "flight";
+    public static final String SCHEDULE = "schedule";
+
+    /**
+     * Parses a CSV line; throws IllegalArgumentException (or a DateTimeParseException) when it is malformed.
+     */
+    public static TimetableImportLine fromCsv(String line) {
+        String[] fields = Arrays.stream(line.split(",", -1)).map(String::trim).toArray(String[]::new);
+        String type = fields[0].toLowerCase(Locale.ROOT);
+        switch (type) {
+            case PLANE -> {
+                requireFields(fields, 4, 5, "plane,ref,model,totalSeats[,seatLayout]");
+                return new TimetableImportLine(type, emptyToNull(fields[1]), fields[2], Integer.valueOf(fields[3]),
+                        fields.length == 5 ? emptyToNull(fields[4]) : null, null, null, null, null, null, null, null);
+            }
+            case FLIGHT -> {
+                requireFields(fields, 5, 5, "flight,flightNumber,departureAirport,arrivalAirport,plane");
+                return new TimetableImportLine(type, null, null, null, null, fields[1], fields[2], fields[3], fields[4],
+                        null, null, null);
+            }
+            case SCHEDULE -> {
+                requireFields(fields, 5, 5, "schedule,flightNumber,departureTime,arrivalTime,basePrice");
+                return new TimetableImportLine(type, null, null, null, null, fields[1], null, null, null,
+                        LocalDateTime.parse(fields[2]), LocalDateTime.parse(fields[3]), new BigDecimal(fields[4]));
+            }
+            default -> throw new IllegalArgumentException("Unknown type '" + fields[0] + "'");
+        }
+    }
+
+    private static void requireFields(String[] fields, int min, int max, String format) {
+        if (fields.length < min || fields.length > max) {
+            throw new IllegalArgumentException("Expected " + format + ", got " + fields.length + " fields");
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -9,7 +9,8 @@ public record BookingResponse(
         Long userId,
         String seatNumber,
         String status,
-        LocalDateTime bookingTime
+        LocalDateTime bookingTime,
+        String bookingReference
 ) {
     // FIX: Make the conversion method public and static
     public static BookingResponse fromEntity(Booking booking) {
@@ -23,7 +24,8 @@ public record BookingResponse(
                 booking.getUserId(),
                 booking.getSeatNumber(),
                 booking.getStatus(),
-                booking.getBookingTime()
+                booking.getBookingTime(),
+                booking.getBookingReference()
         );
     }
 }
\ No newline at end of file
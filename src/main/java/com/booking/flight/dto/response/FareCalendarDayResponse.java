@@ -0,0 +1,11 @@
+package com.booking.flight.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record FareCalendarDayResponse(
+        LocalDate date,
+        BigDecimal lowestBasePrice, // Among schedules with seats left; null when there are none
+        int schedules, // SCHEDULED departures of the route on this day
+        int schedulesWithSeats
+) {}
@@ -0,0 +1,12 @@
+package com.booking.flight.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record HoldResponse(
+        String holdId, // Pass to POST /bookings/holds/{holdId}/confirm before expiresAt
+        Long scheduleId,
+        Long userId,
+        List<String> seatNumbers,
+        LocalDateTime expiresAt
+) {}
@@ -0,0 +1,15 @@
+package com.booking.flight.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ItineraryResponse(
+        List<String> airports, // Origin, connection airports, destination
+        List<ScheduleResponse> legs, // One schedule per leg, without seat maps
+        int stops,
+        LocalDateTime departureTime,
+        LocalDateTime arrivalTime,
+        long durationMinutes,
+        BigDecimal totalBasePrice
+) {}
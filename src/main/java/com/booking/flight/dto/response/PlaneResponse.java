@@ -3,5 +3,6 @@ package com.booking.flight.dto.response;
 public record PlaneResponse(
         Long id,
         String model,
-        int totalSeats
+        int totalSeats,
+        String seatLayout
 ) {}
\ No newline at end of file
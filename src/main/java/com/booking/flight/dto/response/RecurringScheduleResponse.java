@@ -0,0 +1,11 @@
+package com.booking.flight.dto.response;
+
+import java.time.LocalDateTime;
+
+public record RecurringScheduleResponse(
+        Long flightId,
+        int schedulesCreated,
+        int schedulesSkipped, // dates that already had a schedule at the same departure time
+        LocalDateTime firstDeparture,
+        LocalDateTime lastDeparture
+) {}
@@ -11,5 +11,6 @@ public record ScheduleResponse(
         LocalDateTime arrivalTime,
         BigDecimal basePrice,
         String status,
-        Map<String, String> seatStatuses // Key: Seat Number, Value: Status
+        Map<String, String> seatStatuses, // Key: Seat Number, Value: Status
+        Integer availableSeats // Seats left; null when unknown
 ) {}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.booking.flight.dto.response;
+
+import java.util.List;
+
+public record ScheduleSearchPageResponse(
+        List<ScheduleSummaryResponse> schedules, // In departure order
+        String nextCursor // Pass as cursor to get the next page; null on the last page
+) {}
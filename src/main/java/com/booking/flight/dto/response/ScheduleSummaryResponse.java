@@ -0,0 +1,34 @@
+package com.booking.flight.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Search result row: what a result list shows, without the plane or seat map, so its size does not
+ * depend on the aircraft. Also the row type of ScheduleRepository.findScheduleSummaries.
+ */
+public record ScheduleSummaryResponse(
+        Long id,
+        String flightNumber,
+        LocalDateTime departureTime,
+        LocalDateTime arrivalTime,
+        BigDecimal basePrice,
+        String status,
+        Integer availableSeats // Seats left; null when unknown
+) {
+
+    // Constructor query row: seats left come from the seat counters afterwards
+    public ScheduleSummaryResponse(Long id, String flightNumber, LocalDateTime departureTime,
+                                   LocalDateTime arrivalTime, BigDecimal basePrice, String status) {
+        this(id, flightNumber, departureTime, arrivalTime, basePrice, status, null);
+    }
+
+    public static ScheduleSummaryResponse from(ScheduleResponse schedule) {
+        return new ScheduleSummaryResponse(schedule.id(), schedule.flight().flightNumber(), schedule.departureTime(),
+                schedule.arrivalTime(), schedule.basePrice(), schedule.status(), schedule.availableSeats());
+    }
+
+    public ScheduleSummaryResponse withAvailableSeats(Integer seats) {
+        return new ScheduleSummaryResponse(id, flightNumber, departureTime, arrivalTime, basePrice, status, seats);
+    }
+}
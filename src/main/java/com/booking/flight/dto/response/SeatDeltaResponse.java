@@ -0,0 +1,12 @@
+package com.booking.flight.dto.response;
+
+import java.util.Map;
+
+/**
+ * Seats of a schedule whose state changed, as streamed by GET /flights/schedules/{id}/seats/stream.
+ * Statuses are those of the seat map plus LOCKED, for seats held by a booking in progress.
+ */
+public record SeatDeltaResponse(
+        Long scheduleId,
+        Map<String, String> seatStatuses // Key: Seat Number, Value: new Status
+) {}
@@ -0,0 +1,20 @@
+package com.booking.flight.dto.response;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything needed to decode the binary seat map of a plane's schedules
+ * (GET /flights/schedules/{id}/seats with Accept: application/vnd.flightbooking.seat-bitmap).
+ * The bitmap is a big-endian seat count of headerBytes bytes, then bitsPerSeat bits per seat in
+ * seat order, lowest bits first; seat i of the bitmap is seatLabels[i].
+ */
+public record SeatLegendResponse(
+        Long planeId,
+        int seatCount,
+        int headerBytes,
+        int bitsPerSeat,
+        Map<Integer, String> stateCodes, // Key: code stored per seat, Value: Status
+        List<String> seatLabels, // Seat Numbers, in bitmap order
+        List<String> seatNames // Row and column ("12A") of each seat in bitmap order; null without a seat layout
+) {}
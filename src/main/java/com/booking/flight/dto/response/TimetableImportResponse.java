@@ -0,0 +1,16 @@
+package com.booking.flight.dto.response;
+
+import java.util.List;
+
+public record TimetableImportResponse(
+        long linesRead,
+        int planesCreated,
+        int flightsCreated,
+        int schedulesCreated,
+        int schedulesSkipped, // departures that already existed for the flight
+        long failedLines,
+        List<LineError> errors // First failures in line order; failedLines counts them all
+) {
+
+    public record LineError(long line, String message) {}
+}
@@ -0,0 +1,16 @@
+package com.booking.flight.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a hold is confirmed after its lease ran out (its seats may already be held by someone else).
+ * Maps to HTTP 410 Gone: the client has to place a new hold.
+ */
+@ResponseStatus(HttpStatus.GONE)
+public class HoldExpiredException extends RuntimeException {
+
+    public HoldExpiredException(String holdId) {
+        super("Seat hold has expired: " + holdId);
+    }
+}
@@ -0,0 +1,12 @@
+package com.booking.flight.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND) // Maps this to HTTP 404
+public class HoldNotFoundException extends RuntimeException {
+
+    public HoldNotFoundException(String holdId) {
+        super("Seat hold not found or already released: " + holdId);
+    }
+}
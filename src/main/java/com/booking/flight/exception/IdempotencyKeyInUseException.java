@@ -0,0 +1,16 @@
+package com.booking.flight.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a request with the same Idempotency-Key is still being processed.
+ * Maps to HTTP 409 Conflict: the client retries later and then gets the stored result.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyKeyInUseException extends RuntimeException {
+
+    public IdempotencyKeyInUseException(String idempotencyKey) {
+        super("A request with this Idempotency-Key is still in progress: " + idempotencyKey);
+    }
+}
@@ -0,0 +1,16 @@
+package com.booking.flight.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an Idempotency-Key is sent again with a different booking request.
+ * Maps to HTTP 422 Unprocessable Entity.
+ */
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.booking.flight.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an Idempotency-Key header is blank or too long to be used as a key.
+ * Maps to HTTP 400 Bad Request.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidIdempotencyKeyException extends RuntimeException {
+
+    public InvalidIdempotencyKeyException(String message) {
+        super(message);
+    }
+}
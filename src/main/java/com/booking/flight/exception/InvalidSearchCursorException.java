@@ -0,0 +1,12 @@
+package com.booking.flight.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSearchCursorException extends RuntimeException {
+
+    public InvalidSearchCursorException(String cursor) {
+        super("Invalid search cursor: " + cursor);
+    }
+}
@@ -0,0 +1,20 @@
+package com.booking.flight.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST) // Maps this to HTTP 400
+public class InvalidSeatException extends RuntimeException {
+
+    public InvalidSeatException(String seatNumber, Long scheduleId) {
+        super("Seat " + seatNumber + " does not exist on schedule " + scheduleId);
+    }
+
+    private InvalidSeatException(String message) {
+        super(message);
+    }
+
+    public static InvalidSeatException duplicate(String seatNumber, Long scheduleId) {
+        return new InvalidSeatException("Seat " + seatNumber + " is requested more than once on schedule " + scheduleId);
+    }
+}
@@ -0,0 +1,12 @@
+package com.booking.flight.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSeatLayoutException extends RuntimeException {
+
+    public InvalidSeatLayoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.booking.flight.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class NoAdjacentSeatsException extends RuntimeException {
+
+    public NoAdjacentSeatsException(Long scheduleId, int seatCount, String cabin) {
+        super("No " + seatCount + " adjacent seats available on schedule " + scheduleId
+                + (cabin == null ? "" : " in cabin " + cabin));
+    }
+}
@@ -0,0 +1,48 @@
+package com.booking.flight.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Thrown when a booking request for a schedule under admission control is not let in yet.
+ * Maps to HTTP 429 Too Many Requests with Retry-After and, when the request got a place in the
+ * waiting room, the ticket to send back and its position in the queue.
+ */
+public class ScheduleBusyException extends ResponseStatusException {
+
+    public static final String TICKET_HEADER = "Waiting-Room-Ticket";
+    public static final String POSITION_HEADER = "Waiting-Room-Position";
+
+    private final String ticket;
+    private final long position;
+    private final long retryAfterSeconds;
+
+    public ScheduleBusyException(Long scheduleId, String ticket, long position, long retryAfterSeconds) {
+        super(HttpStatus.TOO_MANY_REQUESTS, ticket == null
+                ? "The waiting room of Schedule ID " + scheduleId + " is full, retry later."
+                : "Schedule ID " + scheduleId + " is busy: position " + position + " in the waiting room.");
+        this.ticket = ticket;
+        this.position = position;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String getTicket() {
+        return ticket;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        if (ticket != null) {
+            headers.set(TICKET_HEADER, ticket);
+            headers.set(POSITION_HEADER, Long.toString(position));
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,18 @@
+package com.booking.flight.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a schedule has fewer seats left than requested, as read from its seat counter.
+ * A seat conflict like SeatAlreadyReservedException, so it also maps to HTTP 409 Conflict.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ScheduleSoldOutException extends SeatAlreadyReservedException {
+
+    public ScheduleSoldOutException(Long scheduleId, int seatsLeft) {
+        super(seatsLeft == 0
+                ? "Schedule " + scheduleId + " is sold out."
+                : "Schedule " + scheduleId + " has only " + seatsLeft + " seats left.");
+    }
+}
@@ -0,0 +1,16 @@
+package com.booking.flight.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a search needs the in-memory schedule index before it has been built.
+ * Maps to HTTP 503 Service Unavailable; clients retry shortly.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SearchIndexUnavailableException extends RuntimeException {
+
+    public SearchIndexUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,175 @@
+package com.booking.flight.metrics;
+
+import com.booking.flight.exception.AerospikeLockFailureException;
+import com.booking.flight.exception.BookingPersistenceException;
+import com.booking.flight.exception.SeatAlreadyReservedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters for the booking pipeline, exported through /actuator/prometheus:
+ * <ul>
+ *     <li>booking.phase{phase}: time spent in each step of createBookings</li>
+ *     <li>booking.lock.operations{operation,result_code}: each Aerospike ledger call, tagged with its result code</li>
+ *     <li>booking.failures{reason}: bookings rejected by a seat conflict, a lock failure or persistence</li>
+ *     <li>booking.compensations: lock releases run because a booking failed after locking</li>
+ *     <li>booking.outbox.flushes / booking.outbox.batch.size: write-behind transactions and the bookings in each</li>
+ *     <li>booking.outbox.rejected: write-behind bookings that could not be persisted</li>
+ *     <li>booking.admission{result}: requests to schedules under admission control that were queued or turned away</li>
+ * </ul>
+ */
+@Component
+public class BookingMetrics {
+
+    public enum Phase {
+        SEATS_LEFT("seats_left"),
+        SCHEDULE_LOAD("schedule_load"),
+        AVAILABILITY("availability"),
+        LOCK_ACQUIRE("lock_acquire"),
+        PERSIST("persist"),
+        LOCK_RELEASE("lock_release");
+
+        private final String tag;
+
+        Phase(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Phase, Timer> phaseTimers = new EnumMap<>(Phase.class);
+    private final Counter seatConflicts;
+    private final Counter lockFailures;
+    private final Counter persistenceFailures;
+    private final Counter compensations;
+    private final Timer outboxFlushes;
+    private final DistributionSummary outboxBatchSize;
+    private final Counter outboxRejected;
+    private final Counter admissionsQueued;
+    private final Counter admissionsRejected;
+
+    public BookingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Phase phase : Phase.values()) {
+            phaseTimers.put(phase, Timer.builder("booking.phase")
+                    .description("Time spent in each phase of a booking")
+                    .tag("phase", phase.tag())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        this.seatConflicts = failureCounter("seat_conflict");
+        this.lockFailures = failureCounter("lock_failure");
+        this.persistenceFailures = failureCounter("persistence");
+        this.compensations = Counter.builder("booking.compensations")
+                .description("Lock releases run because a booking failed after its seats were locked")
+                .register(meterRegistry);
+        this.outboxFlushes = Timer.builder("booking.outbox.flushes")
+                .description("MariaDB transactions of the write-behind outbox writer")
+                .register(meterRegistry);
+        this.outboxBatchSize = DistributionSummary.builder("booking.outbox.batch.size")
+                .description("Booking requests persisted per outbox transaction")
+                .register(meterRegistry);
+        this.outboxRejected = Counter.builder("booking.outbox.rejected")
+                .description("Write-behind bookings whose seats were found booked when persisting them")
+                .register(meterRegistry);
+        this.admissionsQueued = admissionCounter("queued");
+        this.admissionsRejected = admissionCounter("rejected");
+    }
+
+    public <T> T time(Phase phase, BookingTimings timings, Supplier<T> step) {
+        long start = System.nanoTime();
+        try {
+            return step.get();
+        } finally {
+            record(phase, timings, System.nanoTime() - start);
+        }
+    }
+
+    public void time(Phase phase, BookingTimings timings, Runnable step) {
+        long start = System.nanoTime();
+        try {
+            step.run();
+        } finally {
+            record(phase, timings, System.nanoTime() - start);
+        }
+    }
+
+    public void record(Phase phase, BookingTimings timings, long nanos) {
+        phaseTimers.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+        timings.add(phase.tag(), nanos);
+    }
+
+    /**
+     * Records one Aerospike lock-ledger call. resultCode is ResultCode.OK for success.
+     */
+    public void recordLockOperation(String operation, int resultCode, long nanos) {
+        Timer.builder("booking.lock.operations")
+                .description("Aerospike seat-lock ledger calls")
+                .tag("operation", operation)
+                .tag("result_code", String.valueOf(resultCode))
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a failed booking by cause. Failures with other causes are not counted.
+     */
+    public void recordFailure(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        if (cause instanceof SeatAlreadyReservedException) {
+            seatConflicts.increment();
+        } else if (cause instanceof AerospikeLockFailureException) {
+            lockFailures.increment();
+        } else if (cause instanceof BookingPersistenceException) {
+            persistenceFailures.increment();
+        }
+    }
+
+    public void recordCompensation() {
+        compensations.increment();
+    }
+
+    public void recordOutboxFlush(int bookingRequests, long nanos) {
+        outboxFlushes.record(nanos, TimeUnit.NANOSECONDS);
+        outboxBatchSize.record(bookingRequests);
+    }
+
+    public void recordOutboxRejected() {
+        outboxRejected.increment();
+    }
+
+    /**
+     * Counts a request sent to the waiting room: queued with a ticket, or turned away because the queue was full.
+     */
+    public void recordAdmission(boolean queued) {
+        (queued ? admissionsQueued : admissionsRejected).increment();
+    }
+
+    private Counter admissionCounter(String result) {
+        return Counter.builder("booking.admission")
+                .description("Booking requests held back by per-schedule admission control")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Counter failureCounter(String reason) {
+        return Counter.builder("booking.failures")
+                .description("Bookings rejected, by cause")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,34 @@
+package com.booking.flight.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Phase durations of a single booking request, rendered as a Server-Timing header value
+ * (e.g. "schedule_load;dur=1.20, lock_acquire;dur=0.85"). Phases may be recorded from
+ * several threads on the async path.
+ */
+public class BookingTimings {
+
+    public static final String HEADER = "Server-Timing";
+
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+
+    public synchronized void add(String phase, long nanos) {
+        phaseNanos.merge(phase, nanos, Long::sum);
+    }
+
+    public synchronized String toHeaderValue() {
+        StringBuilder header = new StringBuilder();
+        for (Map.Entry<String, Long> phase : phaseNanos.entrySet()) {
+            if (header.length() > 0) {
+                header.append(", ");
+            }
+            header.append(phase.getKey())
+                    .append(";dur=")
+                    .append(String.format(Locale.ROOT, "%.2f", phase.getValue() / 1_000_000.0));
+        }
+        return header.toString();
+    }
+}
@@ -4,9 +4,12 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Column;
+import jakarta.persistence.Table;
 import jakarta.persistence.Version;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -14,13 +17,15 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = @Index(name = "idx_booking_reference", columnList = "bookingReference"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
     private Long bookingId;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -40,6 +45,14 @@ public class Booking {
     @Column(nullable = false)
     private LocalDateTime bookingTime;
 
+    /**
+     * Identifies the booking request this seat was booked by (one reference for all its seats).
+     * Write-behind bookings get it before they reach MariaDB, so replaying the outbox can tell
+     * whether a booking was already persisted.
+     */
+    @Column(length = 36)
+    private String bookingReference;
+
     /**
      * JPA Optimistic Locking mechanism.
      * Hibernate/JPA automatically manages this column.
@@ -8,13 +8,15 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Table(indexes = @Index(name = "idx_flight_route", columnList = "departureAirport, arrivalAirport"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Flight {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flight_seq")
+    @SequenceGenerator(name = "flight_seq", sequenceName = "flight_seq", allocationSize = 50)
     private Long flightId;
 
     @Column(nullable = false, unique = true)
@@ -11,7 +11,8 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class Plane {
         @Id
-        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "plane_seq")
+        @SequenceGenerator(name = "plane_seq", sequenceName = "plane_seq", allocationSize = 50)
         private Long planeId;
 
         @Column(nullable = false, unique = true)
@@ -19,5 +20,10 @@ public class Plane {
 
         @Column(nullable = false)
         private Integer totalSeats; // Renamed 'capacity' for clarity
+
+        // Rows, cabins and aisles; null for planes with numbered seats only (no adjacent-seat allocation)
+        @Convert(converter = SeatLayoutConverter.class)
+        @Column(length = 255)
+        private SeatLayout seatLayout;
 }
 
@@ -4,19 +4,28 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Map;
 
 @Entity
+// Searches select a flight's schedules by departure time range
+@Table(indexes = @Index(name = "idx_schedule_flight_departure", columnList = "flightId, departureTime"))
+// Bookings change only the seat inventory; UPDATE just the changed columns.
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Schedule {
 
+    // IDs are drawn from schedule_seq in pooled blocks of this size (one sequence call per block).
+    // ScheduleBatchRepository allocates IDs for its JDBC inserts the same way.
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "schedule_seq")
+    @SequenceGenerator(name = "schedule_seq", sequenceName = "schedule_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long scheduleId;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -36,15 +45,13 @@ public class Schedule {
     @Column(nullable = false, length = 20)
     private String status;
 
-    // Calculated field, potentially stored in Aerospike for speed
+    // Seats left, read from the Aerospike seat counter (SeatAvailabilityCounter); not persisted
     @Transient
     private Integer availableSeats;
 
-    // Map to track seat status: SeatNumber -> Status (e.g., "A01" -> "AVAILABLE")
-    @ElementCollection // For JPA to handle storing a collection/map
-    @CollectionTable(name = "schedule_seat_status", // Creates a join table
-            joinColumns = @JoinColumn(name = "scheduleId"))
-    @MapKeyColumn(name = "seatNumber")
-    @Column(name = "status")
-    private Map<String, String> seatStatuses;
+    // Seat state for every seat of the schedule, packed 2 bits per seat into one column.
+    // Seat positions map to labels ("001", "002", ...) through SeatLabels.
+    @Convert(converter = SeatInventoryConverter.class)
+    @Column(nullable = false, length = SeatInventory.MAX_ENCODED_BYTES)
+    private SeatInventory seatInventory;
 }
\ No newline at end of file
@@ -0,0 +1,138 @@
+package com.booking.flight.models;
+
+import java.util.Arrays;
+
+/**
+ * Compact, immutable seat-state array for one schedule.
+ * Seats are addressed by their zero-based position (see {@link SeatLabels}) and packed
+ * at 2 bits per seat, so a 400-seat schedule is 100 bytes plus a 2-byte seat-count header.
+ * Updates return a new instance, which keeps Hibernate dirty checking a simple equals().
+ */
+public final class SeatInventory {
+
+    // The encoding of toBytes() is also served as the binary seat map, so these are part of the API.
+    public static final int BITS_PER_SEAT = 2;
+    private static final int SEATS_PER_BYTE = 8 / BITS_PER_SEAT;
+    private static final int STATE_MASK = (1 << BITS_PER_SEAT) - 1;
+    public static final int HEADER_BYTES = 2;
+    /** Upper bound of the encoded column, see {@link Schedule#getSeatInventory()}. */
+    public static final int MAX_ENCODED_BYTES = 1024;
+    public static final int MAX_SEATS = (MAX_ENCODED_BYTES - HEADER_BYTES) * SEATS_PER_BYTE;
+
+    private final int seatCount;
+    private final byte[] packedStates;
+
+    private SeatInventory(int seatCount, byte[] packedStates) {
+        this.seatCount = seatCount;
+        this.packedStates = packedStates;
+    }
+
+    /**
+     * Creates an inventory with every seat AVAILABLE (state code 0, i.e. all-zero bytes).
+     */
+    public static SeatInventory allAvailable(int seatCount) {
+        if (seatCount < 0 || seatCount > MAX_SEATS) {
+            throw new IllegalArgumentException("Seat count out of range: " + seatCount);
+        }
+        return new SeatInventory(seatCount, new byte[packedLength(seatCount)]);
+    }
+
+    /**
+     * Decodes the column value written by {@link #toBytes()}.
+     */
+    public static SeatInventory fromBytes(byte[] encoded) {
+        if (encoded == null || encoded.length < HEADER_BYTES) {
+            throw new IllegalArgumentException("Seat inventory must contain at least the seat-count header.");
+        }
+        int seatCount = ((encoded[0] & 0xFF) << 8) | (encoded[1] & 0xFF);
+        if (encoded.length != HEADER_BYTES + packedLength(seatCount)) {
+            throw new IllegalArgumentException("Seat inventory length does not match its seat count of " + seatCount);
+        }
+        return new SeatInventory(seatCount, Arrays.copyOfRange(encoded, HEADER_BYTES, encoded.length));
+    }
+
+    /**
+     * Encodes the inventory as [seatCount high byte][seatCount low byte][packed states].
+     * Seat i is bits (i % 4) * 2 .. (i % 4) * 2 + 1 of packed byte i / 4, holding its SeatState code.
+     */
+    public byte[] toBytes() {
+        byte[] encoded = new byte[HEADER_BYTES + packedStates.length];
+        encoded[0] = (byte) (seatCount >>> 8);
+        encoded[1] = (byte) seatCount;
+        System.arraycopy(packedStates, 0, encoded, HEADER_BYTES, packedStates.length);
+        return encoded;
+    }
+
+    public int seatCount() {
+        return seatCount;
+    }
+
+    public SeatState stateOf(int seatIndex) {
+        checkIndex(seatIndex);
+        return SeatState.fromCode(code(seatIndex));
+    }
+
+    public boolean isAvailable(int seatIndex) {
+        checkIndex(seatIndex);
+        return code(seatIndex) == SeatState.AVAILABLE.code();
+    }
+
+    /**
+     * Counts the seats currently in the given state.
+     */
+    public int count(SeatState state) {
+        int matches = 0;
+        for (int i = 0; i < seatCount; i++) {
+            if (code(i) == state.code()) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns a copy of this inventory with the given seats set to the given state.
+     */
+    public SeatInventory withState(int[] seatIndices, SeatState state) {
+        byte[] updated = packedStates.clone();
+        for (int seatIndex : seatIndices) {
+            checkIndex(seatIndex);
+            int byteIndex = seatIndex / SEATS_PER_BYTE;
+            int shift = (seatIndex % SEATS_PER_BYTE) * BITS_PER_SEAT;
+            updated[byteIndex] = (byte) ((updated[byteIndex] & ~(STATE_MASK << shift)) | (state.code() << shift));
+        }
+        return new SeatInventory(seatCount, updated);
+    }
+
+    private int code(int seatIndex) {
+        int shift = (seatIndex % SEATS_PER_BYTE) * BITS_PER_SEAT;
+        return (packedStates[seatIndex / SEATS_PER_BYTE] >>> shift) & STATE_MASK;
+    }
+
+    private void checkIndex(int seatIndex) {
+        if (seatIndex < 0 || seatIndex >= seatCount) {
+            throw new IndexOutOfBoundsException("Seat index " + seatIndex + " outside 0.." + (seatCount - 1));
+        }
+    }
+
+    private static int packedLength(int seatCount) {
+        return (seatCount + SEATS_PER_BYTE - 1) / SEATS_PER_BYTE;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SeatInventory other)) return false;
+        return seatCount == other.seatCount && Arrays.equals(packedStates, other.packedStates);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * seatCount + Arrays.hashCode(packedStates);
+    }
+
+    @Override
+    public String toString() {
+        return "SeatInventory{seats=" + seatCount + ", booked=" + count(SeatState.BOOKED) + "}";
+    }
+}
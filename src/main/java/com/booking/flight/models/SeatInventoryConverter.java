@@ -0,0 +1,21 @@
+package com.booking.flight.models;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a {@link SeatInventory} as a single binary column.
+ */
+@Converter
+public class SeatInventoryConverter implements AttributeConverter<SeatInventory, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(SeatInventory inventory) {
+        return inventory == null ? null : inventory.toBytes();
+    }
+
+    @Override
+    public SeatInventory convertToEntityAttribute(byte[] encoded) {
+        return encoded == null ? null : SeatInventory.fromBytes(encoded);
+    }
+}
@@ -0,0 +1,46 @@
+package com.booking.flight.models;
+
+/**
+ * Maps seat positions in a {@link SeatInventory} to the seat labels exposed by the API.
+ * Seats are numbered sequentially from "001" (index 0) to the plane's total seat count,
+ * zero-padded to at least three digits.
+ */
+public final class SeatLabels {
+
+    private static final int MIN_DIGITS = 3;
+
+    private SeatLabels() {
+    }
+
+    public static String label(int seatIndex) {
+        String number = Integer.toString(seatIndex + 1);
+        if (number.length() >= MIN_DIGITS) {
+            return number;
+        }
+        return "0".repeat(MIN_DIGITS - number.length()) + number;
+    }
+
+    /**
+     * Returns the zero-based position of a seat label, or -1 if the label is not a seat of a
+     * schedule with the given number of seats.
+     */
+    public static int indexOf(String seatLabel, int seatCount) {
+        if (seatLabel == null || seatLabel.length() < MIN_DIGITS) {
+            return -1;
+        }
+        int number = 0;
+        for (int i = 0; i < seatLabel.length(); i++) {
+            char c = seatLabel.charAt(i);
+            if (c < '0' || c > '9' || number > SeatInventory.MAX_SEATS) {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        // Only the canonical form is accepted: padding is used only below three digits.
+        boolean canonical = seatLabel.length() == MIN_DIGITS || seatLabel.charAt(0) != '0';
+        if (!canonical || number < 1 || number > seatCount) {
+            return -1;
+        }
+        return number - 1;
+    }
+}
@@ -0,0 +1,179 @@
+package com.booking.flight.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Physical seat layout of a plane: cabins of consecutive rows, each row split by aisles into segments
+ * of adjacent seats. Written as a spec of cabins separated by ';', each "CODE:FIRST-LAST:COLUMNS" with
+ * '|' for an aisle, e.g. "J:1-4:AC|DF;Y:10-35:ABC|DEF".
+ * <p>
+ * Seat positions follow the layout cabin by cabin, row by row, left to right, so position i is still
+ * seat label {@link SeatLabels#label(int)} of the seat inventory; the layout adds its name ("12A"),
+ * cabin and neighbours. Layouts are immutable and shared: every plane (and so every schedule) with the
+ * same spec uses one instance.
+ */
+public final class SeatLayout {
+
+    private static final Map<String, SeatLayout> SHARED = new ConcurrentHashMap<>();
+
+    public record Cabin(String code, int firstRow, int lastRow, String columns) {
+    }
+
+    private final String spec;
+    private final List<Cabin> cabins;
+    private final String[] seatNames;
+    private final int[] segmentOfSeat;
+    // Segments in preference order (front rows first); a cabin's segments are consecutive.
+    private final int[] segmentStart;
+    private final int[] segmentWidth;
+    private final int[] cabinFirstSegment;
+
+    private SeatLayout(String spec) {
+        this.spec = spec;
+        this.cabins = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<Integer> starts = new ArrayList<>();
+        List<Integer> widths = new ArrayList<>();
+        List<Integer> cabinStarts = new ArrayList<>();
+        int previousRow = 0;
+
+        for (String cabinSpec : spec.split(";")) {
+            String[] parts = cabinSpec.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Cabin must be CODE:FIRST-LAST:COLUMNS, got '" + cabinSpec + "'");
+            }
+            String[] rows = parts[1].split("-");
+            int firstRow = parseRow(rows[0]);
+            int lastRow = rows.length == 2 ? parseRow(rows[1]) : firstRow;
+            if (rows.length > 2 || firstRow <= previousRow || lastRow < firstRow) {
+                throw new IllegalArgumentException("Rows of cabin " + parts[0] + " must ascend and follow the previous cabin");
+            }
+            String columns = parts[2];
+            if (!columns.matches("[A-Z]+(\\|[A-Z]+)*") || columns.chars().filter(Character::isLetter).distinct().count()
+                    != columns.replace("|", "").length()) {
+                throw new IllegalArgumentException("Columns of cabin " + parts[0] + " must be distinct letters split by '|'");
+            }
+            if (cabins.stream().anyMatch(cabin -> cabin.code().equals(parts[0]))) {
+                throw new IllegalArgumentException("Duplicate cabin " + parts[0]);
+            }
+            cabins.add(new Cabin(parts[0], firstRow, lastRow, columns));
+            cabinStarts.add(starts.size());
+
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (String segment : columns.split("\\|")) {
+                    starts.add(names.size());
+                    widths.add(segment.length());
+                    for (char column : segment.toCharArray()) {
+                        names.add(row + String.valueOf(column));
+                    }
+                }
+            }
+            previousRow = lastRow;
+        }
+        if (names.size() > SeatInventory.MAX_SEATS) {
+            throw new IllegalArgumentException("Layout has more than " + SeatInventory.MAX_SEATS + " seats");
+        }
+
+        this.seatNames = names.toArray(String[]::new);
+        this.segmentStart = starts.stream().mapToInt(Integer::intValue).toArray();
+        this.segmentWidth = widths.stream().mapToInt(Integer::intValue).toArray();
+        cabinStarts.add(starts.size());
+        this.cabinFirstSegment = cabinStarts.stream().mapToInt(Integer::intValue).toArray();
+        this.segmentOfSeat = new int[seatNames.length];
+        for (int segment = 0; segment < segmentStart.length; segment++) {
+            for (int i = 0; i < segmentWidth[segment]; i++) {
+                segmentOfSeat[segmentStart[segment] + i] = segment;
+            }
+        }
+    }
+
+    /**
+     * Returns the shared layout for a spec; throws IllegalArgumentException if the spec is malformed.
+     */
+    public static SeatLayout parse(String spec) {
+        String normalized = spec.replace(" ", "").toUpperCase(Locale.ROOT);
+        return SHARED.computeIfAbsent(normalized, SeatLayout::new);
+    }
+
+    private static int parseRow(String row) {
+        try {
+            int number = Integer.parseInt(row);
+            if (number < 1) {
+                throw new IllegalArgumentException("Row numbers start at 1");
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid row number '" + row + "'");
+        }
+    }
+
+    public String spec() {
+        return spec;
+    }
+
+    public List<Cabin> cabins() {
+        return List.copyOf(cabins);
+    }
+
+    public int seatCount() {
+        return seatNames.length;
+    }
+
+    /**
+     * Row number and column letter of a seat, e.g. "12A".
+     */
+    public String seatName(int seatIndex) {
+        return seatNames[seatIndex];
+    }
+
+    public int segmentCount() {
+        return segmentStart.length;
+    }
+
+    public int segmentStart(int segment) {
+        return segmentStart[segment];
+    }
+
+    public int segmentWidth(int segment) {
+        return segmentWidth[segment];
+    }
+
+    public int segmentOf(int seatIndex) {
+        return segmentOfSeat[seatIndex];
+    }
+
+    /**
+     * First segment of the cabin, and the first segment after it; all segments when cabin is null.
+     * Returns null for an unknown cabin.
+     */
+    public int[] segmentRange(String cabin) {
+        if (cabin == null) {
+            return new int[]{0, segmentStart.length};
+        }
+        for (int i = 0; i < cabins.size(); i++) {
+            if (cabins.get(i).code().equalsIgnoreCase(cabin)) {
+                return new int[]{cabinFirstSegment[i], cabinFirstSegment[i + 1]};
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof SeatLayout other && spec.equals(other.spec));
+    }
+
+    @Override
+    public int hashCode() {
+        return spec.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
@@ -0,0 +1,21 @@
+package com.booking.flight.models;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a {@link SeatLayout} as its spec string; loading shares one instance per spec.
+ */
+@Converter
+public class SeatLayoutConverter implements AttributeConverter<SeatLayout, String> {
+
+    @Override
+    public String convertToDatabaseColumn(SeatLayout layout) {
+        return layout == null ? null : layout.spec();
+    }
+
+    @Override
+    public SeatLayout convertToEntityAttribute(String spec) {
+        return spec == null ? null : SeatLayout.parse(spec);
+    }
+}
@@ -0,0 +1,29 @@
+package com.booking.flight.models;
+
+/**
+ * State of a single seat on a schedule.
+ * The code is the 2-bit value stored for the seat in {@link SeatInventory}.
+ */
+public enum SeatState {
+    AVAILABLE(0),
+    BOOKED(1);
+
+    private static final SeatState[] BY_CODE = {AVAILABLE, BOOKED};
+
+    private final int code;
+
+    SeatState(int code) {
+        this.code = code;
+    }
+
+    public int code() {
+        return code;
+    }
+
+    public static SeatState fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown seat state code: " + code);
+        }
+        return BY_CODE[code];
+    }
+}
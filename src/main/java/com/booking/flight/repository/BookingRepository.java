@@ -3,6 +3,11 @@ package com.booking.flight.repository;
 import com.booking.flight.models.Booking;
 import com.booking.flight.models.Schedule;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Set;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
@@ -13,4 +18,11 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      * if customers have already booked seats.
      */
     boolean existsBySchedule(Schedule schedule);
+
+    /**
+     * Which of the given booking references were already persisted, in one query per outbox batch;
+     * makes replaying the booking outbox idempotent. Uses the bookingReference index.
+     */
+    @Query("SELECT DISTINCT b.bookingReference FROM Booking b WHERE b.bookingReference IN :references")
+    Set<String> findBookingReferencesIn(@Param("references") Collection<String> references);
 }
\ No newline at end of file
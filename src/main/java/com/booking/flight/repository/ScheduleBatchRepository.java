@@ -0,0 +1,64 @@
+package com.booking.flight.repository;
+
+import com.booking.flight.models.Schedule;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Bulk schedule inserts through JDBC batching, bypassing the persistence context.
+ * Runs on the connection of the surrounding JPA transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ScheduleBatchRepository {
+
+    // Rows per JDBC batch (one round trip each)
+    static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SCHEDULE =
+            "INSERT INTO schedule (schedule_id, flight_id, departure_time, arrival_time, base_price, status, seat_inventory) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String NEXT_SCHEDULE_ID_BLOCK = "SELECT NEXTVAL(schedule_seq)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Assigns IDs to the given schedules and inserts them in batches.
+     * @return The number of schedules inserted.
+     */
+    public int insertAll(List<Schedule> schedules) {
+        assignIds(schedules);
+        jdbcTemplate.batchUpdate(INSERT_SCHEDULE, schedules, BATCH_SIZE, (ps, schedule) -> {
+            ps.setLong(1, schedule.getScheduleId());
+            ps.setLong(2, schedule.getFlight().getFlightId());
+            ps.setTimestamp(3, Timestamp.valueOf(schedule.getDepartureTime()));
+            ps.setTimestamp(4, Timestamp.valueOf(schedule.getArrivalTime()));
+            ps.setBigDecimal(5, schedule.getBasePrice());
+            ps.setString(6, schedule.getStatus());
+            ps.setBytes(7, schedule.getSeatInventory().toBytes());
+        });
+        return schedules.size();
+    }
+
+    /**
+     * Draws IDs from schedule_seq the way Hibernate's pooled optimizer does: each sequence value v
+     * reserves the block (v - ID_ALLOCATION_SIZE, v], so these IDs never collide with the ones
+     * Hibernate hands out for the same sequence.
+     */
+    private void assignIds(List<Schedule> schedules) {
+        long nextId = 0;
+        long blockEnd = -1;
+        for (Schedule schedule : schedules) {
+            if (nextId > blockEnd) {
+                blockEnd = jdbcTemplate.queryForObject(NEXT_SCHEDULE_ID_BLOCK, Long.class);
+                // The sequence starts at 1, which Hibernate treats as the start of the first block.
+                nextId = Math.max(1, blockEnd - Schedule.ID_ALLOCATION_SIZE + 1);
+            }
+            schedule.setScheduleId(nextId++);
+        }
+    }
+}
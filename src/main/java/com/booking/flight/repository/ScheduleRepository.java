@@ -1,24 +1,29 @@
 // src/main/java/com/booking/flight/repository/ScheduleRepository.java
 package com.booking.flight.repository;
 
+import com.booking.flight.dto.response.ScheduleSummaryResponse;
 import com.booking.flight.models.Schedule;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
 
     /**
-     * Finds available schedules based on origin, destination, and date.
+     * Finds available schedules based on origin, destination, and a departure time range.
      * Uses JOIN FETCH to eagerly load the nested Flight and Plane entities
      * in a single query to prevent LazyInitializationException during DTO conversion.
+     * The range compares the departure_time column itself, so the (flightId, departureTime) index applies.
      * * @param origin The departure airport code.
      * @param destination The arrival airport code.
-     * @param departureDate The desired date of departure.
+     * @param from The earliest departure time (inclusive), e.g. the start of the desired day.
+     * @param to The latest departure time (exclusive), e.g. the start of the next day.
      * @return A list of matching Schedule entities with Flight and Plane eagerly loaded.
      */
     @Query("SELECT s FROM Schedule s " +
@@ -28,15 +33,114 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
             "JOIN FETCH f.plane p " +
             "WHERE f.departureAirport = :origin " +
             "AND f.arrivalAirport = :destination " +
-            // Cast the schedule's departureTime (e.g., LocalDateTime) to date for comparison
-            "AND CAST(s.departureTime AS date) = :departureDate " +
+            "AND s.departureTime >= :from " +
+            "AND s.departureTime < :to " +
             "AND s.status = 'SCHEDULED'")
     List<Schedule> findAvailableSchedules(
             @Param("origin") String origin,
             @Param("destination") String destination,
-            @Param("departureDate") LocalDate departureDate
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
     );
 
+    /**
+     * One page of search results as summary rows, in (departureTime, scheduleId) order.
+     * A constructor query over the schedule and flight columns: neither the plane nor the
+     * seat inventory is read, so the cost does not depend on the aircraft size.
+     * Keyset pagination: the page starts after the (afterTime, afterId) key of the last row of the
+     * previous page; the first page passes the start of the range and id 0.
+     * * @param origin The departure airport code.
+     * @param destination The arrival airport code.
+     * @param afterTime Departure time of the last row already returned (or the start of the range).
+     * @param afterId Schedule ID of the last row already returned (or 0).
+     * @param to The latest departure time (exclusive).
+     * @param limit Maximum number of rows.
+     * @return The summary rows, without seats left (availableSeats is null).
+     */
+    @Query("SELECT new com.booking.flight.dto.response.ScheduleSummaryResponse(" +
+            "s.scheduleId, f.flightNumber, s.departureTime, s.arrivalTime, s.basePrice, s.status) " +
+            "FROM Schedule s JOIN s.flight f " +
+            "WHERE f.departureAirport = :origin " +
+            "AND f.arrivalAirport = :destination " +
+            "AND s.departureTime >= :afterTime " +
+            "AND s.departureTime < :to " +
+            "AND (s.departureTime > :afterTime OR s.scheduleId > :afterId) " +
+            "AND s.status = 'SCHEDULED' " +
+            "ORDER BY s.departureTime, s.scheduleId")
+    List<ScheduleSummaryResponse> findScheduleSummaries(
+            @Param("origin") String origin,
+            @Param("destination") String destination,
+            @Param("afterTime") LocalDateTime afterTime,
+            @Param("afterId") Long afterId,
+            @Param("to") LocalDateTime to,
+            Limit limit
+    );
+
+    /**
+     * Loads every SCHEDULED schedule departing at or after the given time, with Flight and Plane
+     * eagerly loaded. Used to build the in-memory schedule search index at startup.
+     * * @param from The earliest departure time to include.
+     * @return The matching Schedule entities.
+     */
+    @Query("SELECT s FROM Schedule s " +
+            "JOIN FETCH s.flight f " +
+            "JOIN FETCH f.plane p " +
+            "WHERE s.departureTime >= :from " +
+            "AND s.status = 'SCHEDULED'")
+    List<Schedule> findScheduledDepartingFrom(@Param("from") LocalDateTime from);
+
+    /**
+     * One page of the SCHEDULED schedules departing at or after the given time, in scheduleId order,
+     * with Flight and Plane eagerly loaded. Keyset pagination: the page starts after the last schedule
+     * ID of the previous page (0 for the first). Used to reconcile the seat counters page by page.
+     * * @param from The earliest departure time to include.
+     * @param afterId Schedule ID of the last row already read (or 0).
+     * @param limit Maximum number of rows.
+     * @return The matching Schedule entities.
+     */
+    @Query("SELECT s FROM Schedule s " +
+            "JOIN FETCH s.flight f " +
+            "JOIN FETCH f.plane p " +
+            "WHERE s.departureTime >= :from " +
+            "AND s.status = 'SCHEDULED' " +
+            "AND s.scheduleId > :afterId " +
+            "ORDER BY s.scheduleId")
+    List<Schedule> findScheduledDepartingFromAfter(@Param("from") LocalDateTime from,
+                                                   @Param("afterId") Long afterId,
+                                                   Limit limit);
+
+    /**
+     * Departure times of the schedules of one flight route within [from, to].
+     * Used to skip dates that already have a schedule when generating a season.
+     */
+    @Query("SELECT s.departureTime FROM Schedule s " +
+            "WHERE s.flight.flightId = :flightId " +
+            "AND s.departureTime BETWEEN :from AND :to")
+    List<LocalDateTime> findDepartureTimesForFlight(@Param("flightId") Long flightId,
+                                                    @Param("from") LocalDateTime from,
+                                                    @Param("to") LocalDateTime to);
+
+    /**
+     * Departures that already exist for any of the given flight routes within [from, to].
+     * Used by the timetable import to skip schedules imported before.
+     * * @param flightIds The flight routes.
+     * @param from The earliest departure time to include.
+     * @param to The latest departure time to include.
+     * @return One (flight, departure time) key per existing schedule.
+     */
+    @Query("SELECT s.flight.flightId AS flightId, s.departureTime AS departureTime FROM Schedule s " +
+            "WHERE s.flight.flightId IN :flightIds " +
+            "AND s.departureTime BETWEEN :from AND :to")
+    List<DepartureKey> findDepartures(@Param("flightIds") Collection<Long> flightIds,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to);
+
+    interface DepartureKey {
+        Long getFlightId();
+
+        LocalDateTime getDepartureTime();
+    }
+
     /**
      * Retrieves a single schedule by ID, eagerly fetching all necessary nested details.
      * * @param id The unique ID of the schedule.
@@ -47,4 +151,14 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
             "JOIN FETCH f.plane p " +
             "WHERE s.scheduleId = :id")
     Optional<Schedule> findByIdWithFlightDetails(@Param("id") Long id);
+
+    /**
+     * Reads the encoded seat inventory of a schedule and locks its row until the transaction ends.
+     * Bookings apply their seat changes to this fresh copy, so concurrent bookings of different
+     * seats on the same schedule cannot overwrite each other.
+     * * @param id The unique ID of the schedule.
+     * @return The SeatInventory column bytes, or null if the schedule does not exist.
+     */
+    @Query(value = "SELECT s.seat_inventory FROM schedule s WHERE s.schedule_id = :id FOR UPDATE", nativeQuery = true)
+    byte[] lockSeatInventory(@Param("id") Long id);
 }
\ No newline at end of file
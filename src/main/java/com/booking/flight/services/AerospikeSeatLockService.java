@@ -0,0 +1,196 @@
+package com.booking.flight.services;
+
+import com.aerospike.client.*;
+import com.aerospike.client.Record;
+import com.aerospike.client.cdt.MapOperation;
+import com.aerospike.client.cdt.MapOrder;
+import com.aerospike.client.cdt.MapPolicy;
+import com.aerospike.client.cdt.MapReturnType;
+import com.aerospike.client.cdt.MapWriteFlags;
+import com.aerospike.client.policy.WritePolicy;
+import com.booking.flight.config.aeroSpikeConfig.AerospikeConfiguration;
+import com.booking.flight.exception.AerospikeLockFailureException;
+import com.booking.flight.exception.SeatAlreadyReservedException;
+import com.booking.flight.metrics.BookingMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Seat locks backed by one Aerospike record per schedule.
+ * The record holds a single map bin (seat number -> [lease expiry millis, holder]), so locking or
+ * releasing any number of seats is one atomic operate() call, i.e. one network round trip.
+ * Every lock is a lease: an entry past its expiry is purged by the next acquire on the schedule,
+ * so a crash between acquire and release cannot leave a seat locked for good.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AerospikeSeatLockService implements ISeatLockService {
+
+    static final String SEAT_LOCK_SET = "seat_locks";
+    static final String SEAT_LOCK_BIN = "locks";
+    // operation tag values of the booking.lock.operations timer
+    static final String ACQUIRE = "acquire";
+    static final String RELEASE = "release";
+    static final String READ = "read";
+
+    // CREATE_ONLY without NO_FAIL/PARTIAL: if any seat key already exists the whole putItems fails
+    // with ELEMENT_EXISTS and the record is left untouched (all-or-nothing).
+    private static final MapPolicy CREATE_ONLY_MAP_POLICY =
+            new MapPolicy(MapOrder.KEY_ORDERED, MapWriteFlags.CREATE_ONLY);
+
+    private final AerospikeClient aerospikeClient;
+
+    @Qualifier("aerospikeLockingPolicy")
+    private final WritePolicy aerospikeLockingPolicy;
+    private final AerospikeConfiguration aerospikeConfig;
+    private final BookingMetrics bookingMetrics;
+
+    @Override
+    public SeatLease acquireLocks(Long scheduleId, List<String> seatNumbers, Long userId) {
+        SeatLease lease = SeatLease.forUser(scheduleId, seatNumbers, userId, aerospikeConfig.getLockLeaseSeconds());
+        if (seatNumbers.isEmpty()) {
+            return lease;
+        }
+
+        log.debug("Attempting to acquire {} seat locks for schedule {}", seatNumbers.size(), scheduleId);
+        long start = System.nanoTime();
+        try {
+            aerospikeClient.operate(aerospikeLockingPolicy, ledgerKey(aerospikeConfig, scheduleId),
+                    acquireOperations(seatNumbers, lease.holder(), lease.expiresAtMillis()));
+            bookingMetrics.recordLockOperation(ACQUIRE, ResultCode.OK, System.nanoTime() - start);
+        } catch (AerospikeException e) {
+            bookingMetrics.recordLockOperation(ACQUIRE, e.getResultCode(), System.nanoTime() - start);
+            RuntimeException failure = translateAcquireFailure(scheduleId, seatNumbers, e);
+            // The write may have been applied if the client gave up after sending it; undo it in that case.
+            // Only this lease's own entries are removed, never a seat another holder locked first.
+            if (e.getInDoubt()) {
+                releaseLocks(lease);
+            }
+            throw failure;
+        }
+        log.debug("Acquired {} seat locks for schedule {}", seatNumbers.size(), scheduleId);
+        return lease;
+    }
+
+    @Override
+    public void releaseLocks(SeatLease lease) {
+        if (lease.seatNumbers().isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            aerospikeClient.operate(aerospikeLockingPolicy, ledgerKey(aerospikeConfig, lease.scheduleId()),
+                    releaseOperation(lease.holder(), lease.expiresAtMillis()));
+            bookingMetrics.recordLockOperation(RELEASE, ResultCode.OK, System.nanoTime() - start);
+            log.info("Successfully released all {} Aerospike locks.", lease.seatNumbers().size());
+        } catch (AerospikeException e) {
+            bookingMetrics.recordLockOperation(RELEASE, e.getResultCode(), System.nanoTime() - start);
+            logReleaseFailure(lease.scheduleId(), lease.seatNumbers(), e);
+        }
+    }
+
+    /**
+     * Single-key read of the schedule's ledger. Expired leases are filtered out on the server;
+     * a schedule that never had a lock has no ledger and no locked seats.
+     */
+    @Override
+    public List<String> lockedSeats(Long scheduleId) {
+        long start = System.nanoTime();
+        try {
+            Record ledger = aerospikeClient.operate(null, ledgerKey(aerospikeConfig, scheduleId),
+                    liveLocksOperation(System.currentTimeMillis()));
+            bookingMetrics.recordLockOperation(READ, ResultCode.OK, System.nanoTime() - start);
+            if (ledger == null || ledger.getList(SEAT_LOCK_BIN) == null) {
+                return List.of();
+            }
+            return ledger.getList(SEAT_LOCK_BIN).stream().map(String::valueOf).collect(Collectors.toList());
+        } catch (AerospikeException e) {
+            bookingMetrics.recordLockOperation(READ, e.getResultCode(), System.nanoTime() - start);
+            if (e.getResultCode() == ResultCode.KEY_NOT_FOUND_ERROR) {
+                return List.of();
+            }
+            log.error("Failed to read seat locks for schedule {}: {}", scheduleId, e.getMessage(), e);
+            throw new AerospikeLockFailureException("Aerospike seat-lock ledger read failed.", e);
+        }
+    }
+
+    // --- Shared with AsyncAerospikeSeatLockService ---
+
+    static Key ledgerKey(AerospikeConfiguration aerospikeConfig, Long scheduleId) {
+        return new Key(aerospikeConfig.getNamespace(), SEAT_LOCK_SET, String.valueOf(scheduleId));
+    }
+
+    static long leaseExpiry(int leaseSeconds) {
+        return System.currentTimeMillis() + leaseSeconds * 1000L;
+    }
+
+    /**
+     * Purges expired leases, then locks all seats for the holder (a user ID, or a hold ID).
+     * Both run in one atomic operate(): if any seat holds a live lease, neither is applied.
+     */
+    static Operation[] acquireOperations(List<String> seatNumbers, Object holder, long leaseExpiresAtMillis) {
+        Map<Value, Value> seatLocks = new HashMap<>();
+        Value lease = leaseValue(holder, leaseExpiresAtMillis);
+        for (String seatNumber : seatNumbers) {
+            seatLocks.put(Value.get(seatNumber), lease);
+        }
+        return new Operation[] {
+                purgeExpiredOperation(System.currentTimeMillis()),
+                MapOperation.putItems(CREATE_ONLY_MAP_POLICY, SEAT_LOCK_BIN, seatLocks)
+        };
+    }
+
+    static Value leaseValue(Object holder, long leaseExpiresAtMillis) {
+        return Value.get(List.of(leaseExpiresAtMillis, holder));
+    }
+
+    /**
+     * Removes every entry whose lease expired before nowMillis. Lists order element by element,
+     * so [expiry, holder] sorts below [nowMillis] exactly when expiry < nowMillis.
+     */
+    static Operation purgeExpiredOperation(long nowMillis) {
+        return MapOperation.removeByValueRange(SEAT_LOCK_BIN, null, Value.get(List.of(nowMillis)), MapReturnType.NONE);
+    }
+
+    /**
+     * Returns the seat numbers whose lease expires at or after nowMillis (the complement of
+     * {@link #purgeExpiredOperation}), without modifying the ledger.
+     */
+    static Operation liveLocksOperation(long nowMillis) {
+        return MapOperation.getByValueRange(SEAT_LOCK_BIN, Value.get(List.of(nowMillis)), null, MapReturnType.KEY);
+    }
+
+    /**
+     * Removes the holder's own ledger entries only: matching on the full lease value leaves alone any
+     * seat that was re-locked by someone else after this lease expired.
+     */
+    static Operation releaseOperation(Object holder, long leaseExpiresAtMillis) {
+        return MapOperation.removeByValue(SEAT_LOCK_BIN, leaseValue(holder, leaseExpiresAtMillis), MapReturnType.NONE);
+    }
+
+    static RuntimeException translateAcquireFailure(Long scheduleId, List<String> seatNumbers, AerospikeException e) {
+        if (e.getResultCode() == ResultCode.ELEMENT_EXISTS || e.getResultCode() == ResultCode.KEY_EXISTS_ERROR) {
+            log.warn("LOCK CONFLICT: One or more of seats {} on schedule {} are already locked.", seatNumbers, scheduleId);
+            return new SeatAlreadyReservedException("One or more requested seats are currently reserved or locked.", e);
+        }
+
+        log.error("Aerospike critical failure while locking seats: {}", e.getMessage(), e);
+        return new AerospikeLockFailureException("Aerospike locking failure (non-conflict error).", e);
+    }
+
+    static void logReleaseFailure(Long scheduleId, List<String> seatNumbers, AerospikeException e) {
+        // A missing ledger means there is nothing left to release.
+        if (e.getResultCode() != ResultCode.KEY_NOT_FOUND_ERROR) {
+            log.error("Failed to release seat locks {} for schedule {}: {}", seatNumbers, scheduleId, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.booking.flight.services;
+
+import com.aerospike.client.AerospikeClient;
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.Key;
+import com.aerospike.client.Operation;
+import com.aerospike.client.Record;
+import com.aerospike.client.ResultCode;
+import com.aerospike.client.async.EventLoops;
+import com.aerospike.client.listener.RecordListener;
+import com.aerospike.client.policy.WritePolicy;
+import com.booking.flight.config.aeroSpikeConfig.AerospikeConfiguration;
+import com.booking.flight.metrics.BookingMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of {@link AerospikeSeatLockService}: the same per-schedule ledger operations,
+ * issued on the Aerospike event loops. Futures complete on an event-loop thread, so callers must
+ * hop to their own executor before doing any blocking work.
+ * Active when aerospike.lock-mode=async.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "aerospike.lock-mode", havingValue = "async")
+public class AsyncAerospikeSeatLockService {
+
+    private final AerospikeClient aerospikeClient;
+    private final EventLoops aerospikeEventLoops;
+
+    @Qualifier("aerospikeLockingPolicy")
+    private final WritePolicy aerospikeLockingPolicy;
+    private final AerospikeConfiguration aerospikeConfig;
+    private final BookingMetrics bookingMetrics;
+
+    /**
+     * Locks all requested seats and completes with the lease to release them with. Completes exceptionally
+     * with SeatAlreadyReservedException when any seat is already locked, or AerospikeLockFailureException
+     * for other failures.
+     */
+    public CompletableFuture<SeatLease> acquireLocksAsync(Long scheduleId, List<String> seatNumbers, Long userId) {
+        CompletableFuture<SeatLease> acquired = new CompletableFuture<>();
+        SeatLease lease = SeatLease.forUser(scheduleId, seatNumbers, userId, aerospikeConfig.getLockLeaseSeconds());
+        if (seatNumbers.isEmpty()) {
+            acquired.complete(lease);
+            return acquired;
+        }
+
+        long start = System.nanoTime();
+        execute(AerospikeSeatLockService.ledgerKey(aerospikeConfig, scheduleId), new RecordListener() {
+            @Override
+            public void onSuccess(Key key, Record record) {
+                bookingMetrics.recordLockOperation(AerospikeSeatLockService.ACQUIRE, ResultCode.OK, System.nanoTime() - start);
+                log.debug("Acquired {} seat locks for schedule {}", seatNumbers.size(), scheduleId);
+                acquired.complete(lease);
+            }
+
+            @Override
+            public void onFailure(AerospikeException e) {
+                bookingMetrics.recordLockOperation(AerospikeSeatLockService.ACQUIRE, e.getResultCode(), System.nanoTime() - start);
+                RuntimeException failure = AerospikeSeatLockService.translateAcquireFailure(scheduleId, seatNumbers, e);
+                if (e.getInDoubt()) {
+                    releaseLocksAsync(lease);
+                }
+                acquired.completeExceptionally(failure);
+            }
+        }, AerospikeSeatLockService.acquireOperations(seatNumbers, lease.holder(), lease.expiresAtMillis()));
+        return acquired;
+    }
+
+    /**
+     * Releases the seat locks of a lease, leaving alone seats that another holder has re-locked since.
+     * Never completes exceptionally: failures are logged, so callers can fire and forget.
+     */
+    public CompletableFuture<Void> releaseLocksAsync(SeatLease lease) {
+        Long scheduleId = lease.scheduleId();
+        List<String> seatNumbers = lease.seatNumbers();
+        CompletableFuture<Void> released = new CompletableFuture<>();
+        if (seatNumbers.isEmpty()) {
+            released.complete(null);
+            return released;
+        }
+
+        long start = System.nanoTime();
+        execute(AerospikeSeatLockService.ledgerKey(aerospikeConfig, scheduleId), new RecordListener() {
+            @Override
+            public void onSuccess(Key key, Record record) {
+                bookingMetrics.recordLockOperation(AerospikeSeatLockService.RELEASE, ResultCode.OK, System.nanoTime() - start);
+                log.debug("Released {} seat locks for schedule {}", seatNumbers.size(), scheduleId);
+                released.complete(null);
+            }
+
+            @Override
+            public void onFailure(AerospikeException e) {
+                bookingMetrics.recordLockOperation(AerospikeSeatLockService.RELEASE, e.getResultCode(), System.nanoTime() - start);
+                AerospikeSeatLockService.logReleaseFailure(scheduleId, seatNumbers, e);
+                released.complete(null);
+            }
+        }, AerospikeSeatLockService.releaseOperation(lease.holder(), lease.expiresAtMillis()));
+        return released;
+    }
+
+    private void execute(Key ledgerKey, RecordListener listener, Operation... operations) {
+        try {
+            aerospikeClient.operate(aerospikeEventLoops.next(), listener, aerospikeLockingPolicy, ledgerKey, operations);
+        } catch (AerospikeException e) {
+            // Rejected before reaching the event loop (e.g. the async command queue is full).
+            listener.onFailure(e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.BookingRequest;
+import com.booking.flight.dto.response.BookingResponse;
+import com.booking.flight.exception.BookingPersistenceException;
+import com.booking.flight.metrics.BookingMetrics;
+import com.booking.flight.metrics.BookingMetrics.Phase;
+import com.booking.flight.metrics.BookingTimings;
+import com.booking.flight.models.Booking;
+import com.booking.flight.models.Schedule;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Booking flow on the Aerospike async client (aerospike.lock-mode=async).
+ * Same steps as {@link BookingService#createBookings}, but no thread waits for Aerospike:
+ * locks are acquired on the event loops, the MariaDB transaction runs on bookingPersistenceExecutor,
+ * and locks are released fire-and-forget once the booking has committed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "aerospike.lock-mode", havingValue = "async")
+public class AsyncBookingService {
+
+    private final BookingService bookingService;
+    private final AsyncAerospikeSeatLockService asyncSeatLockService;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingMetrics bookingMetrics;
+    private final SeatMapEventPublisher seatMapEventPublisher;
+
+    @Qualifier("bookingPersistenceExecutor")
+    private final Executor bookingPersistenceExecutor;
+
+    public CompletableFuture<List<BookingResponse>> createBookings(BookingRequest request) {
+        return createBookings(request, new BookingTimings());
+    }
+
+    /**
+     * Books the requested seats, recording the duration of each phase in the given timings.
+     * The lock release runs after the future completes, so its phase may be missing from the timings.
+     */
+    public CompletableFuture<List<BookingResponse>> createBookings(BookingRequest request, BookingTimings timings) {
+        log.info("Attempting async seat booking for Schedule ID {} and {} seats by User ID {}",
+                request.scheduleId(), request.seatNumbers().size(), request.userId());
+
+        try {
+            return book(request, timings).whenComplete((bookings, failure) -> {
+                if (failure != null) {
+                    bookingMetrics.recordFailure(failure);
+                }
+            });
+        } catch (RuntimeException e) {
+            bookingMetrics.recordFailure(e);
+            throw e;
+        }
+    }
+
+    private CompletableFuture<List<BookingResponse>> book(BookingRequest request, BookingTimings timings) {
+        // Schedule load and prevalidation stay on the request thread: they reject bad requests
+        // before any lock traffic. Exceptions here propagate directly to the caller.
+        bookingMetrics.time(Phase.SEATS_LEFT, timings, () -> bookingService.checkSeatsLeft(request));
+        Schedule schedule = bookingMetrics.time(Phase.SCHEDULE_LOAD, timings,
+                () -> bookingService.loadSchedule(request.scheduleId()));
+        int[] seatIndices = bookingMetrics.time(Phase.AVAILABILITY, timings,
+                () -> bookingService.prevalidate(schedule, request.seatNumbers()));
+
+        long lockStart = System.nanoTime();
+        return asyncSeatLockService.acquireLocksAsync(request.scheduleId(), request.seatNumbers(), request.userId())
+                .whenComplete((lease, failure) -> bookingMetrics.record(Phase.LOCK_ACQUIRE, timings, System.nanoTime() - lockStart))
+                .thenApply(lease -> {
+                    seatMapEventPublisher.publish(request.scheduleId(), request.seatNumbers(), SeatMapEventPublisher.LOCKED);
+                    return lease;
+                })
+                .thenCompose(lease -> persistAsync(schedule, request, seatIndices, lease, timings));
+    }
+
+    private CompletableFuture<List<BookingResponse>> persistAsync(Schedule schedule, BookingRequest request,
+                                                                  int[] seatIndices, SeatLease lease,
+                                                                  BookingTimings timings) {
+        try {
+            return CompletableFuture.supplyAsync(() -> persistAndRelease(schedule, request, seatIndices, lease, timings),
+                    bookingPersistenceExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Booking persistence queue is full; releasing locks for schedule {}", request.scheduleId());
+            release(lease, timings, true);
+            return CompletableFuture.failedFuture(new BookingPersistenceException("Booking persistence queue is full.", e));
+        }
+    }
+
+    private List<BookingResponse> persistAndRelease(Schedule schedule, BookingRequest request,
+                                                    int[] seatIndices, SeatLease lease, BookingTimings timings) {
+        List<Booking> savedBookings;
+        try {
+            // Timed around the whole transaction, so the MariaDB commit is included.
+            savedBookings = bookingMetrics.time(Phase.PERSIST, timings, () ->
+                    transactionTemplate.execute(status -> bookingService.persistBookings(schedule, request, seatIndices)));
+        } catch (RuntimeException e) {
+            log.error("Critical error during async booking. Executing lock compensation. Error: {}", e.getMessage(), e);
+            release(lease, timings, true);
+            throw BookingService.asBookingFailure(e);
+        }
+
+        // Committed: the locks are no longer needed, and the client does not wait for their release.
+        release(lease, timings, false);
+        return BookingService.toResponses(savedBookings);
+    }
+
+    private void release(SeatLease lease, BookingTimings timings, boolean compensation) {
+        if (compensation) {
+            bookingMetrics.recordCompensation();
+            seatMapEventPublisher.publishReleased(lease.scheduleId(), lease.seatNumbers());
+        }
+        long releaseStart = System.nanoTime();
+        asyncSeatLockService.releaseLocksAsync(lease)
+                .whenComplete((released, failure) -> bookingMetrics.record(Phase.LOCK_RELEASE, timings, System.nanoTime() - releaseStart));
+    }
+}
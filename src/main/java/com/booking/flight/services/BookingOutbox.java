@@ -0,0 +1,186 @@
+package com.booking.flight.services;
+
+import com.aerospike.client.*;
+import com.aerospike.client.Record;
+import com.aerospike.client.policy.BatchPolicy;
+import com.aerospike.client.policy.RecordExistsAction;
+import com.aerospike.client.policy.ScanPolicy;
+import com.aerospike.client.policy.WritePolicy;
+import com.booking.flight.config.aeroSpikeConfig.AerospikeConfiguration;
+import com.booking.flight.dto.BookingRequest;
+import com.booking.flight.exception.AerospikeLockFailureException;
+import com.booking.flight.metrics.BookingMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Durable outbox of write-behind bookings (booking.write-behind.enabled=true), one record per booking
+ * request in the booking_outbox set. Appending an entry first takes the seat leases in the schedule's
+ * lock ledger, held by the booking reference, then stores the entry; from then on the booking is decided
+ * and only has to reach MariaDB. The leases keep the seats taken until the entry is completed.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.write-behind.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class BookingOutbox {
+
+    static final String OUTBOX_SET = "booking_outbox";
+    static final String REFERENCE_BIN = "reference";
+    static final String SCHEDULE_ID_BIN = "schedule_id";
+    static final String USER_ID_BIN = "user_id";
+    static final String SEATS_BIN = "seats";
+    static final String CREATED_AT_BIN = "created_at";
+    static final String LEASE_EXPIRES_AT_BIN = "lease_expires";
+    static final String STATUS_BIN = "status";
+    static final String FAILED = "FAILED";
+
+    private final AerospikeClient aerospikeClient;
+
+    @Qualifier("aerospikeLockingPolicy")
+    private final WritePolicy aerospikeLockingPolicy;
+    private final AerospikeConfiguration aerospikeConfig;
+    private final BookingMetrics bookingMetrics;
+
+    public record Entry(String bookingReference, Long scheduleId, Long userId, List<String> seatNumbers,
+                 long createdAtMillis, long leaseExpiresAtMillis) {
+
+        BookingRequest request() {
+            return new BookingRequest(scheduleId, seatNumbers, userId);
+        }
+    }
+
+    /**
+     * Creates an entry for the request, leasing its seats for booking.write-behind.lease-seconds.
+     */
+    Entry newEntry(String bookingReference, BookingRequest request) {
+        return new Entry(bookingReference, request.scheduleId(), request.userId(), request.seatNumbers(),
+                System.currentTimeMillis(), AerospikeSeatLockService.leaseExpiry(aerospikeConfig.getWriteBehindLeaseSeconds()));
+    }
+
+    /**
+     * Locks the entry's seats (all or none, like AerospikeSeatLockService), then stores the entry.
+     * Throws SeatAlreadyReservedException on a seat conflict and AerospikeLockFailureException otherwise;
+     * in both cases nothing is left behind.
+     */
+    public void append(Entry entry) {
+        long start = System.nanoTime();
+        try {
+            aerospikeClient.operate(aerospikeLockingPolicy, ledgerKey(entry),
+                    AerospikeSeatLockService.acquireOperations(entry.seatNumbers(), entry.bookingReference(), entry.leaseExpiresAtMillis()));
+            bookingMetrics.recordLockOperation(AerospikeSeatLockService.ACQUIRE, ResultCode.OK, System.nanoTime() - start);
+        } catch (AerospikeException e) {
+            bookingMetrics.recordLockOperation(AerospikeSeatLockService.ACQUIRE, e.getResultCode(), System.nanoTime() - start);
+            RuntimeException failure = AerospikeSeatLockService.translateAcquireFailure(entry.scheduleId(), entry.seatNumbers(), e);
+            if (e.getInDoubt()) {
+                releaseLeases(entry);
+            }
+            throw failure;
+        }
+
+        try {
+            aerospikeClient.put(outboxRecordPolicy(), outboxKey(entry.bookingReference()),
+                    new Bin(REFERENCE_BIN, entry.bookingReference()),
+                    new Bin(SCHEDULE_ID_BIN, entry.scheduleId()),
+                    new Bin(USER_ID_BIN, entry.userId()),
+                    new Bin(SEATS_BIN, entry.seatNumbers()),
+                    new Bin(CREATED_AT_BIN, entry.createdAtMillis()),
+                    new Bin(LEASE_EXPIRES_AT_BIN, entry.leaseExpiresAtMillis()));
+        } catch (AerospikeException e) {
+            log.error("Failed to store booking {} in the outbox; releasing its seat leases. Error: {}",
+                    entry.bookingReference(), e.getMessage(), e);
+            releaseLeases(entry);
+            throw new AerospikeLockFailureException("Aerospike failure while storing the booking in the outbox.", e);
+        }
+    }
+
+    /**
+     * Removes entries whose bookings are in MariaDB, with their seat leases.
+     */
+    public void complete(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        entries.forEach(this::releaseLeases);
+        Key[] keys = entries.stream().map(entry -> outboxKey(entry.bookingReference())).toArray(Key[]::new);
+        try {
+            aerospikeClient.delete(new BatchPolicy(), null, keys);
+        } catch (AerospikeException e) {
+            // Replaying them finds the bookings already persisted and completes them again.
+            log.warn("Failed to delete {} completed outbox entries: {}", keys.length, e.getMessage());
+        }
+    }
+
+    /**
+     * Keeps an entry that cannot be persisted for manual follow-up, without replaying it again.
+     */
+    public void markFailed(Entry entry, String reason) {
+        releaseLeases(entry);
+        WritePolicy policy = new WritePolicy(aerospikeLockingPolicy);
+        policy.recordExistsAction = RecordExistsAction.UPDATE_ONLY;
+        policy.expiration = -1;
+        try {
+            aerospikeClient.put(policy, outboxKey(entry.bookingReference()), new Bin(STATUS_BIN, FAILED + ": " + reason));
+        } catch (AerospikeException e) {
+            log.error("Failed to mark outbox entry {} as failed: {}", entry.bookingReference(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Scans the outbox for entries still to be persisted that were created before the given time,
+     * e.g. by a node that crashed before draining them.
+     */
+    public List<Entry> pending(long createdBeforeMillis) {
+        List<Entry> entries = Collections.synchronizedList(new ArrayList<>());
+        aerospikeClient.scanAll(new ScanPolicy(), aerospikeConfig.getNamespace(), OUTBOX_SET, (key, record) -> {
+            if (record.getString(STATUS_BIN) == null && record.getLong(CREATED_AT_BIN) < createdBeforeMillis) {
+                entries.add(toEntry(record));
+            }
+        });
+        return entries;
+    }
+
+    private static Entry toEntry(Record record) {
+        @SuppressWarnings("unchecked")
+        List<String> seatNumbers = (List<String>) record.getList(SEATS_BIN);
+        return new Entry(record.getString(REFERENCE_BIN), record.getLong(SCHEDULE_ID_BIN), record.getLong(USER_ID_BIN),
+                seatNumbers, record.getLong(CREATED_AT_BIN), record.getLong(LEASE_EXPIRES_AT_BIN));
+    }
+
+    /**
+     * Removes the entry's own ledger entries only, like a released seat hold.
+     */
+    private void releaseLeases(Entry entry) {
+        try {
+            aerospikeClient.operate(aerospikeLockingPolicy, ledgerKey(entry),
+                    AerospikeSeatLockService.releaseOperation(entry.bookingReference(), entry.leaseExpiresAtMillis()));
+        } catch (AerospikeException e) {
+            AerospikeSeatLockService.logReleaseFailure(entry.scheduleId(), entry.seatNumbers(), e);
+        }
+    }
+
+    /**
+     * Never expires, and is acknowledged only once every replica has it.
+     */
+    private WritePolicy outboxRecordPolicy() {
+        WritePolicy policy = new WritePolicy(aerospikeLockingPolicy);
+        policy.recordExistsAction = RecordExistsAction.CREATE_ONLY;
+        policy.expiration = -1;
+        return policy;
+    }
+
+    private Key ledgerKey(Entry entry) {
+        return AerospikeSeatLockService.ledgerKey(aerospikeConfig, entry.scheduleId());
+    }
+
+    private Key outboxKey(String bookingReference) {
+        return new Key(aerospikeConfig.getNamespace(), OUTBOX_SET, bookingReference);
+    }
+}
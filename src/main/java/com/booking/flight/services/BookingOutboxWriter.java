@@ -0,0 +1,289 @@
+package com.booking.flight.services;
+
+import com.aerospike.client.AerospikeException;
+import com.booking.flight.exception.InvalidSeatException;
+import com.booking.flight.exception.SeatAlreadyReservedException;
+import com.booking.flight.metrics.BookingMetrics;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.repository.BookingRepository;
+import com.booking.flight.repository.ScheduleRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the booking outbox to MariaDB on one background thread (booking.write-behind.enabled=true).
+ * <p>
+ * Entries queued while a transaction runs are persisted together in the next one, up to batch-size
+ * booking requests, so the number of MariaDB transactions falls as load rises. Each schedule in a batch
+ * is row-locked once and every booking is re-checked against its seat inventory, as in the synchronous path.
+ * <p>
+ * Replay is idempotent: bookings carry their booking reference, and an entry whose reference is already in
+ * MariaDB (persisted before a crash, or by another node) is only completed. Entries left behind by a
+ * crashed node are found by a periodic scan of the outbox.
+ * <p>
+ * When a batch transaction fails, its entries are persisted again one per transaction, so one bad entry
+ * cannot hold up the others. An entry that still fails goes to the back of the queue and is retried
+ * until its seat leases expire; after that its seats may be sold again, and it is marked failed.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "booking.write-behind.enabled", havingValue = "true")
+public class BookingOutboxWriter {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final BookingOutbox bookingOutbox;
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingMetrics bookingMetrics;
+    private final int batchSize;
+    private final long retryDelayMillis;
+    private final long recoveryIntervalMillis;
+
+    private final BlockingQueue<BookingOutbox.Entry> queue = new LinkedBlockingQueue<>();
+    // References queued or in the current batch, so a recovery scan does not queue them twice
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    private final Thread writer = new Thread(this::run, "booking-outbox-writer");
+    private volatile boolean running = true;
+
+    public BookingOutboxWriter(BookingOutbox bookingOutbox,
+                               BookingService bookingService,
+                               BookingRepository bookingRepository,
+                               ScheduleRepository scheduleRepository,
+                               TransactionTemplate transactionTemplate,
+                               BookingMetrics bookingMetrics,
+                               @Value("${booking.write-behind.batch-size:200}") int batchSize,
+                               @Value("${booking.write-behind.retry-delay-ms:1000}") long retryDelayMillis,
+                               @Value("${booking.write-behind.recovery-interval-ms:60000}") long recoveryIntervalMillis) {
+        this.bookingOutbox = bookingOutbox;
+        this.bookingService = bookingService;
+        this.bookingRepository = bookingRepository;
+        this.scheduleRepository = scheduleRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.bookingMetrics = bookingMetrics;
+        this.batchSize = batchSize;
+        this.retryDelayMillis = retryDelayMillis;
+        this.recoveryIntervalMillis = recoveryIntervalMillis;
+        writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        writer.start();
+    }
+
+    /**
+     * Queues an entry that was just appended to the outbox.
+     */
+    public void enqueue(BookingOutbox.Entry entry) {
+        if (queued.add(entry.bookingReference())) {
+            queue.add(entry);
+        }
+    }
+
+    public int queuedCount() {
+        return queued.size();
+    }
+
+    private void run() {
+        long nextRecovery = 0;
+        List<BookingOutbox.Entry> batch = new ArrayList<>();
+        while (running) {
+            try {
+                if (System.currentTimeMillis() >= nextRecovery) {
+                    recover();
+                    nextRecovery = System.currentTimeMillis() + recoveryIntervalMillis;
+                }
+                if (batch.isEmpty()) {
+                    BookingOutbox.Entry first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                int retried = flush(batch);
+                batch.clear();
+                if (retried > 0) {
+                    // Some entries failed on their own and were queued again; give MariaDB a moment.
+                    Thread.sleep(retryDelayMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Only the outbox bookkeeping is left to fail here; the batch is kept and retried.
+                log.error("Outbox flush of {} bookings failed, retrying in {} ms: {}", batch.size(), retryDelayMillis, e.getMessage(), e);
+                try {
+                    Thread.sleep(retryDelayMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues outbox entries older than one recovery interval that no writer has completed:
+     * left by a crashed node, or by this node before a restart.
+     */
+    void recover() {
+        try {
+            List<BookingOutbox.Entry> pending = bookingOutbox.pending(System.currentTimeMillis() - recoveryIntervalMillis);
+            if (!pending.isEmpty()) {
+                log.info("Recovering {} bookings from the outbox", pending.size());
+                pending.forEach(this::enqueue);
+            }
+        } catch (AerospikeException e) {
+            log.warn("Outbox recovery scan failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Persists a batch in one transaction, or its entries one per transaction if that fails, then
+     * completes the persisted entries in the outbox. Returns the number of entries queued again.
+     */
+    int flush(List<BookingOutbox.Entry> batch) {
+        long start = System.nanoTime();
+        Map<BookingOutbox.Entry, String> rejected = new LinkedHashMap<>();
+        List<BookingOutbox.Entry> retried = new ArrayList<>();
+        try {
+            persistInOneTransaction(batch, rejected);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                failed(batch.get(0), e, rejected, retried);
+            } else {
+                log.warn("Outbox flush of {} bookings failed, persisting them one at a time: {}", batch.size(), e.getMessage());
+                persistOneByOne(batch, rejected, retried);
+            }
+        }
+        bookingMetrics.recordOutboxFlush(batch.size(), System.nanoTime() - start);
+
+        List<BookingOutbox.Entry> completed = new ArrayList<>(batch);
+        completed.removeAll(rejected.keySet());
+        completed.removeAll(retried);
+        if (!completed.isEmpty()) {
+            bookingOutbox.complete(completed);
+        }
+        rejected.forEach((entry, reason) -> {
+            bookingMetrics.recordOutboxRejected();
+            bookingOutbox.markFailed(entry, reason);
+        });
+        // Retried entries keep their place in queued, so a recovery scan does not queue them twice.
+        completed.forEach(entry -> queued.remove(entry.bookingReference()));
+        rejected.keySet().forEach(entry -> queued.remove(entry.bookingReference()));
+        for (BookingOutbox.Entry entry : retried) {
+            queued.add(entry.bookingReference());
+            queue.add(entry);
+        }
+        log.debug("Outbox flush persisted {} bookings ({} rejected, {} retried)",
+                completed.size(), rejected.size(), retried.size());
+        return retried.size();
+    }
+
+    private void persistOneByOne(List<BookingOutbox.Entry> batch, Map<BookingOutbox.Entry, String> rejected,
+                                 List<BookingOutbox.Entry> retried) {
+        for (BookingOutbox.Entry entry : batch) {
+            try {
+                persistInOneTransaction(List.of(entry), rejected);
+            } catch (RuntimeException e) {
+                failed(entry, e, rejected, retried);
+            }
+        }
+    }
+
+    // An entry that failed in a transaction of its own: retried while its seat leases hold, else failed.
+    private void failed(BookingOutbox.Entry entry, RuntimeException e,
+                        Map<BookingOutbox.Entry, String> rejected, List<BookingOutbox.Entry> retried) {
+        if (System.currentTimeMillis() < entry.leaseExpiresAtMillis()) {
+            log.error("Outbox booking {} on Schedule ID {} could not be persisted, retrying: {}",
+                    entry.bookingReference(), entry.scheduleId(), e.getMessage(), e);
+            retried.add(entry);
+        } else {
+            log.error("Outbox booking {} on Schedule ID {} could not be persisted before its leases expired: {}",
+                    entry.bookingReference(), entry.scheduleId(), e.getMessage(), e);
+            rejected.put(entry, "could not be persisted: " + e.getMessage());
+        }
+    }
+
+    private void persistInOneTransaction(List<BookingOutbox.Entry> entries, Map<BookingOutbox.Entry, String> rejected) {
+        Map<BookingOutbox.Entry, String> rejectedHere = new LinkedHashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            rejectedHere.clear();
+            // Schedules in ID order, so two writers locking the same schedules cannot deadlock
+            Map<Long, List<BookingOutbox.Entry>> bySchedule = entries.stream().collect(
+                    Collectors.groupingBy(BookingOutbox.Entry::scheduleId, TreeMap::new, Collectors.toList()));
+            // Row locks first: a replay of the same entries elsewhere waits here, then finds them persisted.
+            List<BookingOutbox.Entry> lockedEntries = new ArrayList<>();
+            bySchedule.forEach((scheduleId, scheduleEntries) -> {
+                if (scheduleRepository.lockSeatInventory(scheduleId) == null) {
+                    log.error("Schedule {} no longer exists; {} outbox bookings cannot be persisted",
+                            scheduleId, scheduleEntries.size());
+                    scheduleEntries.forEach(entry -> rejectedHere.put(entry, "schedule no longer exists"));
+                } else {
+                    lockedEntries.addAll(scheduleEntries);
+                }
+            });
+            if (lockedEntries.isEmpty()) {
+                return;
+            }
+            Set<String> persisted = bookingRepository.findBookingReferencesIn(
+                    lockedEntries.stream().map(BookingOutbox.Entry::bookingReference).toList());
+            bySchedule.forEach((scheduleId, scheduleEntries) -> {
+                if (!rejectedHere.containsKey(scheduleEntries.get(0))) {
+                    persist(scheduleId, scheduleEntries, persisted, rejectedHere);
+                }
+            });
+        });
+        rejected.putAll(rejectedHere);
+    }
+
+    private void persist(Long scheduleId, List<BookingOutbox.Entry> entries, Set<String> persisted,
+                         Map<BookingOutbox.Entry, String> rejected) {
+        Schedule schedule = bookingService.loadSchedule(scheduleId);
+        for (BookingOutbox.Entry entry : entries) {
+            if (persisted.contains(entry.bookingReference())) {
+                log.info("Outbox booking {} is already persisted", entry.bookingReference());
+                continue;
+            }
+            try {
+                int[] seatIndices = bookingService.resolveSeatIndices(schedule, entry.seatNumbers());
+                bookingService.persistBookings(schedule, entry.request(), seatIndices, entry.bookingReference());
+            } catch (SeatAlreadyReservedException | InvalidSeatException e) {
+                // Only possible if the seat leases expired before this entry was drained.
+                log.error("Outbox booking {} on Schedule ID {} cannot be persisted: {}",
+                        entry.bookingReference(), scheduleId, e.getMessage());
+                rejected.put(entry, "seats no longer available");
+            }
+            // The next booking's re-read of the seat inventory must see this one
+            scheduleRepository.flush();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        // Lets the current batch finish; anything still queued stays in the outbox for the next start.
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
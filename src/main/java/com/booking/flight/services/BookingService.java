@@ -1,30 +1,31 @@
 package com.booking.flight.services;
 
 
-import com.aerospike.client.*;
-import com.aerospike.client.policy.WritePolicy;
-import com.aerospike.client.query.Filter;
-import com.aerospike.client.query.RecordSet;
-import com.booking.flight.config.aeroSpikeConfig.AerospikeConfiguration;
 import com.booking.flight.dto.BookingRequest;
 import com.booking.flight.dto.response.BookingResponse;
 import com.booking.flight.exception.*;
+import com.booking.flight.metrics.BookingMetrics;
+import com.booking.flight.metrics.BookingMetrics.Phase;
+import com.booking.flight.metrics.BookingTimings;
 import com.booking.flight.models.Booking;
-import com.booking.flight.models.Flight;
 import com.booking.flight.models.Schedule;
+import com.booking.flight.models.SeatInventory;
+import com.booking.flight.models.SeatLabels;
+import com.booking.flight.models.SeatState;
 import com.booking.flight.repository.BookingRepository;
 import com.booking.flight.repository.ScheduleRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
+import java.util.OptionalInt;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,230 +35,250 @@ public class BookingService {
 
     private final BookingRepository bookingRepository;
     private final ScheduleRepository scheduleRepository;
-    private final AerospikeClient aerospikeClient;
-
-    @Qualifier("aerospikeLockingPolicy")
-    private final WritePolicy aerospikeLockingPolicy;
-    private final AerospikeConfiguration aerospikeConfig;
-
-    private static final String SEAT_LOCK_SET = "seat_locks";
-    private static final String SEAT_LOCK_BIN = "user_id";
-    private static final String SCHEDULE_ID_BIN = "schedule_id";
+    private final ISeatLockService seatLockService;
+    private final SeatMapCache seatMapCache;
+    private final SeatAvailabilityCounter seatAvailabilityCounter;
+    private final ScheduleSearchIndex scheduleSearchIndex;
+    private final SeatMapEventPublisher seatMapEventPublisher;
+    private final BookingMetrics bookingMetrics;
 
     @Transactional
     public List<BookingResponse> createBookings(BookingRequest request) {
+        return createBookings(request, new BookingTimings());
+    }
+
+    /**
+     * Books the requested seats, recording the duration of each phase in the given timings
+     * (and in the booking.phase metrics).
+     */
+    @Transactional
+    public List<BookingResponse> createBookings(BookingRequest request, BookingTimings timings) {
 
         log.info("Attempting  seat booking for Schedule ID {} and {} seats by User ID {}",
                 request.scheduleId(), request.seatNumbers().size(), request.userId());
 
-        Schedule schedule = scheduleRepository.findById(request.scheduleId())
-                .orElseThrow(() -> {
-                    log.warn("Schedule not found with ID: {}", request.scheduleId());
-                    // Use the specific custom exception for NOT FOUND
-                    return new ScheduleNotFoundException(request.scheduleId());
-                });
-
-        // PREVALIDATION: Check seat availability before attempting locks
-        boolean seatsAvailable = areSeatsAvailable(schedule, request.seatNumbers());
-
-        if(!seatsAvailable){
-            log.info("Seats are not available");
-            return new ArrayList<>();
-        }
-
-        List<Booking> bookingsToSave = new ArrayList<>();
-        int locksAcquiredCount = 0; // Counter for compensation logic
-
-        // 1. ITERATE AND ACQUIRE DISTRIBUTED LOCK FOR EACH SEAT
         try {
-            for (String seatNumber : request.seatNumbers()) {
-
-                String lockKeyString = request.scheduleId() + ":" + seatNumber;
-                Key lockKey = new Key(
-                        aerospikeConfig.getNamespace(),
-                        SEAT_LOCK_SET,
-                        lockKeyString
-                );
-
-                Bin lockBin = new Bin(SEAT_LOCK_BIN, request.userId());
-
-                log.debug("Attempting to acquire lock for seat: {}", seatNumber);
+            return book(request, timings);
+        } catch (RuntimeException e) {
+            bookingMetrics.recordFailure(e);
+            throw e;
+        }
+    }
 
-                aerospikeClient.put(aerospikeLockingPolicy, lockKey, lockBin);
+    private List<BookingResponse> book(BookingRequest request, BookingTimings timings) {
+        bookingMetrics.time(Phase.SEATS_LEFT, timings, () -> checkSeatsLeft(request));
+        Schedule schedule = bookingMetrics.time(Phase.SCHEDULE_LOAD, timings, () -> loadSchedule(request.scheduleId()));
 
-                locksAcquiredCount++;
-                log.debug("Lock acquired for seat: {}", seatNumber);
+        // PREVALIDATION: Check seat availability before attempting locks
+        int[] seatIndices = bookingMetrics.time(Phase.AVAILABILITY, timings,
+                () -> prevalidate(schedule, request.seatNumbers()));
 
-                // If lock is successful, prepare the Booking entity for later saving
-                Booking newBooking = new Booking();
-                newBooking.setSchedule(schedule);
-                newBooking.setUserId(request.userId());
-                newBooking.setSeatNumber(seatNumber);
-                newBooking.setStatus("CONFIRMED");
-                newBooking.setBookingTime(LocalDateTime.now());
-                bookingsToSave.add(newBooking);
-            }
+        // 1. ACQUIRE DISTRIBUTED LOCKS FOR ALL SEATS IN ONE ROUND TRIP
+        // All-or-nothing: on conflict nothing was locked, so there is nothing to compensate.
+        SeatLease lease = bookingMetrics.time(Phase.LOCK_ACQUIRE, timings,
+                () -> seatLockService.acquireLocks(request.scheduleId(), request.seatNumbers(), request.userId()));
+        seatMapEventPublisher.publish(request.scheduleId(), request.seatNumbers(), SeatMapEventPublisher.LOCKED);
 
+        try {
             // 2. TRANSACTIONAL PERSISTENCE (MariaDB)
-            List<Booking> savedBookings;
-            try {
-                // --- CORE LOGIC: UPDATE SCHEDULE SEAT STATUS TO BOOKED ---
-                Map<String, String> updatedStatuses = schedule.getSeatStatuses();
-                for (String seatNumber : request.seatNumbers()) {
-                    // Set the status to BOOKED for each successfully booked seat
-                    updatedStatuses.put(seatNumber, "BOOKED");
-                }
-                schedule.setSeatStatuses(updatedStatuses); // Set the updated map back
-                scheduleRepository.save(schedule); // Persist the updated seat statuses
-                savedBookings = bookingRepository.saveAll(bookingsToSave);
-
-                log.info("Successfully persisted {} bookings in MariaDB and updated Schedule seat status.", savedBookings.size());
-            } catch (DataAccessException e) {
-                // Throw specific exception for DB errors
-                throw new BookingPersistenceException("Failed to save bookings to MariaDB.", e);
-            }
-
-            log.info("Successfully persisted {} bookings in MariaDB.", savedBookings.size());
+            List<Booking> savedBookings = bookingMetrics.time(Phase.PERSIST, timings,
+                    () -> persistBookings(schedule, request, seatIndices));
 
             // 3. CLEANUP: Successfully saved, delete all temporary Aerospike locks.
-            releaseLocks(request.scheduleId(), request.seatNumbers());
+            bookingMetrics.time(Phase.LOCK_RELEASE, timings,
+                    () -> seatLockService.releaseLocks(lease));
 
             // 4. FIX: CONVERT ENTITIES TO DTOS BEFORE RETURNING
-            return savedBookings.stream()
-                    // Call the static method directly from the DTO class
-                    .map(BookingResponse::fromEntity)
-                    .collect(Collectors.toList());
-
-        }catch (AerospikeException e) {
-            // Error Code 3: KEY_EXISTS_ERROR is now correctly returned when the lock fails
-            // because the GenerationPolicy.EXPECT_GEN_EQUAL is used on an existing record.
-            if (e.getResultCode() == ResultCode.KEY_EXISTS_ERROR ) {
-
-                compensateForFailedLock(request.scheduleId(), request.seatNumbers(), locksAcquiredCount);
-
-                log.warn("LOCK CONFLICT: One or more requested seats were already reserved. Booking failed.");
-                throw new SeatAlreadyReservedException("One or more requested seats are currently reserved or locked.");
-            }
-
-            // For other Aerospike connection/server errors (Error 9: Timeout, etc.)
-            // NOTE: The previous "Error 22" should now be resolved.
-            log.error("Aerospike critical failure: {}", e.getMessage(), e);
-            compensateForFailedLock(request.scheduleId(), request.seatNumbers(), locksAcquiredCount);
-
-            throw new AerospikeLockFailureException("Aerospike locking failure (non-conflict error).", e);
+            return toResponses(savedBookings);
 
         } catch (Exception e) {
-            // ... existing logic for PersistenceException and RuntimeException ...
             log.error("Critical error during booking process. Executing lock compensation. Error: {}", e.getMessage(), e);
 
-            // This compensation is now redundant for AerospikeException, but keeps it safe for others.
-            compensateForFailedLock(request.scheduleId(), request.seatNumbers(), locksAcquiredCount);
+            // Every requested seat was locked above, so compensation releases the whole list in one call.
+            bookingMetrics.recordCompensation();
+            bookingMetrics.time(Phase.LOCK_RELEASE, timings,
+                    () -> seatLockService.releaseLocks(lease));
+            seatMapEventPublisher.publishReleased(request.scheduleId(), request.seatNumbers());
 
-            if (e instanceof BookingPersistenceException) {
-                throw (BookingPersistenceException) e;
-            }
-            throw new RuntimeException("Unexpected error during booking transaction.", e);
+            throw asBookingFailure(e);
         }
     }
 
+    Schedule loadSchedule(Long scheduleId) {
+        return scheduleRepository.findById(scheduleId)
+                .orElseThrow(() -> {
+                    log.warn("Schedule not found with ID: {}", scheduleId);
+                    // Use the specific custom exception for NOT FOUND
+                    return new ScheduleNotFoundException(scheduleId);
+                });
+    }
+
     /**
-     * Prevalidation check on seat availability before attempting locks.
-     * */
+     * Marks the locked seats BOOKED and saves one Booking per seat.
+     * Must run inside a transaction: the seat inventory row stays locked until it commits.
+     */
+    List<Booking> persistBookings(Schedule schedule, BookingRequest request, int[] seatIndices) {
+        return persistBookings(schedule, request, seatIndices, UUID.randomUUID().toString());
+    }
 
-    private boolean areSeatsAvailable(Schedule schedule, List<String> seatNumbers) {
-            // Assuming 'schedule' is retrieved and includes its related 'flight' entity:
-            Flight flight = schedule.getFlight();
-            int totalCapacity = flight.getPlane().getTotalSeats(); // Accesses capacity via the relationship
+    /**
+     * As above, with the booking reference chosen by the caller (the outbox writer replays a reference
+     * that was already handed to the client).
+     */
+    List<Booking> persistBookings(Schedule schedule, BookingRequest request, int[] seatIndices, String bookingReference) {
+        List<Booking> bookingsToSave = new ArrayList<>();
+        for (String seatNumber : request.seatNumbers()) {
+            Booking newBooking = new Booking();
+            newBooking.setSchedule(schedule);
+            newBooking.setUserId(request.userId());
+            newBooking.setSeatNumber(seatNumber);
+            newBooking.setStatus("CONFIRMED");
+            newBooking.setBookingTime(LocalDateTime.now());
+            newBooking.setBookingReference(bookingReference);
+            bookingsToSave.add(newBooking);
+        }
 
-            // Now, the validation changes:
-            // 1. Check against TOTAL SEATS:
-            if (seatNumbers.size() > totalCapacity) {
-                throw new CapacityExceededException("Requested seats exceed plane capacity.", new RuntimeException());
+        try {
+            // --- CORE LOGIC: UPDATE SCHEDULE SEAT STATUS TO BOOKED ---
+            // Re-read the inventory under a row lock: the copy used for prevalidation may be stale, and
+            // concurrent bookings of other seats on this schedule must not overwrite each other.
+            SeatInventory current = SeatInventory.fromBytes(scheduleRepository.lockSeatInventory(schedule.getScheduleId()));
+            schedule.setSeatInventory(current);
+            areSeatsAvailable(schedule, request.seatNumbers(), seatIndices);
+            schedule.setSeatInventory(current.withState(seatIndices, SeatState.BOOKED));
+            scheduleRepository.save(schedule); // Persist the updated seat inventory (single column)
+            List<Booking> savedBookings = bookingRepository.saveAll(bookingsToSave);
+            seatMapCache.updateOnCommit(schedule.getScheduleId(), schedule.getSeatInventory());
+            seatAvailabilityCounter.decrementOnCommit(schedule.getScheduleId(), seatIndices.length);
+            if (schedule.getSeatInventory().count(SeatState.AVAILABLE) == 0) {
+                scheduleSearchIndex.markSoldOutOnCommit(schedule.getScheduleId());
             }
+            seatMapEventPublisher.publishOnCommit(schedule.getScheduleId(), request.seatNumbers(), SeatState.BOOKED.name());
 
-            // 2. Check against VALID SEAT NUMBERS:
-            // This assumes your Flight entity (or a related table) defines the list of valid seat numbers (e.g., A01, A02, B01, B02).
-            // You would need to load that valid list (e.g., flight.getValidSeatMap()) for the precise check.
+            log.info("Successfully persisted {} bookings in MariaDB and updated Schedule seat status.", savedBookings.size());
+            return savedBookings;
+        } catch (DataAccessException e) {
+            // Throw specific exception for DB errors
+            throw new BookingPersistenceException("Failed to save bookings to MariaDB.", e);
+        }
+    }
 
-            // 3. Check Persistent Status: (The rest of the logic remains the same)
-            for (String seatNumber : seatNumbers) {
-                // Check if the seat is already permanently BOOKED
-                String currentStatus = schedule.getSeatStatuses().get(seatNumber);
-                if ("BOOKED".equalsIgnoreCase(currentStatus)) {
-                    throw new SeatAlreadyReservedException("Seat " + seatNumber + " is already permanently booked.");
-                }
-            }
-            return true; // All prevalidation checks passed
+    static List<BookingResponse> toResponses(List<Booking> savedBookings) {
+        return savedBookings.stream()
+                // Call the static method directly from the DTO class
+                .map(BookingResponse::fromEntity)
+                .collect(Collectors.toList());
     }
 
     /**
-     * Helper to release all locks post-successful transaction.
+     * Maps a failure after the locks were taken to the exception reported to the client.
      */
-    private void releaseLocks(Long scheduleId, List<String> seatNumbers) {
-        for (String seatNumber : seatNumbers) {
-            Key lockKey = new Key(
-                    aerospikeConfig.getNamespace(),
-                    SEAT_LOCK_SET,
-                    scheduleId + ":" + seatNumber
-            );
-            aerospikeClient.delete(aerospikeLockingPolicy, lockKey);
-            log.debug("Released lock for seat {}", seatNumber);
+    static RuntimeException asBookingFailure(Exception e) {
+        if (e instanceof BookingPersistenceException || e instanceof SeatAlreadyReservedException) {
+            return (RuntimeException) e;
         }
-        log.info("Successfully released all {} Aerospike locks.", seatNumbers.size());
+        return new RuntimeException("Unexpected error during booking transaction.", e);
     }
 
     /**
-     * Compensation logic to delete locks acquired *before* a lock conflict or other error occurred.
+     * Rejects the request when fewer seats are left than requested, before the schedule is loaded.
+     * The schedule's seat counter (one key lookup) is only a hint: it can read low when a reconcile
+     * races a booking's decrement, so a request it would turn away is confirmed on the seat inventory
+     * of the seat map cache first. Without a counter the request goes on to the per-seat checks.
      */
-    private void compensateForFailedLock(Long scheduleId, List<String> requestedSeats, int locksAcquiredCount) {
-        log.warn("Executing compensation: Deleting {} locks acquired before conflict/error.", locksAcquiredCount);
-        // Only delete the locks that were successfully acquired (up to the point of failure)
-        List<String> seatsToUnlock = requestedSeats.subList(0, locksAcquiredCount);
-
-        for (String seatNumber : seatsToUnlock) {
-            Key lockKey = new Key(
-                    aerospikeConfig.getNamespace(),
-                    SEAT_LOCK_SET,
-                    scheduleId + ":" + seatNumber
-            );
-            aerospikeClient.delete(new WritePolicy(), lockKey);
-            log.debug("Compensation: Released lock for seat {}", seatNumber);
+    void checkSeatsLeft(BookingRequest request) {
+        int requested = request.seatNumbers().size();
+        OptionalInt seatsLeft = seatAvailabilityCounter.availableSeats(request.scheduleId());
+        if (seatsLeft.isEmpty() || seatsLeft.getAsInt() >= requested) {
+            return;
         }
+        int available = seatMapCache.get(request.scheduleId(), id -> loadSchedule(id).getSeatInventory())
+                .inventory().count(SeatState.AVAILABLE);
+        if (available < requested) {
+            log.info("Rejecting booking for Schedule ID {}: {} seats requested, {} left",
+                    request.scheduleId(), requested, available);
+            throw new ScheduleSoldOutException(request.scheduleId(), available);
+        }
+        log.warn("Seat counter of Schedule ID {} reads {} but {} seats are free; it needs a reconcile",
+                request.scheduleId(), seatsLeft.getAsInt(), available);
     }
 
-    public List<String> getReservedSeats(String scheduleId) {
+    /**
+     * Resolves the requested seats and checks that none is already booked.
+     * Returns the seat indices; throws when a seat is unknown, booked, or the request exceeds capacity.
+     */
+    int[] prevalidate(Schedule schedule, List<String> seatNumbers) {
+        return prevalidate(schedule.getScheduleId(), schedule.getSeatInventory(), seatNumbers);
+    }
 
-        String scheduleIdString = String.valueOf(scheduleId);
+    /**
+     * As above, against a seat inventory that was not loaded with its schedule (e.g. a cached seat map).
+     */
+    int[] prevalidate(Long scheduleId, SeatInventory inventory, List<String> seatNumbers) {
+        int[] seatIndices = resolveSeatIndices(scheduleId, inventory, seatNumbers);
+        areSeatsAvailable(inventory, seatNumbers, seatIndices);
+        return seatIndices;
+    }
 
-        // 1. Define the Statement for the indexed query
-        com.aerospike.client.query.Statement stmt = new com.aerospike.client.query.Statement();
-        stmt.setNamespace(aerospikeConfig.getNamespace());
-        stmt.setSetName(SEAT_LOCK_SET);
+    /**
+     * Maps the requested seat labels to their positions in the schedule's seat inventory.
+     */
+    int[] resolveSeatIndices(Schedule schedule, List<String> seatNumbers) {
+        return resolveSeatIndices(schedule.getScheduleId(), schedule.getSeatInventory(), seatNumbers);
+    }
 
-        // 2. Define the Filter using the Secondary Index on 'schedule_id'
-        stmt.setFilter(Filter.equal(SCHEDULE_ID_BIN, scheduleIdString));
+    private int[] resolveSeatIndices(Long scheduleId, SeatInventory inventory, List<String> seatNumbers) {
+        int seatCount = inventory.seatCount();
+        int[] seatIndices = new int[seatNumbers.size()];
+        BitSet requested = new BitSet(seatCount);
+        for (int i = 0; i < seatIndices.length; i++) {
+            seatIndices[i] = SeatLabels.indexOf(seatNumbers.get(i), seatCount);
+            if (seatIndices[i] < 0) {
+                throw new InvalidSeatException(seatNumbers.get(i), scheduleId);
+            }
+            // A repeated seat would be locked once but booked (and counted) twice
+            if (requested.get(seatIndices[i])) {
+                throw InvalidSeatException.duplicate(seatNumbers.get(i), scheduleId);
+            }
+            requested.set(seatIndices[i]);
+        }
+        return seatIndices;
+    }
 
-        // 3. Optional: Only request the required bin(s) if needed, but the key is enough.
-        // stmt.setBinNames(SCHEDULE_ID_BIN);
+    /**
+     * Prevalidation check on seat availability before attempting locks.
+     * */
+
+    boolean areSeatsAvailable(Schedule schedule, List<String> seatNumbers, int[] seatIndices) {
+        return areSeatsAvailable(schedule.getSeatInventory(), seatNumbers, seatIndices);
+    }
 
-        List<String> reservedSeats = new ArrayList<>();
+    private boolean areSeatsAvailable(SeatInventory inventory, List<String> seatNumbers, int[] seatIndices) {
 
-        try (RecordSet rs = aerospikeClient.query(null, stmt)) {
-            while (rs.next()) {
-                Key key = rs.getKey();
+            // 1. Check against TOTAL SEATS: the inventory holds exactly one entry per seat of the plane,
+            // so this needs neither the flight nor the plane to be loaded.
+            if (seatNumbers.size() > inventory.seatCount()) {
+                throw new CapacityExceededException("Requested seats exceed plane capacity.", new RuntimeException());
+            }
 
-                // Get the UserKey object, which holds the string "SCHEDULE_ID:SEAT_NUMBER"
-                String keyString = (String)key.userKey.getObject();
+            // 2. Check against VALID SEAT NUMBERS: done by resolveSeatIndices.
 
-                // Extract the seat number part: "12345:A01" -> "A01"
-                reservedSeats.add(keyString.substring(keyString.indexOf(":") + 1));
+            // 3. Check Persistent Status:
+            for (int i = 0; i < seatIndices.length; i++) {
+                // Check if the seat is already permanently BOOKED
+                if (!inventory.isAvailable(seatIndices[i])) {
+                    throw new SeatAlreadyReservedException("Seat " + seatNumbers.get(i) + " is already permanently booked.");
+                }
             }
-        } catch (AerospikeException e) {
-            log.error("Error querying reserved seats for schedule {}. Check if the index {} exists. Error: {}",
-                    scheduleId, "idx_schedule_id", e.getMessage());
-            // Return an empty list on failure, assuming the caller will handle the exception or empty result.
-        }
-        return reservedSeats;
+            return true; // All prevalidation checks passed
+    }
+
+    /**
+     * Seats currently locked on the schedule (by an in-flight booking or a hold).
+     * One read of the schedule's lock ledger; expired leases are left out.
+     */
+    public List<String> getReservedSeats(Long scheduleId) {
+        return seatLockService.lockedSeats(scheduleId);
     }
 
     public Boolean putDataInAeroSpike(BookingRequest request) {
@@ -265,29 +286,11 @@ public class BookingService {
         log.info("Attempting multiple seat booking for Schedule ID {} and {} seats by User ID {}",
                 request.scheduleId(), request.seatNumbers().size(), request.userId());
 
-        List<Booking> bookingsToSave = new ArrayList<>();
-        int locksAcquiredCount = 0; // Counter for compensation logic
-        String seatNumber = request.seatNumbers().get(0);
-
-        String lockKeyString = request.scheduleId() + ":" + seatNumber;
-        Key lockKey = new Key(
-                aerospikeConfig.getNamespace(),
-                SEAT_LOCK_SET,
-                lockKeyString
-        );
-
-        Bin lockBin = new Bin(SEAT_LOCK_BIN, request.userId());
-
-        log.debug("Attempting to acquire lock for seat: {}", seatNumber);
-
-
-        aerospikeClient.operate(aerospikeLockingPolicy, lockKey, Operation.put(lockBin));
-
-        locksAcquiredCount++;
-        log.debug("Lock acquired for seat: {}", seatNumber);
+        // Lock-only probe: takes the seat locks without persisting a booking.
+        seatLockService.acquireLocks(request.scheduleId(), request.seatNumbers(), request.userId());
 
         return true;
-        }
+    }
 
 
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.booking.flight.services;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Per-route daily fare aggregates: for every route and departure date, the number of schedules, how
+ * many still have seats, and the lowest base price among those. Maintained by {@link ScheduleSearchIndex}
+ * as schedules are indexed, removed or sell out; only the day of the changed schedule is recomputed.
+ * A date range of a route is then one scan of a sorted map.
+ * <p>
+ * Reads may run concurrently with updates; updates are serialized by the index.
+ */
+final class FareCalendar {
+
+    record DayFares(LocalDate date, int schedules, int schedulesWithSeats, BigDecimal lowestBasePrice) {
+    }
+
+    private record Route(String origin, String destination) {
+    }
+
+    private record Fare(Route route, LocalDate date, BigDecimal basePrice, boolean soldOut) {
+    }
+
+    private final Map<Route, NavigableMap<LocalDate, DayFares>> daysByRoute = new ConcurrentHashMap<>();
+    // Inputs of the aggregates, only touched by (serialized) updates
+    private final Map<Long, Fare> fares = new HashMap<>();
+    private final Map<Route, Map<LocalDate, Map<Long, Fare>>> faresByDay = new HashMap<>();
+
+    void put(Long scheduleId, String origin, String destination, LocalDate date, BigDecimal basePrice, boolean soldOut) {
+        remove(scheduleId);
+        Fare fare = new Fare(new Route(origin, destination), date, basePrice, soldOut);
+        fares.put(scheduleId, fare);
+        faresByDay.computeIfAbsent(fare.route(), route -> new HashMap<>())
+                .computeIfAbsent(date, day -> new HashMap<>())
+                .put(scheduleId, fare);
+        recompute(fare.route(), date);
+    }
+
+    void remove(Long scheduleId) {
+        Fare previous = fares.remove(scheduleId);
+        if (previous != null) {
+            faresByDay.get(previous.route()).get(previous.date()).remove(scheduleId);
+            recompute(previous.route(), previous.date());
+        }
+    }
+
+    /**
+     * Aggregates of the route's days in [from, to] that have schedules, in date order. A live view.
+     */
+    NavigableMap<LocalDate, DayFares> days(String origin, String destination, LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, DayFares> days = daysByRoute.get(new Route(origin, destination));
+        return days == null ? new ConcurrentSkipListMap<>() : days.subMap(from, true, to, true);
+    }
+
+    private void recompute(Route route, LocalDate date) {
+        Map<Long, Fare> dayFares = faresByDay.get(route).get(date);
+        NavigableMap<LocalDate, DayFares> days = daysByRoute.computeIfAbsent(route, r -> new ConcurrentSkipListMap<>());
+        if (dayFares.isEmpty()) {
+            faresByDay.get(route).remove(date);
+            days.remove(date);
+            return;
+        }
+        int withSeats = 0;
+        BigDecimal lowest = null;
+        for (Fare fare : dayFares.values()) {
+            if (fare.soldOut()) {
+                continue;
+            }
+            withSeats++;
+            if (lowest == null || fare.basePrice().compareTo(lowest) < 0) {
+                lowest = fare.basePrice();
+            }
+        }
+        days.put(date, new DayFares(date, dayFares.size(), withSeats, lowest));
+    }
+}
@@ -1,13 +1,22 @@
 package com.booking.flight.services;
 
+import com.booking.flight.config.dataSourceConfig.ReadRouting;
+import com.booking.flight.dto.FareCalendarRequest;
+import com.booking.flight.dto.ScheduleSearchPageRequest;
 import com.booking.flight.dto.ScheduleSearchRequest;
+import com.booking.flight.dto.response.FareCalendarDayResponse;
 import com.booking.flight.dto.response.FlightResponse;
 import com.booking.flight.dto.response.PlaneResponse;
 import com.booking.flight.dto.response.ScheduleResponse;
-import com.booking.flight.dto.response.SeatMapResponse;
+import com.booking.flight.dto.response.ScheduleSearchPageResponse;
+import com.booking.flight.dto.response.ScheduleSummaryResponse;
+import com.booking.flight.dto.response.SeatLegendResponse;
+import com.booking.flight.exception.InvalidSearchCursorException;
+import com.booking.flight.exception.SearchIndexUnavailableException;
 import com.booking.flight.models.Flight;
 import com.booking.flight.models.Plane;
 import com.booking.flight.models.Schedule;
+import com.booking.flight.models.SeatState;
 import com.booking.flight.repository.FlightRepository;
 import com.booking.flight.repository.PlaneRepository;
 import com.booking.flight.repository.ScheduleRepository;
@@ -15,10 +24,20 @@ import com.booking.flight.util.EntityToDtoConverter; // We will use a dedicated
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,35 +45,152 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Transactional(readOnly = true) // Set all methods to read-only for performance
 public class FlightDetailsServiceImpl implements IFlightService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    // Position of a search page: the (departureTime, scheduleId) of the last schedule already returned
+    record SearchCursor(LocalDateTime departureTime, long scheduleId) {
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((departureTime + "~" + scheduleId).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static SearchCursor decode(String cursor) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("~");
+                if (parts.length != 2) {
+                    throw new InvalidSearchCursorException(cursor);
+                }
+                return new SearchCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new InvalidSearchCursorException(cursor);
+            }
+        }
+    }
+
     private final ScheduleRepository scheduleRepository;
     private final FlightRepository flightRepository;
     private final PlaneRepository planeRepository;
     private final EntityToDtoConverter converter; // Inject the centralized converter
+    private final SeatMapCache seatMapCache;
+    private final ScheduleSearchIndex scheduleSearchIndex;
+    private final SeatAvailabilityCounter seatAvailabilityCounter;
 
     // ========================================================
     // ENDPOINT 1: SEARCH SCHEDULES
     // ========================================================
+    // No transaction: an index hit must not take a database connection. The fallback query opens
+    // its own read-only transaction and fetches the flight and plane with the schedules.
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<ScheduleResponse> searchSchedules(ScheduleSearchRequest request) {
         log.info("Searching schedules from {} to {} on {}",
                 request.origin(), request.destination(), request.departureDate());
 
-        // NOTE: In a real application, you'd use a custom repository method (e.g., JpaRepository)
-        // to perform a single query joining Schedule, Flight, and Plane, filtered by
-        // departureDate, origin, and destination.
+        // Served from the in-memory index when it holds the route and date.
+        Optional<List<ScheduleResponse>> indexed = scheduleSearchIndex.find(
+                request.origin(), request.destination(), request.departureDate());
+        if (indexed.isPresent()) {
+            return withAvailableSeats(indexed.get());
+        }
 
-        // For this example, we assume the repository implements a finder method.
+        // Index miss: query the database (Schedule, Flight and Plane in one join) and index the result.
         List<Schedule> matchingSchedules = scheduleRepository.findAvailableSchedules(
                 request.origin(),
                 request.destination(),
-                request.departureDate()
+                request.departureDate().atStartOfDay(),
+                request.departureDate().plusDays(1).atStartOfDay()
         );
+        matchingSchedules.forEach(scheduleSearchIndex::put);
+
+        return withAvailableSeats(matchingSchedules.stream()
+                .map(converter::toScheduleSummary)
+                .collect(Collectors.toList()));
+    }
+
+    // ========================================================
+    // ENDPOINT 1D: PAGINATED SEARCH
+    // ========================================================
+    /**
+     * One page of a route's schedules on a date, as summary rows. Served from the search index when it
+     * holds the route and date, otherwise by one constructor query (keyset pagination on departure time
+     * and ID); seats left come from one batch read of the seat counters. Neither depends on the plane size.
+     */
+    // No transaction: a page served from the index must not take a database connection. The fallback
+    // query opens its own read-only transaction.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ScheduleSearchPageResponse searchSchedulePage(ScheduleSearchPageRequest request) {
+        int pageSize = request.pageSize() == null ? DEFAULT_PAGE_SIZE : request.pageSize();
+        LocalDateTime from = request.departureDate().atStartOfDay();
+        LocalDateTime to = request.departureDate().plusDays(1).atStartOfDay();
+        SearchCursor after = request.cursor() == null ? new SearchCursor(from, 0) : SearchCursor.decode(request.cursor());
+        if (after.departureTime().isBefore(from) || !after.departureTime().isBefore(to)) {
+            throw new InvalidSearchCursorException(request.cursor());
+        }
+        log.info("Searching schedules from {} to {} on {} after {}",
+                request.origin(), request.destination(), request.departureDate(), after);
+
+        // One row more than the page tells whether there is a next page.
+        List<ScheduleSummaryResponse> rows = scheduleSearchIndex.findPage(request.origin(), request.destination(),
+                        request.departureDate(), after.departureTime(), after.scheduleId(), pageSize + 1)
+                .map(indexed -> indexed.stream().map(ScheduleSummaryResponse::from).toList())
+                .orElseGet(() -> scheduleRepository.findScheduleSummaries(request.origin(), request.destination(),
+                        after.departureTime(), after.scheduleId(), to, Limit.of(pageSize + 1)));
+
+        List<ScheduleSummaryResponse> page = rows.subList(0, Math.min(pageSize, rows.size()));
+        Map<Long, Integer> availableSeats = seatAvailabilityCounter.availableSeats(
+                page.stream().map(ScheduleSummaryResponse::id).toList());
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            ScheduleSummaryResponse last = page.get(page.size() - 1);
+            nextCursor = new SearchCursor(last.departureTime(), last.id()).encode();
+        }
+        return new ScheduleSearchPageResponse(
+                page.stream().map(row -> row.withAvailableSeats(availableSeats.get(row.id()))).toList(),
+                nextCursor);
+    }
 
-        return matchingSchedules.stream()
-                .map(converter::toScheduleResponse)
+    // Seats left for every result from the seat counters, in one batch read.
+    private List<ScheduleResponse> withAvailableSeats(List<ScheduleResponse> schedules) {
+        Map<Long, Integer> availableSeats = seatAvailabilityCounter.availableSeats(
+                schedules.stream().map(ScheduleResponse::id).toList());
+        return schedules.stream()
+                .map(s -> new ScheduleResponse(s.id(), s.flight(), s.departureTime(), s.arrivalTime(),
+                        s.basePrice(), s.status(), s.seatStatuses(), availableSeats.get(s.id())))
                 .collect(Collectors.toList());
     }
 
+    // ========================================================
+    // ENDPOINT 1C: FARE CALENDAR
+    // ========================================================
+    /**
+     * Lowest base price and availability of the route for every day of the request, read from the
+     * daily aggregates of the search index in one range scan. Days without schedules are included
+     * with no price, so the calendar has no gaps.
+     */
+    // No transaction: the calendar is served from memory and must not take a database connection.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<FareCalendarDayResponse> getFareCalendar(FareCalendarRequest request) {
+        log.debug("Fare calendar from {} to {} between {} and {}",
+                request.origin(), request.destination(), request.startDate(), request.endDate());
+
+        List<FareCalendar.DayFares> days = scheduleSearchIndex.fareCalendar(
+                        request.origin(), request.destination(), request.startDate(), request.endDate())
+                .orElseThrow(() -> new SearchIndexUnavailableException(
+                        "The fare calendar is not available until the schedule index is built."));
+
+        List<FareCalendarDayResponse> calendar = new ArrayList<>();
+        int next = 0;
+        for (LocalDate date = request.startDate(); !date.isAfter(request.endDate()); date = date.plusDays(1)) {
+            if (next < days.size() && days.get(next).date().equals(date)) {
+                FareCalendar.DayFares day = days.get(next++);
+                calendar.add(new FareCalendarDayResponse(date, day.lowestBasePrice(), day.schedules(), day.schedulesWithSeats()));
+            } else {
+                calendar.add(new FareCalendarDayResponse(date, null, 0, 0));
+            }
+        }
+        return calendar;
+    }
+
     // ========================================================
     // ENDPOINT 2: GET SCHEDULE BY ID
     // ========================================================
@@ -67,6 +203,10 @@ public class FlightDetailsServiceImpl implements IFlightService {
         Schedule schedule = scheduleRepository.findByIdWithFlightDetails(scheduleId) // Assume this custom method exists
                 .orElseThrow(() -> new IllegalArgumentException("Schedule not found with ID: " + scheduleId));
 
+        // One key lookup; without a counter, count the free seats of the inventory loaded above.
+        schedule.setAvailableSeats(seatAvailabilityCounter.availableSeats(scheduleId)
+                .orElseGet(() -> schedule.getSeatInventory().count(SeatState.AVAILABLE)));
+
         return converter.toScheduleResponse(schedule);
     }
 
@@ -96,30 +236,32 @@ public class FlightDetailsServiceImpl implements IFlightService {
         return converter.toPlaneResponse(plane);
     }
 
+    public SeatLegendResponse getSeatLegend(Long planeId) {
+        log.debug("Fetching seat legend for plane ID: {}", planeId);
+        Plane plane = planeRepository.findById(planeId)
+                .orElseThrow(() -> new IllegalArgumentException("Plane not found with ID: " + planeId));
 
-    @Transactional
-    public SeatMapResponse getScheduleSeats(Long scheduleId) {
-        log.info("Fetching seat map for Schedule ID {}", scheduleId);
-
-        // Fetch the Schedule entity
-        Schedule schedule = scheduleRepository.findById(scheduleId)
-                .orElseThrow(() -> {
-                    log.warn("Failed to find Schedule with ID: {}", scheduleId);
-                    return new IllegalArgumentException("Schedule not found with ID: " + scheduleId);
-                });
-
-        // The seatStatuses map is loaded when the Schedule entity is loaded,
-        // assuming your JPA configuration handles @ElementCollection properly (it usually does).
+        return converter.toSeatLegend(plane);
+    }
 
-        // Convert to the response DTO
-        SeatMapResponse response = new SeatMapResponse();
-        response.setScheduleId(schedule.getScheduleId());
-        response.setSeatStatuses(schedule.getSeatStatuses());
 
-        log.debug("Successfully retrieved {} seat statuses for Schedule ID {}",
-                schedule.getSeatStatuses().size(), scheduleId);
+    // No transaction: a cache hit must not take a database connection. A miss loads through the
+    // repository, which opens its own read-only transaction.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SeatMapCache.VersionedSeatMap getScheduleSeats(Long scheduleId) {
+        log.debug("Fetching seat map for Schedule ID {}", scheduleId);
 
-        return response;
+        return seatMapCache.get(scheduleId, id -> {
+            log.info("Seat map cache miss for Schedule ID {}", id);
+            // The seat inventory is a single column of the schedule row, so no extra query is needed.
+            // The loaded map stays cached until the next booking, so it takes a stricter replica staleness budget.
+            Schedule schedule = ReadRouting.seatMapRead(() -> scheduleRepository.findById(id))
+                    .orElseThrow(() -> {
+                        log.warn("Failed to find Schedule with ID: {}", id);
+                        return new IllegalArgumentException("Schedule not found with ID: " + id);
+                    });
+            return schedule.getSeatInventory();
+        });
     }
 
 
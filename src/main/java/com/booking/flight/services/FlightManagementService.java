@@ -3,10 +3,13 @@ package com.booking.flight.services;
 // DTO Imports
 import com.booking.flight.dto.FlightCreationRequest;
 import com.booking.flight.dto.PlaneCreationRequest;
+import com.booking.flight.dto.RecurringScheduleRequest;
 import com.booking.flight.dto.ScheduleCreationRequest;
 import com.booking.flight.dto.response.PlaneResponse;
 import com.booking.flight.dto.response.FlightResponse;
+import com.booking.flight.dto.response.RecurringScheduleResponse;
 import com.booking.flight.dto.response.ScheduleResponse;
+import com.booking.flight.exception.InvalidSeatLayoutException;
 import com.booking.flight.util.EntityToDtoConverter;
 
 
@@ -17,23 +20,34 @@ import com.booking.flight.repository.*;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors; // Added for stream operations
-import java.util.stream.IntStream;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class FlightManagementService {
 
+    // Schedules read and counters written per round trip when reconciling the seat counters
+    private static final int RECONCILE_PAGE_SIZE = 1000;
+
     private final FlightRepository flightRepository;
     private final ScheduleRepository scheduleRepository;
     private final PlaneRepository planeRepository;
     private final BookingRepository bookingRepository;
     private final EntityToDtoConverter converter;
+    private final ScheduleSearchIndex scheduleSearchIndex;
+    private final ScheduleBatchRepository scheduleBatchRepository;
+    private final SeatAvailabilityCounter seatAvailabilityCounter;
+    private final SeatAllocationService seatAllocationService;
 
 
 
@@ -62,17 +76,123 @@ public class FlightManagementService {
         // Note: Assuming a default status like "ACTIVE" or "SCHEDULED"
         schedule.setStatus("SCHEDULED");
 
-        schedule.setSeatStatuses(initializeSeatStatuses(flight.getPlane()));
+        schedule.setSeatInventory(initializeSeatInventory(flight.getPlane()));
         log.debug("Initialized {} seats to 'AVAILABLE' for the new schedule.", flight.getPlane().getTotalSeats());
 
         Schedule savedSchedule = scheduleRepository.save(schedule);
         log.debug("Schedule created successfully. ID: {}", savedSchedule.getScheduleId());
+        scheduleSearchIndex.putOnCommit(savedSchedule);
+        seatAvailabilityCounter.initializeOnCommit(List.of(savedSchedule));
+        savedSchedule.setAvailableSeats(flight.getPlane().getTotalSeats());
 
         // CONVERSION STEP
         return converter.toScheduleResponse(savedSchedule);
 
     }
 
+    // ===============================================
+    // CREATE RECURRING SCHEDULES (a whole season for one route)
+    // ===============================================
+    @Transactional
+    public RecurringScheduleResponse createRecurringSchedules(RecurringScheduleRequest request) {
+        log.info("Generating schedules for Flight ID {} on {} from {} to {}",
+                request.flightId(), request.daysOfWeek(), request.startDate(), request.endDate());
+
+        Flight flight = flightRepository.findById(request.flightId())
+                .orElseThrow(() -> {
+                    log.warn("Failed to find Flight route with ID: {}", request.flightId());
+                    return new IllegalArgumentException("Flight route not found with ID: " + request.flightId());
+                });
+
+        LocalDateTime from = request.startDate().atTime(request.departureTime());
+        LocalDateTime to = request.endDate().atTime(request.departureTime());
+        // Re-running a season must not duplicate departures that already exist.
+        Set<LocalDateTime> existingDepartures =
+                new HashSet<>(scheduleRepository.findDepartureTimesForFlight(flight.getFlightId(), from, to));
+
+        List<Schedule> schedules = generateSchedules(flight, request, existingDepartures, LocalDateTime.now());
+        int skipped = (int) existingDepartures.stream()
+                .filter(departure -> departure.toLocalTime().equals(request.departureTime())
+                        && request.daysOfWeek().contains(departure.getDayOfWeek()))
+                .count();
+        if (schedules.isEmpty()) {
+            log.info("No new schedules to create for Flight ID {}", request.flightId());
+            return new RecurringScheduleResponse(flight.getFlightId(), 0, skipped, null, null);
+        }
+
+        int created = scheduleBatchRepository.insertAll(schedules);
+        log.info("Created {} schedules for Flight ID {} ({} already existed)", created, request.flightId(), skipped);
+
+        // The batch insert assigned the IDs, so the generated schedules can be indexed as they are.
+        scheduleSearchIndex.putAllOnCommit(schedules);
+        seatAvailabilityCounter.initializeOnCommit(schedules);
+
+        LocalDateTime firstDeparture = schedules.get(0).getDepartureTime();
+        LocalDateTime lastDeparture = schedules.get(schedules.size() - 1).getDepartureTime();
+
+        return new RecurringScheduleResponse(flight.getFlightId(), created, skipped, firstDeparture, lastDeparture);
+    }
+
+    // ===============================================
+    // RECONCILE SEAT COUNTERS WITH MARIADB
+    // ===============================================
+    /**
+     * Resets the Aerospike seat counter of every upcoming schedule to the free seats of its inventory.
+     * Also creates the counters of schedules that predate them, and re-indexes the schedules so the fare
+     * calendar picks up sell-outs booked through other nodes. Returns the number of counters written.
+     * Runs page by page, each page one read-only query and one batch write, outside a transaction so
+     * the loaded schedules do not pile up in one persistence context.
+     * A booking committing while this runs can be taken off its counter twice; the counter then reads
+     * low until the next reconcile, and BookingService confirms it on the seat inventory before rejecting.
+     */
+    public int reconcileSeatCounters() {
+        LocalDateTime from = LocalDateTime.now();
+        int reconciled = 0;
+        int total = 0;
+        long afterId = 0;
+        List<Schedule> page;
+        do {
+            page = scheduleRepository.findScheduledDepartingFromAfter(from, afterId, Limit.of(RECONCILE_PAGE_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            reconciled += seatAvailabilityCounter.reconcile(page);
+            scheduleSearchIndex.putAllOnCommit(page);
+            total += page.size();
+            afterId = page.get(page.size() - 1).getScheduleId();
+        } while (page.size() == RECONCILE_PAGE_SIZE);
+        log.info("Reconciled {} of {} seat counters with MariaDB", reconciled, total);
+        return reconciled;
+    }
+
+    /**
+     * Builds one schedule per matching day, in departure order, skipping existing and past departures.
+     * Every schedule shares the same all-AVAILABLE seat inventory value.
+     */
+    List<Schedule> generateSchedules(Flight flight, RecurringScheduleRequest request,
+                                     Set<LocalDateTime> existingDepartures, LocalDateTime now) {
+        SeatInventory seatInventory = initializeSeatInventory(flight.getPlane());
+        List<Schedule> schedules = new ArrayList<>();
+        for (LocalDate date = request.startDate(); !date.isAfter(request.endDate()); date = date.plusDays(1)) {
+            LocalDateTime departure = date.atTime(request.departureTime());
+            if (!request.daysOfWeek().contains(date.getDayOfWeek())
+                    || existingDepartures.contains(departure)
+                    || !departure.isAfter(now)) {
+                continue;
+            }
+
+            Schedule schedule = new Schedule();
+            schedule.setFlight(flight);
+            schedule.setDepartureTime(departure);
+            schedule.setArrivalTime(departure.plusMinutes(request.durationMinutes()));
+            schedule.setBasePrice(request.basePrice());
+            schedule.setStatus("SCHEDULED");
+            schedule.setSeatInventory(seatInventory);
+            schedules.add(schedule);
+        }
+        return schedules;
+    }
+
     // ===============================================
     // NEW FUNCTION 2: REASSIGN PLANE TO FLIGHT ROUTE
     // RETURN TYPE CHANGED TO FlightResponse
@@ -101,7 +221,11 @@ public class FlightManagementService {
         log.info("Flight {} successfully reassigned to plane model {}", flight.getFlightNumber(), newPlane.getModel());
 
         // CONVERSION STEP
-        return converter.toFlightResponse(updatedFlight);
+        FlightResponse response = converter.toFlightResponse(updatedFlight);
+        scheduleSearchIndex.updateFlightOnCommit(response);
+        // The flight's schedules now have the new plane's seat layout, even if its seat count is the same
+        seatAllocationService.invalidateFlightOnCommit(flightId);
+        return response;
     }
 
     // --- Other Admin CRUD methods (updated return types) ---
@@ -141,6 +265,7 @@ public class FlightManagementService {
         Plane plane = new Plane();
         plane.setModel(request.model());
         plane.setTotalSeats(request.totalSeats());
+        plane.setSeatLayout(parseSeatLayout(request));
         Plane savedPlane = planeRepository.save(plane);
         log.debug("Plane created successfully with ID: {}", savedPlane.getPlaneId());
 
@@ -149,21 +274,32 @@ public class FlightManagementService {
     }
 
     /**
-     * Generates the initial map of seat statuses for a new schedule.
-     * NOTE: This is a simplified seat generation (e.g., sequential numbering).
-     * Real systems need a complex seat map utility.
+     * The plane's seat layout, if the request has one; it must describe exactly totalSeats seats.
      */
-    private Map<String, String> initializeSeatStatuses(Plane plane) {
-        int totalSeats = plane.getTotalSeats();
-
+    static SeatLayout parseSeatLayout(PlaneCreationRequest request) {
+        if (request.seatLayout() == null || request.seatLayout().isBlank()) {
+            return null;
+        }
+        SeatLayout layout;
+        try {
+            layout = SeatLayout.parse(request.seatLayout());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSeatLayoutException("Invalid seat layout: " + e.getMessage());
+        }
+        if (layout.seatCount() != request.totalSeats()) {
+            throw new InvalidSeatLayoutException("Seat layout has " + layout.seatCount() + " seats, plane has "
+                    + request.totalSeats());
+        }
+        return layout;
+    }
 
-        // For simplicity, we generate sequential names like "001", "002", etc., up to totalSeats.
-        return IntStream.rangeClosed(1, totalSeats)
-                .mapToObj(i -> String.format("%03d", i)) // Pad to three digits (e.g., "001")
-                .collect(Collectors.toMap(
-                        seatNumber -> seatNumber, // Key is the seat number
-                        seatNumber -> "AVAILABLE" // Value is the initial status
-                ));
+    /**
+     * Generates the initial seat inventory for a new schedule: one AVAILABLE entry per seat.
+     * NOTE: Seats are numbered sequentially ("001", "002", ...), see SeatLabels.
+     * Real systems need a complex seat map utility.
+     */
+    SeatInventory initializeSeatInventory(Plane plane) {
+        return SeatInventory.allAvailable(plane.getTotalSeats());
     }
 
 }
\ No newline at end of file
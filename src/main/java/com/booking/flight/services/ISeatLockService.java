@@ -0,0 +1,28 @@
+package com.booking.flight.services;
+
+import java.util.List;
+
+/**
+ * Distributed seat locking used by the booking flow.
+ * Implementations must acquire and release the whole seat list as one unit:
+ * either every requested seat is locked or none of them is.
+ */
+public interface ISeatLockService {
+
+    /**
+     * Locks all requested seats of a schedule for the given user and returns the lease to release them with.
+     * Throws SeatAlreadyReservedException if any seat is already locked (nothing is acquired in that case)
+     * and AerospikeLockFailureException for any other failure.
+     */
+    SeatLease acquireLocks(Long scheduleId, List<String> seatNumbers, Long userId);
+
+    /**
+     * Releases the seat locks of a lease. Locks that expired, or now belong to another holder, are left alone.
+     */
+    void releaseLocks(SeatLease lease);
+
+    /**
+     * Seat numbers with a live lock on the schedule, read from the schedule's ledger in one call.
+     */
+    List<String> lockedSeats(Long scheduleId);
+}
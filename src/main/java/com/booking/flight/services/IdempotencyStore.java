@@ -0,0 +1,216 @@
+package com.booking.flight.services;
+
+import com.aerospike.client.*;
+import com.aerospike.client.Record;
+import com.aerospike.client.policy.RecordExistsAction;
+import com.aerospike.client.policy.WritePolicy;
+import com.booking.flight.config.aeroSpikeConfig.AerospikeConfiguration;
+import com.booking.flight.dto.BookingRequest;
+import com.booking.flight.dto.response.BookingResponse;
+import com.booking.flight.exception.IdempotencyKeyInUseException;
+import com.booking.flight.exception.IdempotencyKeyMismatchException;
+import com.booking.flight.exception.InvalidIdempotencyKeyException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Idempotency-Key support for POST /api/v1/bookings, one record per key in the idempotency_keys set.
+ * <p>
+ * The first request with a key claims it with a CREATE_ONLY write (an in-progress marker that expires
+ * after in-flight-seconds, so a crashed node cannot block the key), runs the booking and stores the
+ * response for ttl-seconds. A duplicate gets that stored response instead of running the booking again,
+ * or 409 right away while the first one is still running; no request thread waits for another.
+ * Failed bookings release the key, so a retry runs again. Seat locks still prevent double booking if
+ * the store is unreachable; the request then just runs without idempotency.
+ * <p>
+ * Outcomes are written on the store's own threads: bookings may complete on Aerospike event loops or
+ * engine partition threads, which must not block.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    static final String IDEMPOTENCY_SET = "idempotency_keys";
+    static final String REQUEST_BIN = "request";
+    // HTTP status of the stored response; absent while the request is in progress
+    static final String STATUS_BIN = "status";
+    static final String BODY_BIN = "body";
+    static final int MAX_KEY_LENGTH = 255;
+
+    private static final TypeReference<List<BookingResponse>> BOOKINGS = new TypeReference<>() {
+    };
+
+    public record StoredResponse(int status, List<BookingResponse> bookings) {
+    }
+
+    private final AerospikeClient aerospikeClient;
+    private final WritePolicy aerospikeLockingPolicy;
+    private final AerospikeConfiguration aerospikeConfig;
+    private final ObjectMapper objectMapper;
+    private final int ttlSeconds;
+    private final int inFlightSeconds;
+    private final ExecutorService completions;
+
+    public IdempotencyStore(AerospikeClient aerospikeClient,
+                            @Qualifier("aerospikeLockingPolicy") WritePolicy aerospikeLockingPolicy,
+                            AerospikeConfiguration aerospikeConfig,
+                            ObjectMapper objectMapper,
+                            @Value("${booking.idempotency.ttl-seconds:86400}") int ttlSeconds,
+                            @Value("${booking.idempotency.in-flight-seconds:60}") int inFlightSeconds,
+                            @Value("${booking.idempotency.completion-threads:4}") int completionThreads) {
+        this.aerospikeClient = aerospikeClient;
+        this.aerospikeLockingPolicy = aerospikeLockingPolicy;
+        this.aerospikeConfig = aerospikeConfig;
+        this.objectMapper = objectMapper;
+        this.ttlSeconds = ttlSeconds;
+        this.inFlightSeconds = inFlightSeconds;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.completions = Executors.newFixedThreadPool(completionThreads, runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Claims the key for the request. Empty when the caller now owns the key and must run the booking,
+     * then {@link #complete} or {@link #release} it; otherwise the response stored by an earlier request.
+     * Throws InvalidIdempotencyKeyException for a blank or over-long key, IdempotencyKeyMismatchException
+     * if the key was used for a different request, and IdempotencyKeyInUseException if that request is
+     * still running.
+     */
+    public Optional<StoredResponse> begin(String idempotencyKey, BookingRequest request) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String fingerprint = fingerprint(request);
+        Key key = key(idempotencyKey);
+        // A second claim only if the record vanished in between (released or expired)
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Record record;
+            try {
+                if (claim(key, fingerprint)) {
+                    return Optional.empty();
+                }
+                record = aerospikeClient.get(null, key);
+            } catch (AerospikeException e) {
+                log.warn("Idempotency store unavailable, booking without key {}: {}", idempotencyKey, e.getMessage());
+                return Optional.empty();
+            }
+            if (record == null) {
+                continue;
+            }
+            if (!fingerprint.equals(record.getString(REQUEST_BIN))) {
+                throw new IdempotencyKeyMismatchException(HEADER + " was already used for a different booking request: "
+                        + idempotencyKey);
+            }
+            if (record.getValue(STATUS_BIN) != null) {
+                Optional<StoredResponse> stored = storedResponse(idempotencyKey, record);
+                if (stored.isPresent()) {
+                    return stored;
+                }
+                // The unreadable response was dropped: claim the key again
+                continue;
+            }
+            break;
+        }
+        throw new IdempotencyKeyInUseException(idempotencyKey);
+    }
+
+    /**
+     * Executor for the {@link #complete} or {@link #release} call that follows a booking, so the thread
+     * that completed the booking never waits on Aerospike.
+     */
+    public Executor completions() {
+        return completions;
+    }
+
+    /**
+     * Stores the response of the request that owns the key, for ttl-seconds.
+     */
+    public void complete(String idempotencyKey, BookingRequest request, int status, List<BookingResponse> bookings) {
+        WritePolicy policy = new WritePolicy(aerospikeLockingPolicy);
+        policy.recordExistsAction = RecordExistsAction.REPLACE;
+        policy.expiration = ttlSeconds;
+        try {
+            aerospikeClient.put(policy, key(idempotencyKey),
+                    new Bin(REQUEST_BIN, fingerprint(request)),
+                    new Bin(STATUS_BIN, status),
+                    new Bin(BODY_BIN, objectMapper.writeValueAsString(bookings)));
+        } catch (JsonProcessingException | AerospikeException e) {
+            // Duplicates then run the booking again, which fails on the seats this request took.
+            log.warn("Failed to store the response of idempotency key {}: {}", idempotencyKey, e.getMessage());
+            release(idempotencyKey);
+        }
+    }
+
+    /**
+     * Drops the key of a request that failed, so that a retry runs the booking again.
+     */
+    public void release(String idempotencyKey) {
+        try {
+            aerospikeClient.delete(null, key(idempotencyKey));
+        } catch (AerospikeException e) {
+            // The in-progress marker expires after in-flight-seconds.
+            log.warn("Failed to release idempotency key {}: {}", idempotencyKey, e.getMessage());
+        }
+    }
+
+    private boolean claim(Key key, String fingerprint) {
+        WritePolicy policy = new WritePolicy(aerospikeLockingPolicy);
+        policy.recordExistsAction = RecordExistsAction.CREATE_ONLY;
+        policy.expiration = inFlightSeconds;
+        try {
+            aerospikeClient.put(policy, key, new Bin(REQUEST_BIN, fingerprint));
+            return true;
+        } catch (AerospikeException e) {
+            if (e.getResultCode() == ResultCode.KEY_EXISTS_ERROR) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private Optional<StoredResponse> storedResponse(String idempotencyKey, Record record) {
+        try {
+            return Optional.of(new StoredResponse(record.getInt(STATUS_BIN),
+                    objectMapper.readValue(record.getString(BODY_BIN), BOOKINGS)));
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable stored response of idempotency key {}, dropping it: {}", idempotencyKey, e.getMessage());
+            release(idempotencyKey);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * What makes two booking requests the same request.
+     */
+    static String fingerprint(BookingRequest request) {
+        return request.scheduleId() + ":" + request.userId() + ":" + String.join(",", request.seatNumbers());
+    }
+
+    private Key key(String idempotencyKey) {
+        return new Key(aerospikeConfig.getNamespace(), IDEMPOTENCY_SET, idempotencyKey);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        completions.shutdown();
+    }
+}
@@ -0,0 +1,229 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.ItinerarySearchRequest;
+import com.booking.flight.dto.response.ItineraryResponse;
+import com.booking.flight.dto.response.ScheduleResponse;
+import com.booking.flight.exception.SearchIndexUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Direct, one-stop and two-stop itineraries, found by walking the {@link RouteGraph} of the schedule
+ * search index: no database query at all, and one batch read of the seat counters per round.
+ * <p>
+ * A connection is valid when the next leg departs from the arrival airport no sooner than its minimum
+ * connection time and no later than the maximum connection time after landing. The walk is bounded:
+ * airports that cannot reach the destination in the legs left are skipped (fewest-legs table from a
+ * reverse breadth-first walk), airports are not revisited, and once max-results itineraries are kept,
+ * partial itineraries that already land later than the worst of them are dropped.
+ */
+@Service
+@Slf4j
+public class ItinerarySearchService {
+
+    private static final int DEFAULT_MAX_STOPS = 2;
+    // Rounds of search + seat counter read; each round excludes the legs found sold out in the last one.
+    private static final int MAX_ROUNDS = 3;
+
+    // Best first: earliest arrival, then fewer stops, then latest departure (shortest journey).
+    private static final Comparator<Itinerary> RANKING = Comparator.comparing(Itinerary::arrival)
+            .thenComparingInt(Itinerary::stops)
+            .thenComparing(Itinerary::departure, Comparator.reverseOrder());
+
+    private record Itinerary(List<String> airports, List<ScheduleResponse> legs) {
+        LocalDateTime departure() {
+            return legs.get(0).departureTime();
+        }
+
+        LocalDateTime arrival() {
+            return legs.get(legs.size() - 1).arrivalTime();
+        }
+
+        int stops() {
+            return legs.size() - 1;
+        }
+    }
+
+    private final ScheduleSearchIndex scheduleSearchIndex;
+    private final SeatAvailabilityCounter seatAvailabilityCounter;
+    private final Duration defaultMinConnection;
+    private final Map<String, Duration> minConnectionByAirport;
+    private final Duration maxConnection;
+    private final int maxResults;
+
+    public ItinerarySearchService(ScheduleSearchIndex scheduleSearchIndex,
+                                  SeatAvailabilityCounter seatAvailabilityCounter,
+                                  @Value("${search.itinerary.min-connection-minutes:45}") long minConnectionMinutes,
+                                  @Value("${search.itinerary.min-connection-overrides:}") String minConnectionOverrides,
+                                  @Value("${search.itinerary.max-connection-minutes:360}") long maxConnectionMinutes,
+                                  @Value("${search.itinerary.max-results:20}") int maxResults) {
+        this.scheduleSearchIndex = scheduleSearchIndex;
+        this.seatAvailabilityCounter = seatAvailabilityCounter;
+        this.defaultMinConnection = Duration.ofMinutes(minConnectionMinutes);
+        this.minConnectionByAirport = parseMinConnections(minConnectionOverrides);
+        this.maxConnection = Duration.ofMinutes(maxConnectionMinutes);
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Itineraries departing on the requested date, best first, at most max-results. Itineraries with a
+     * sold-out leg (per the seat counters) are left out; legs carry their seats left.
+     */
+    public List<ItineraryResponse> searchItineraries(ItinerarySearchRequest request) {
+        RouteGraph graph = scheduleSearchIndex.routeGraph().orElseThrow(() ->
+                new SearchIndexUnavailableException("Itinerary search is not available until the schedule index is built."));
+        String origin = request.origin().toUpperCase(Locale.ROOT);
+        String destination = request.destination().toUpperCase(Locale.ROOT);
+        int maxLegs = (request.maxStops() == null ? DEFAULT_MAX_STOPS : request.maxStops()) + 1;
+
+        Set<Long> soldOut = new HashSet<>();
+        Map<Long, Integer> availableSeats = new HashMap<>();
+        List<Itinerary> itineraries = List.of();
+        for (int round = 1; round <= MAX_ROUNDS; round++) {
+            itineraries = search(graph, origin, destination, request.departureDate(), maxLegs, soldOut);
+            List<Long> unread = itineraries.stream()
+                    .flatMap(itinerary -> itinerary.legs().stream())
+                    .map(ScheduleResponse::id)
+                    .filter(id -> !availableSeats.containsKey(id))
+                    .distinct()
+                    .toList();
+            availableSeats.putAll(seatAvailabilityCounter.availableSeats(unread));
+            int soldOutBefore = soldOut.size();
+            unread.stream().filter(id -> Integer.valueOf(0).equals(availableSeats.get(id))).forEach(soldOut::add);
+            if (soldOut.size() == soldOutBefore) {
+                break;
+            }
+        }
+
+        log.debug("Found {} itineraries from {} to {} on {}", itineraries.size(), origin, destination, request.departureDate());
+        return itineraries.stream()
+                .filter(itinerary -> itinerary.legs().stream().noneMatch(leg -> soldOut.contains(leg.id())))
+                .map(itinerary -> toResponse(itinerary, availableSeats))
+                .toList();
+    }
+
+    /**
+     * Mutable state of one walk: the itinerary being extended and the best complete ones so far.
+     */
+    private final class Walk {
+        final RouteGraph graph;
+        final String destination;
+        final Map<String, Integer> legsTo;
+        final int maxLegs;
+        final Set<Long> excluded;
+        final List<String> airports = new ArrayList<>();
+        final List<ScheduleResponse> legs = new ArrayList<>();
+        // Worst kept itinerary on top
+        final PriorityQueue<Itinerary> best = new PriorityQueue<>(RANKING.reversed());
+
+        Walk(RouteGraph graph, String destination, int maxLegs, Set<Long> excluded) {
+            this.graph = graph;
+            this.destination = destination;
+            this.legsTo = graph.legsTo(destination, maxLegs);
+            this.maxLegs = maxLegs;
+            this.excluded = excluded;
+        }
+
+        boolean cannotImprove(LocalDateTime arrival) {
+            return best.size() == maxResults && arrival.isAfter(best.peek().arrival());
+        }
+
+        void keepCurrent() {
+            best.add(new Itinerary(List.copyOf(airports), List.copyOf(legs)));
+            if (best.size() > maxResults) {
+                best.poll();
+            }
+        }
+    }
+
+    private List<Itinerary> search(RouteGraph graph, String origin, String destination, LocalDate departureDate,
+                                   int maxLegs, Set<Long> excluded) {
+        Walk walk = new Walk(graph, destination, maxLegs, excluded);
+        if (origin.equals(destination) || !walk.legsTo.containsKey(origin) || maxResults < 1) {
+            return List.of();
+        }
+        walk.airports.add(origin);
+        extend(walk, origin, departureDate.atStartOfDay(), departureDate.plusDays(1).atStartOfDay());
+
+        List<Itinerary> itineraries = new ArrayList<>(walk.best);
+        itineraries.sort(RANKING);
+        return itineraries;
+    }
+
+    /**
+     * Tries every leg out of the airport departing in [from, to) that can still lead to the destination.
+     */
+    private void extend(Walk walk, String airport, LocalDateTime from, LocalDateTime to) {
+        int legsLeft = walk.maxLegs - walk.legs.size();
+        for (String next : walk.graph.destinationsFrom(airport)) {
+            Integer legsFromNext = walk.legsTo.get(next);
+            if (legsFromNext == null || legsFromNext > legsLeft - 1 || walk.airports.contains(next)) {
+                continue;
+            }
+            for (ScheduleResponse leg : walk.graph.departures(airport, next, from, to)) {
+                // Arrival order differs from departure order, so later departures are still tried.
+                if (walk.excluded.contains(leg.id()) || walk.cannotImprove(leg.arrivalTime())) {
+                    continue;
+                }
+                walk.airports.add(next);
+                walk.legs.add(leg);
+                if (next.equals(walk.destination)) {
+                    walk.keepCurrent();
+                } else {
+                    LocalDateTime landed = leg.arrivalTime();
+                    extend(walk, next, landed.plus(minConnection(next)), landed.plus(maxConnection));
+                }
+                walk.airports.remove(walk.airports.size() - 1);
+                walk.legs.remove(walk.legs.size() - 1);
+            }
+        }
+    }
+
+    private Duration minConnection(String airport) {
+        return minConnectionByAirport.getOrDefault(airport, defaultMinConnection);
+    }
+
+    private static ItineraryResponse toResponse(Itinerary itinerary, Map<Long, Integer> availableSeats) {
+        List<ScheduleResponse> legs = itinerary.legs().stream()
+                .map(s -> new ScheduleResponse(s.id(), s.flight(), s.departureTime(), s.arrivalTime(),
+                        s.basePrice(), s.status(), s.seatStatuses(), availableSeats.get(s.id())))
+                .toList();
+        BigDecimal totalBasePrice = legs.stream().map(ScheduleResponse::basePrice).reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new ItineraryResponse(itinerary.airports(), legs, itinerary.stops(), itinerary.departure(),
+                itinerary.arrival(), Duration.between(itinerary.departure(), itinerary.arrival()).toMinutes(),
+                totalBasePrice);
+    }
+
+    /**
+     * Parses per-airport minimum connection times, e.g. "DEL=60,BOM=75" (minutes).
+     */
+    static Map<String, Duration> parseMinConnections(String overrides) {
+        Map<String, Duration> minConnections = new HashMap<>();
+        if (overrides == null || overrides.isBlank()) {
+            return minConnections;
+        }
+        for (String entry : overrides.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Minimum connection override must be AIRPORT=MINUTES, got '" + entry + "'");
+            }
+            minConnections.put(parts[0].trim().toUpperCase(Locale.ROOT), Duration.ofMinutes(Long.parseLong(parts[1].trim())));
+        }
+        return minConnections;
+    }
+}
@@ -0,0 +1,96 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.response.ScheduleResponse;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Airports and the routes between them, each route with its SCHEDULED schedules sorted by departure
+ * time across all dates. Maintained by {@link ScheduleSearchIndex} alongside its route-date buckets, so
+ * a multi-leg search walks memory only. Airport codes are upper case.
+ * <p>
+ * Reads may run concurrently with updates; updates are serialized by the index.
+ */
+final class RouteGraph {
+
+    static final Comparator<ScheduleResponse> BY_DEPARTURE =
+            Comparator.comparing(ScheduleResponse::departureTime).thenComparing(ScheduleResponse::id);
+
+    private static final NavigableSet<ScheduleResponse> NO_DEPARTURES = new ConcurrentSkipListSet<>(BY_DEPARTURE);
+
+    // origin -> destination -> schedules of the route
+    private final Map<String, Map<String, NavigableSet<ScheduleResponse>>> routes = new ConcurrentHashMap<>();
+    // destination -> origins with a route into it
+    private final Map<String, Set<String>> inbound = new ConcurrentHashMap<>();
+
+    void add(String origin, String destination, ScheduleResponse schedule) {
+        routes.computeIfAbsent(origin, airport -> new ConcurrentHashMap<>())
+                .computeIfAbsent(destination, airport -> new ConcurrentSkipListSet<>(BY_DEPARTURE))
+                .add(schedule);
+        inbound.computeIfAbsent(destination, airport -> ConcurrentHashMap.newKeySet()).add(origin);
+    }
+
+    void remove(String origin, String destination, ScheduleResponse schedule) {
+        departuresOf(origin, destination).remove(schedule);
+    }
+
+    /**
+     * Destinations served from the airport, including routes with no schedule left.
+     */
+    Set<String> destinationsFrom(String origin) {
+        Map<String, NavigableSet<ScheduleResponse>> destinations = routes.get(origin);
+        return destinations == null ? Set.of() : destinations.keySet();
+    }
+
+    /**
+     * Schedules of the route departing in [from, to), in departure order. A live view, not a copy.
+     */
+    NavigableSet<ScheduleResponse> departures(String origin, String destination, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return NO_DEPARTURES;
+        }
+        return departuresOf(origin, destination).subSet(probe(from), true, probe(to), false);
+    }
+
+    /**
+     * Fewest legs from each airport to the destination, for airports that reach it in at most maxLegs
+     * legs (the destination itself maps to 0). A breadth-first walk of the reversed routes.
+     */
+    Map<String, Integer> legsTo(String destination, int maxLegs) {
+        Map<String, Integer> legs = new HashMap<>();
+        legs.put(destination, 0);
+        Queue<String> frontier = new ArrayDeque<>();
+        frontier.add(destination);
+        while (!frontier.isEmpty()) {
+            String airport = frontier.remove();
+            int next = legs.get(airport) + 1;
+            if (next > maxLegs) {
+                continue;
+            }
+            for (String origin : inbound.getOrDefault(airport, Set.of())) {
+                if (legs.putIfAbsent(origin, next) == null) {
+                    frontier.add(origin);
+                }
+            }
+        }
+        return legs;
+    }
+
+    private NavigableSet<ScheduleResponse> departuresOf(String origin, String destination) {
+        return routes.getOrDefault(origin, Map.of()).getOrDefault(destination, NO_DEPARTURES);
+    }
+
+    // Sorts before every schedule departing at the same time (ids are positive).
+    private static ScheduleResponse probe(LocalDateTime departureTime) {
+        return new ScheduleResponse(Long.MIN_VALUE, null, departureTime, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,216 @@
+package com.booking.flight.services;
+
+import com.booking.flight.exception.ScheduleBusyException;
+import com.booking.flight.metrics.BookingMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-schedule admission control for booking requests (flash sales). Every schedule has its own gate, so
+ * a trending schedule never holds back requests for the others.
+ * <p>
+ * A gate stays open until the schedule gets more than engage-rps requests within one second on this node.
+ * It then lets requests in at release-rps through a token bucket (up to burst at once). Requests that find
+ * no token get a ticket in a waiting room of at most max-queue places and an immediate 429 with their
+ * position; tickets are called in order as tokens come in, and a request that sends back a called ticket
+ * is let in. Tickets are random tokens known only to the gate that issued them, good for one admission:
+ * they cannot be guessed, reused, or carried over to another schedule or a later rush. A called ticket
+ * that is not used within another max-queue calls is forfeited. Once the queue is empty and the rate has
+ * stayed below engage-rps for cool-down-seconds, the gate opens again and its waiting room is emptied.
+ * Nothing blocks: a rejected request costs one synchronized block on its schedule's gate.
+ */
+@Component
+@Slf4j
+public class ScheduleAdmissionControl {
+
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int TICKET_BYTES = 16;
+    private static final SecureRandom TICKET_RANDOM = new SecureRandom();
+
+    private final boolean enabled;
+    private final int engageRps;
+    private final double releaseRps;
+    private final int burst;
+    private final int maxQueue;
+    private final long coolDownNanos;
+    private final BookingMetrics bookingMetrics;
+
+    private final Map<Long, Gate> gates = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    public ScheduleAdmissionControl(@Value("${booking.admission.enabled:true}") boolean enabled,
+                                    @Value("${booking.admission.engage-rps:200}") int engageRps,
+                                    @Value("${booking.admission.release-rps:50}") double releaseRps,
+                                    @Value("${booking.admission.burst:20}") int burst,
+                                    @Value("${booking.admission.max-queue:5000}") int maxQueue,
+                                    @Value("${booking.admission.cool-down-seconds:30}") long coolDownSeconds,
+                                    BookingMetrics bookingMetrics) {
+        this.enabled = enabled;
+        this.engageRps = engageRps;
+        this.releaseRps = releaseRps;
+        this.burst = burst;
+        this.maxQueue = maxQueue;
+        this.coolDownNanos = TimeUnit.SECONDS.toNanos(coolDownSeconds);
+        this.bookingMetrics = bookingMetrics;
+    }
+
+    // Outcome of a request the gate did not let in
+    private record Rejection(String ticket, long position, long retryAfterSeconds) {
+    }
+
+    /**
+     * Admission state of one schedule. All fields are guarded by the gate's monitor.
+     */
+    private final class Gate {
+        // Requests in the current one-second window
+        long windowStart;
+        int windowRequests;
+        long lastBusyAt;
+        long lastRequestAt;
+
+        boolean engaged;
+        double tokens;
+        long refilledAt;
+        // Waiting room: places 1..issued were handed out, 1..called may come in
+        long issued;
+        long called;
+        // Outstanding ticket -> its place, in place order; a ticket is removed once it is used
+        final Map<String, Long> tickets = new LinkedHashMap<>();
+
+        Gate(long now) {
+            windowStart = now;
+        }
+
+        Rejection admit(String ticket, long now) {
+            lastRequestAt = now;
+            if (now - windowStart >= SECOND_NANOS) {
+                windowStart = now;
+                windowRequests = 0;
+            }
+            if (++windowRequests > engageRps) {
+                lastBusyAt = now;
+                if (!engaged) {
+                    engaged = true;
+                    tokens = burst;
+                    refilledAt = now;
+                    return null;
+                }
+            }
+            if (!engaged) {
+                return null;
+            }
+
+            refill(now);
+            if (waiting() == 0 && now - lastBusyAt >= coolDownNanos) {
+                engaged = false;
+                // Tickets of this rush are no good in the next one
+                tickets.clear();
+                issued = 0;
+                called = 0;
+                return null;
+            }
+            Long place = ticket != null ? tickets.get(ticket) : null;
+            if (place != null) {
+                if (place > called) {
+                    return rejection(ticket, place - called);
+                }
+                tickets.remove(ticket);
+                return null;
+            }
+            if (waiting() == 0 && tokens >= 1) {
+                tokens--;
+                return null;
+            }
+            if (waiting() >= maxQueue) {
+                return rejection(null, waiting());
+            }
+            issued++;
+            String issuedTicket = newTicket();
+            tickets.put(issuedTicket, issued);
+            return rejection(issuedTicket, issued - called);
+        }
+
+        // Adds the tokens earned since the last request; they call waiting tickets first.
+        private void refill(long now) {
+            tokens += (now - refilledAt) * releaseRps / SECOND_NANOS;
+            refilledAt = now;
+            long calling = Math.min(waiting(), (long) tokens);
+            called += calling;
+            tokens = Math.min(tokens - calling, burst);
+            Iterator<Long> places = tickets.values().iterator();
+            while (places.hasNext() && places.next() <= called - maxQueue) {
+                places.remove();
+            }
+        }
+
+        private long waiting() {
+            return issued - called;
+        }
+
+        private Rejection rejection(String ticket, long position) {
+            return new Rejection(ticket, position, Math.max(1, (long) Math.ceil(position / releaseRps)));
+        }
+    }
+
+    /**
+     * Lets the request in, or throws ScheduleBusyException (429) with a waiting room ticket and position.
+     * ticket is the one from an earlier 429 for this schedule, if any; an unknown ticket counts as none.
+     */
+    public void admit(Long scheduleId, String ticket) {
+        admit(scheduleId, ticket, System.nanoTime());
+    }
+
+    void admit(Long scheduleId, String ticket, long now) {
+        if (!enabled || scheduleId == null) {
+            return;
+        }
+        Gate gate = gates.computeIfAbsent(scheduleId, id -> new Gate(now));
+        Rejection rejection;
+        boolean wasEngaged;
+        boolean engaged;
+        synchronized (gate) {
+            wasEngaged = gate.engaged;
+            rejection = gate.admit(ticket, now);
+            engaged = gate.engaged;
+        }
+        if (engaged != wasEngaged) {
+            log.info("Admission control {} for Schedule ID {}", engaged ? "engaged" : "released", scheduleId);
+        }
+        sweep(now);
+        if (rejection != null) {
+            bookingMetrics.recordAdmission(rejection.ticket() != null);
+            throw new ScheduleBusyException(scheduleId, rejection.ticket(), rejection.position(), rejection.retryAfterSeconds());
+        }
+    }
+
+    private static String newTicket() {
+        byte[] bytes = new byte[TICKET_BYTES];
+        TICKET_RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Drops the gates of schedules without requests for cool-down-seconds, at most once per cool-down.
+     */
+    private void sweep(long now) {
+        long last = lastSweep.get();
+        if (now - last < coolDownNanos || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        gates.values().removeIf(gate -> {
+            synchronized (gate) {
+                return now - gate.lastRequestAt >= coolDownNanos;
+            }
+        });
+    }
+}
@@ -0,0 +1,313 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.response.FlightResponse;
+import com.booking.flight.dto.response.ScheduleResponse;
+import com.booking.flight.models.Flight;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.models.SeatState;
+import com.booking.flight.repository.ScheduleRepository;
+import com.booking.flight.util.EntityToDtoConverter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory index of SCHEDULED schedules keyed by (origin, destination, departure date).
+ * Holds schedule summaries (no seat map), sorted by departure time, so a search is a hash
+ * lookup plus a copy. Built once the application is ready and kept current by this node's admin
+ * write paths; once built, a key it does not hold has no schedules, and only searches before it is
+ * built or for past dates go to the database. Schedules created, changed or
+ * cancelled through other nodes, and departed dates, are picked up by {@link #refresh()}, which
+ * {@link ScheduleSearchIndexRefresher} runs periodically.
+ * <p>
+ * The same schedules also form a {@link RouteGraph} (airports, routes and their departures over
+ * all dates) for connecting-itinerary search, and a {@link FareCalendar} of daily fare aggregates,
+ * which bookings update when they sell a schedule out.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduleSearchIndex {
+
+    private static final String SCHEDULED = "SCHEDULED";
+    private static final Comparator<ScheduleResponse> BY_DEPARTURE = RouteGraph.BY_DEPARTURE;
+
+    private record SearchKey(String origin, String destination, LocalDate departureDate) {
+        static SearchKey of(String origin, String destination, LocalDate departureDate) {
+            // The database compares airport codes case-insensitively; keep the same semantics.
+            return new SearchKey(origin.toUpperCase(Locale.ROOT), destination.toUpperCase(Locale.ROOT), departureDate);
+        }
+    }
+
+    private record IndexedSchedule(SearchKey key, ScheduleResponse summary, boolean soldOut) {
+    }
+
+    private final ScheduleRepository scheduleRepository;
+    private final EntityToDtoConverter converter;
+
+    private final Map<SearchKey, NavigableSet<ScheduleResponse>> schedulesByKey = new ConcurrentHashMap<>();
+    private final Map<Long, IndexedSchedule> schedulesById = new ConcurrentHashMap<>();
+    private final RouteGraph routeGraph = new RouteGraph();
+    private final FareCalendar fareCalendar = new FareCalendar();
+    private volatile boolean ready;
+    // Schedules written through this node while a refresh reads the database; the refresh must not undo them.
+    private final Set<Long> writtenDuringRefresh = ConcurrentHashMap.newKeySet();
+    private volatile boolean refreshing;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        try {
+            refresh();
+            log.info("Schedule search index built with {} schedules on {} route-dates",
+                    schedulesById.size(), schedulesByKey.size());
+        } catch (DataAccessException e) {
+            // Searches keep going to the database until a refresh succeeds.
+            log.error("Failed to build the schedule search index: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Re-reads the SCHEDULED schedules departing from today on and brings the index in line with them:
+     * new and changed schedules are put, cancelled and departed ones removed. Only schedules that differ
+     * are touched, and schedules written through this node meanwhile are left as they are.
+     */
+    public void refresh() {
+        synchronized (this) {
+            writtenDuringRefresh.clear();
+            refreshing = true;
+        }
+        try {
+            List<IndexedSchedule> current = scheduleRepository.findScheduledDepartingFrom(LocalDate.now().atStartOfDay())
+                    .stream()
+                    .map(this::toIndexed)
+                    .filter(Objects::nonNull)
+                    .toList();
+            synchronized (this) {
+                Set<Long> currentIds = new HashSet<>();
+                for (IndexedSchedule indexed : current) {
+                    Long scheduleId = indexed.summary().id();
+                    currentIds.add(scheduleId);
+                    if (!writtenDuringRefresh.contains(scheduleId) && !indexed.equals(schedulesById.get(scheduleId))) {
+                        replace(indexed);
+                    }
+                }
+                schedulesById.keySet().stream()
+                        .filter(scheduleId -> !currentIds.contains(scheduleId) && !writtenDuringRefresh.contains(scheduleId))
+                        .toList()
+                        .forEach(this::remove);
+                schedulesByKey.values().removeIf(Set::isEmpty);
+                ready = true;
+            }
+        } finally {
+            refreshing = false;
+        }
+    }
+
+    /**
+     * Returns the indexed schedules for a route and date, or empty when the index cannot answer
+     * (not built yet, or a date before today, which it no longer holds) and the caller must query the
+     * database. A route and date from today on without indexed schedules has none: an empty list.
+     */
+    public Optional<List<ScheduleResponse>> find(String origin, String destination, LocalDate departureDate) {
+        if (!covers(departureDate)) {
+            return Optional.empty();
+        }
+        NavigableSet<ScheduleResponse> schedules = schedulesByKey.get(SearchKey.of(origin, destination, departureDate));
+        return Optional.of(schedules == null ? List.of() : new ArrayList<>(schedules));
+    }
+
+    // Built, and the date is within what refresh() loads.
+    private boolean covers(LocalDate departureDate) {
+        return ready && !departureDate.isBefore(LocalDate.now());
+    }
+
+    /**
+     * As find(), one page of at most limit schedules, in departure order after the (afterTime, afterId)
+     * key. An exhausted key, or one without schedules, yields an empty page, not a fallback to the database.
+     */
+    public Optional<List<ScheduleResponse>> findPage(String origin, String destination, LocalDate departureDate,
+                                                     LocalDateTime afterTime, long afterId, int limit) {
+        if (!covers(departureDate)) {
+            return Optional.empty();
+        }
+        NavigableSet<ScheduleResponse> schedules = schedulesByKey.get(SearchKey.of(origin, destination, departureDate));
+        if (schedules == null) {
+            return Optional.of(List.of());
+        }
+        ScheduleResponse after = new ScheduleResponse(afterId, null, afterTime, null, null, null, null, null);
+        return Optional.of(schedules.tailSet(after, false).stream().limit(limit).toList());
+    }
+
+    /**
+     * The route graph of the indexed schedules, or empty until the index is built. Unlike find(), there
+     * is no database fallback for a graph walk, so callers must not search without it.
+     */
+    Optional<RouteGraph> routeGraph() {
+        return ready ? Optional.of(routeGraph) : Optional.empty();
+    }
+
+    /**
+     * Daily fare aggregates of a route for the dates in [from, to] that have schedules, in date order,
+     * or empty until the index is built.
+     */
+    Optional<List<FareCalendar.DayFares>> fareCalendar(String origin, String destination, LocalDate from, LocalDate to) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        return Optional.of(new ArrayList<>(fareCalendar.days(origin.toUpperCase(Locale.ROOT),
+                destination.toUpperCase(Locale.ROOT), from, to).values()));
+    }
+
+    /**
+     * Adds or replaces a schedule. The flight and plane must be loaded.
+     */
+    public synchronized void put(Schedule schedule) {
+        apply(schedule.getScheduleId(), toIndexed(schedule));
+    }
+
+    /**
+     * Adds or replaces the schedule once the current transaction commits.
+     */
+    public void putOnCommit(Schedule schedule) {
+        // Convert now, while the lazy flight and plane are still attached to the session.
+        Long scheduleId = schedule.getScheduleId();
+        IndexedSchedule indexed = toIndexed(schedule);
+        runAfterCommit(() -> {
+            synchronized (this) {
+                apply(scheduleId, indexed);
+            }
+        });
+    }
+
+    /**
+     * Adds or replaces all given schedules once the current transaction commits.
+     */
+    public void putAllOnCommit(List<Schedule> schedules) {
+        List<IndexedSchedule> indexed = schedules.stream().map(this::toIndexed).toList();
+        runAfterCommit(() -> {
+            synchronized (this) {
+                for (int i = 0; i < indexed.size(); i++) {
+                    apply(schedules.get(i).getScheduleId(), indexed.get(i));
+                }
+            }
+        });
+    }
+
+    /**
+     * Swaps the flight details (e.g. after a plane reassignment) into every indexed schedule of the flight.
+     * Scans all indexed schedules; this only runs on admin writes.
+     */
+    public void updateFlightOnCommit(FlightResponse flight) {
+        runAfterCommit(() -> {
+            synchronized (this) {
+                schedulesById.values().stream()
+                        .filter(indexed -> indexed.summary().flight().id().equals(flight.id()))
+                        .toList()
+                        .forEach(indexed -> {
+                            written(indexed.summary().id());
+                            replace(new IndexedSchedule(indexed.key(), withFlight(indexed.summary(), flight), indexed.soldOut()));
+                        });
+            }
+        });
+    }
+
+    /**
+     * Marks the schedule as sold out once the current transaction commits, taking it out of the
+     * lowest fare of its day.
+     */
+    public void markSoldOutOnCommit(Long scheduleId) {
+        runAfterCommit(() -> {
+            synchronized (this) {
+                IndexedSchedule indexed = schedulesById.get(scheduleId);
+                if (indexed != null && !indexed.soldOut()) {
+                    written(scheduleId);
+                    replace(new IndexedSchedule(indexed.key(), indexed.summary(), true));
+                }
+            }
+        });
+    }
+
+    private IndexedSchedule toIndexed(Schedule schedule) {
+        if (!SCHEDULED.equals(schedule.getStatus())) {
+            return null;
+        }
+        Flight flight = schedule.getFlight();
+        SearchKey key = SearchKey.of(flight.getDepartureAirport(), flight.getArrivalAirport(),
+                schedule.getDepartureTime().toLocalDate());
+        boolean soldOut = schedule.getSeatInventory() != null
+                && schedule.getSeatInventory().count(SeatState.AVAILABLE) == 0;
+        return new IndexedSchedule(key, converter.toScheduleSummary(schedule), soldOut);
+    }
+
+    private void apply(Long scheduleId, IndexedSchedule indexed) {
+        written(scheduleId);
+        if (indexed == null) {
+            remove(scheduleId);
+        } else {
+            replace(indexed);
+        }
+    }
+
+    private void written(Long scheduleId) {
+        if (refreshing) {
+            writtenDuringRefresh.add(scheduleId);
+        }
+    }
+
+    private void replace(IndexedSchedule indexed) {
+        remove(indexed.summary().id());
+        schedulesById.put(indexed.summary().id(), indexed);
+        schedulesByKey.computeIfAbsent(indexed.key(), key -> new ConcurrentSkipListSet<>(BY_DEPARTURE))
+                .add(indexed.summary());
+        routeGraph.add(indexed.key().origin(), indexed.key().destination(), indexed.summary());
+        fareCalendar.put(indexed.summary().id(), indexed.key().origin(), indexed.key().destination(),
+                indexed.key().departureDate(), indexed.summary().basePrice(), indexed.soldOut());
+    }
+
+    private void remove(Long scheduleId) {
+        IndexedSchedule previous = schedulesById.remove(scheduleId);
+        if (previous != null) {
+            schedulesByKey.get(previous.key()).remove(previous.summary());
+            routeGraph.remove(previous.key().origin(), previous.key().destination(), previous.summary());
+            fareCalendar.remove(scheduleId);
+        }
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static ScheduleResponse withFlight(ScheduleResponse summary, FlightResponse flight) {
+        return new ScheduleResponse(summary.id(), flight, summary.departureTime(), summary.arrivalTime(),
+                summary.basePrice(), summary.status(), summary.seatStatuses(), summary.availableSeats());
+    }
+}
@@ -0,0 +1,58 @@
+package com.booking.flight.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refreshes the {@link ScheduleSearchIndex} from the database every refresh-interval-ms, so schedules
+ * written through other nodes reach this node's searches and departed dates leave the index.
+ */
+@Component
+@Slf4j
+public class ScheduleSearchIndexRefresher {
+
+    private final ScheduleSearchIndex scheduleSearchIndex;
+    private final long intervalMillis;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-index-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ScheduleSearchIndexRefresher(ScheduleSearchIndex scheduleSearchIndex,
+                                        @Value("${search.index.refresh-interval-ms:60000}") long intervalMillis) {
+        this.scheduleSearchIndex = scheduleSearchIndex;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (intervalMillis > 0) {
+            executor.scheduleWithFixedDelay(this::refresh, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void refresh() {
+        long start = System.nanoTime();
+        try {
+            scheduleSearchIndex.refresh();
+            log.debug("Schedule search index refreshed in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            // The index keeps serving what it has; the next run tries again.
+            log.warn("Failed to refresh the schedule search index: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,184 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.AdjacentSeatsRequest;
+import com.booking.flight.dto.BookingRequest;
+import com.booking.flight.dto.response.BookingResponse;
+import com.booking.flight.exception.InvalidSeatLayoutException;
+import com.booking.flight.exception.NoAdjacentSeatsException;
+import com.booking.flight.exception.ScheduleNotFoundException;
+import com.booking.flight.exception.ScheduleSoldOutException;
+import com.booking.flight.exception.SeatAlreadyReservedException;
+import com.booking.flight.models.Flight;
+import com.booking.flight.models.SeatLabels;
+import com.booking.flight.models.SeatLayout;
+import com.booking.flight.repository.ScheduleRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Best-available adjacent seats ("N together in cabin X") for planes with a {@link SeatLayout}.
+ * <p>
+ * Each schedule gets a {@link SeatBlockIndex} built once from its cached seat map and then advanced
+ * to each newer seat-map version by its changed seats only. Seats locked by in-flight bookings or
+ * holds are skipped as well, read from the schedule's lock ledger in one call.
+ * <p>
+ * The seat layout is cached with the index. A plane reassignment on this node drops the flight's
+ * entries when it commits; one made through another node is picked up when the entry expires, on the
+ * same interval as the schedule search index refresh.
+ */
+@Service
+@Slf4j
+public class SeatAllocationService {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final class ScheduleBlocks {
+        final Long flightId;
+        final SeatLayout layout;
+        SeatBlockIndex index;
+        long version;
+
+        ScheduleBlocks(Long flightId, SeatLayout layout) {
+            this.flightId = flightId;
+            this.layout = layout;
+        }
+    }
+
+    private final ScheduleRepository scheduleRepository;
+    private final FlightDetailsServiceImpl flightDetailsService;
+    private final ISeatLockService seatLockService;
+    private final BookingService bookingService;
+    private final Cache<Long, ScheduleBlocks> schedules;
+
+    public SeatAllocationService(ScheduleRepository scheduleRepository,
+                                 FlightDetailsServiceImpl flightDetailsService,
+                                 ISeatLockService seatLockService,
+                                 BookingService bookingService,
+                                 @Value("${seatmap.cache.max-entries:10000}") long maxEntries,
+                                 @Value("${search.index.refresh-interval-ms:60000}") long layoutTtlMillis) {
+        this.scheduleRepository = scheduleRepository;
+        this.flightDetailsService = flightDetailsService;
+        this.seatLockService = seatLockService;
+        this.bookingService = bookingService;
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(maxEntries);
+        // 0 = the search index is only built at startup; layouts then only change through this node
+        if (layoutTtlMillis > 0) {
+            builder.expireAfterWrite(Duration.ofMillis(layoutTtlMillis));
+        }
+        this.schedules = builder.build();
+    }
+
+    /**
+     * Books seatCount adjacent seats chosen by the server. If a concurrent booking takes the chosen seats
+     * first, other seats are chosen, up to MAX_ATTEMPTS times.
+     */
+    public List<BookingResponse> bookTogether(AdjacentSeatsRequest request) {
+        Set<String> taken = new HashSet<>();
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            List<String> seats = findAdjacentSeats(request.scheduleId(), request.seatCount(), request.cabin(), taken);
+            try {
+                return bookingService.createBookings(new BookingRequest(request.scheduleId(), seats, request.userId()));
+            } catch (ScheduleSoldOutException e) {
+                throw e;
+            } catch (SeatAlreadyReservedException e) {
+                log.info("Adjacent seats {} on Schedule ID {} were taken concurrently (attempt {})",
+                        seats, request.scheduleId(), attempt);
+                taken.addAll(seats);
+            }
+        }
+        throw new NoAdjacentSeatsException(request.scheduleId(), request.seatCount(), request.cabin());
+    }
+
+    /**
+     * Labels of the best block of seatCount adjacent free seats: the front-most row segment (of the cabin,
+     * if given) that fits the block, in its smallest fitting run. Skips locked seats and the given labels.
+     */
+    public List<String> findAdjacentSeats(Long scheduleId, int seatCount, String cabin, Set<String> excluded) {
+        SeatMapCache.VersionedSeatMap seatMap;
+        try {
+            seatMap = flightDetailsService.getScheduleSeats(scheduleId);
+        } catch (IllegalArgumentException e) {
+            throw new ScheduleNotFoundException(scheduleId);
+        }
+        ScheduleBlocks blocks = schedules.get(scheduleId, this::loadLayout);
+        if (blocks.layout.seatCount() != seatMap.inventory().seatCount()) {
+            // The schedule's plane was replaced by one with another layout
+            schedules.invalidate(scheduleId);
+            blocks = schedules.get(scheduleId, this::loadLayout);
+        }
+        int[] segments = blocks.layout.segmentRange(cabin);
+        if (segments == null) {
+            throw new InvalidSeatLayoutException("Schedule " + scheduleId + " has no cabin " + cabin);
+        }
+
+        Set<Integer> blocked = new HashSet<>();
+        for (String seat : seatLockService.lockedSeats(scheduleId)) {
+            blocked.add(SeatLabels.indexOf(seat, blocks.layout.seatCount()));
+        }
+        for (String seat : excluded) {
+            blocked.add(SeatLabels.indexOf(seat, blocks.layout.seatCount()));
+        }
+
+        int[] block;
+        synchronized (blocks) {
+            if (blocks.index == null) {
+                blocks.index = new SeatBlockIndex(blocks.layout, seatMap.inventory());
+            } else if (blocks.version != seatMap.version()) {
+                blocks.index.update(seatMap.inventory());
+            }
+            blocks.version = seatMap.version();
+            block = blocks.index.allocate(seatCount, segments[0], segments[1], blocked::contains);
+        }
+        if (block == null) {
+            throw new NoAdjacentSeatsException(scheduleId, seatCount, cabin);
+        }
+
+        List<String> labels = new ArrayList<>(block.length);
+        for (int seatIndex : block) {
+            labels.add(SeatLabels.label(seatIndex));
+        }
+        log.debug("Allocated adjacent seats {} on Schedule ID {}", labels, scheduleId);
+        return labels;
+    }
+
+    /**
+     * Drops the cached layouts of the flight's schedules once the current transaction commits, e.g. after
+     * its plane was replaced by one with the same number of seats in another layout.
+     * Scans all cached schedules; this only runs on admin writes.
+     */
+    public void invalidateFlightOnCommit(Long flightId) {
+        Runnable invalidate = () -> schedules.asMap().values().removeIf(blocks -> blocks.flightId.equals(flightId));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate.run();
+            }
+        });
+    }
+
+    private ScheduleBlocks loadLayout(Long scheduleId) {
+        Flight flight = scheduleRepository.findByIdWithFlightDetails(scheduleId)
+                .orElseThrow(() -> new ScheduleNotFoundException(scheduleId))
+                .getFlight();
+        SeatLayout layout = flight.getPlane().getSeatLayout();
+        if (layout == null) {
+            throw new InvalidSeatLayoutException("The plane of schedule " + scheduleId + " has no seat layout");
+        }
+        return new ScheduleBlocks(flight.getFlightId(), layout);
+    }
+}
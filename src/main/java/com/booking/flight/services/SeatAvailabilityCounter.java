@@ -0,0 +1,174 @@
+package com.booking.flight.services;
+
+import com.aerospike.client.*;
+import com.aerospike.client.Record;
+import com.aerospike.client.exp.Exp;
+import com.aerospike.client.policy.BatchWritePolicy;
+import com.aerospike.client.policy.RecordExistsAction;
+import com.aerospike.client.policy.WritePolicy;
+import com.booking.flight.config.aeroSpikeConfig.AerospikeConfiguration;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.models.SeatState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+
+/**
+ * Number of seats left per schedule, kept in one Aerospike record per schedule so availability is a
+ * single key lookup instead of a seat inventory load.
+ *
+ * MariaDB stays authoritative. The counter is written only after the database commits, so it can
+ * lag behind but never runs ahead of a booking; reconcile() resets it from the seat inventory.
+ * A missing counter (or an Aerospike failure) reads as unknown, and callers fall back to the inventory.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SeatAvailabilityCounter {
+
+    static final String AVAILABILITY_SET = "seat_availability";
+    static final String AVAILABLE_BIN = "available";
+
+    // The counter is kept until a day after departure.
+    private static final Duration RETENTION_AFTER_DEPARTURE = Duration.ofDays(1);
+
+    private final AerospikeClient aerospikeClient;
+
+    @Qualifier("aerospikeLockingPolicy")
+    private final WritePolicy aerospikeLockingPolicy;
+    private final AerospikeConfiguration aerospikeConfig;
+
+    /**
+     * Seats left on the schedule, or empty when no counter is available.
+     */
+    public OptionalInt availableSeats(Long scheduleId) {
+        try {
+            Record record = aerospikeClient.get(null, counterKey(scheduleId), AVAILABLE_BIN);
+            return record == null ? OptionalInt.empty() : OptionalInt.of(record.getInt(AVAILABLE_BIN));
+        } catch (AerospikeException e) {
+            log.warn("Failed to read the seat counter of Schedule ID {}: {}", scheduleId, e.getMessage());
+            return OptionalInt.empty();
+        }
+    }
+
+    /**
+     * Seats left per schedule, read in one batch. Schedules without a counter are absent from the result.
+     */
+    public Map<Long, Integer> availableSeats(List<Long> scheduleIds) {
+        Map<Long, Integer> available = new HashMap<>();
+        if (scheduleIds.isEmpty()) {
+            return available;
+        }
+        Key[] keys = scheduleIds.stream().map(this::counterKey).toArray(Key[]::new);
+        try {
+            Record[] records = aerospikeClient.get(null, keys, AVAILABLE_BIN);
+            for (int i = 0; i < keys.length; i++) {
+                if (records[i] != null) {
+                    available.put(scheduleIds.get(i), records[i].getInt(AVAILABLE_BIN));
+                }
+            }
+        } catch (AerospikeException e) {
+            log.warn("Failed to read the seat counters of {} schedules: {}", keys.length, e.getMessage());
+        }
+        return available;
+    }
+
+    /**
+     * Sets the counters of new schedules to their free seats once the schedules have committed.
+     */
+    public void initializeOnCommit(List<Schedule> schedules) {
+        runAfterCommit(() -> reconcile(schedules));
+    }
+
+    /**
+     * Takes the booked seats off the schedule's counter once the booking has committed.
+     * The decrement never takes the counter below zero; a counter that would go negative has drifted
+     * and is left for reconcile().
+     */
+    public void decrementOnCommit(Long scheduleId, int seats) {
+        runAfterCommit(() -> add(scheduleId, -seats));
+    }
+
+    /**
+     * Overwrites the counters with the free seats of each schedule's inventory, in one batch.
+     * Returns the number of counters written.
+     */
+    public int reconcile(List<Schedule> schedules) {
+        if (schedules.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<BatchRecord> writes = new ArrayList<>(schedules.size());
+        for (Schedule schedule : schedules) {
+            BatchWritePolicy policy = new BatchWritePolicy();
+            policy.recordExistsAction = RecordExistsAction.REPLACE;
+            policy.expiration = retentionSeconds(schedule.getDepartureTime(), now);
+            int available = schedule.getSeatInventory().count(SeatState.AVAILABLE);
+            writes.add(new BatchWrite(policy, counterKey(schedule.getScheduleId()),
+                    Operation.array(Operation.put(new Bin(AVAILABLE_BIN, available)))));
+        }
+
+        try {
+            aerospikeClient.operate(null, writes);
+        } catch (AerospikeException e) {
+            log.warn("Failed to write the seat counters of {} schedules: {}", writes.size(), e.getMessage());
+        }
+        int written = (int) writes.stream().filter(write -> write.resultCode == ResultCode.OK).count();
+        if (written < writes.size()) {
+            log.warn("{} of {} seat counters were not written", writes.size() - written, writes.size());
+        }
+        return written;
+    }
+
+    private void add(Long scheduleId, int delta) {
+        WritePolicy policy = new WritePolicy(aerospikeLockingPolicy);
+        policy.recordExistsAction = RecordExistsAction.UPDATE_ONLY;
+        policy.expiration = -2; // keep the TTL set at initialization
+        // Applies only while the result stays >= 0; otherwise the record is left untouched.
+        policy.filterExp = Exp.build(Exp.ge(Exp.add(Exp.intBin(AVAILABLE_BIN), Exp.val(delta)), Exp.val(0)));
+        try {
+            Record record = aerospikeClient.operate(policy, counterKey(scheduleId),
+                    Operation.add(new Bin(AVAILABLE_BIN, delta)), Operation.get(AVAILABLE_BIN));
+            if (record == null) {
+                log.warn("Seat counter of Schedule ID {} would go negative ({}); it needs a reconcile", scheduleId, delta);
+            }
+        } catch (AerospikeException e) {
+            // No counter (created before the counters existed, or expired) or Aerospike is down:
+            // reads fall back to the seat inventory until the next reconcile.
+            log.warn("Failed to update the seat counter of Schedule ID {} by {}: {}", scheduleId, delta, e.getMessage());
+        }
+    }
+
+    private Key counterKey(Long scheduleId) {
+        return new Key(aerospikeConfig.getNamespace(), AVAILABILITY_SET, String.valueOf(scheduleId));
+    }
+
+    static int retentionSeconds(LocalDateTime departureTime, LocalDateTime now) {
+        long seconds = Duration.between(now, departureTime).plus(RETENTION_AFTER_DEPARTURE).getSeconds();
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(RETENTION_AFTER_DEPARTURE.getSeconds(), seconds));
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,151 @@
+package com.booking.flight.services;
+
+import com.booking.flight.models.SeatInventory;
+import com.booking.flight.models.SeatLayout;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Free-run index of one schedule for adjacent-seat allocation. For every row segment (seats between
+ * aisles) it keeps the longest run of AVAILABLE seats, and over the segments a max segment tree, so the
+ * first segment in preference order that can seat N together is found in O(log segments).
+ * <p>
+ * Applying a new seat inventory only recomputes the segments whose seats changed (found by comparing the
+ * packed inventories byte by byte). Not thread-safe: callers serialize access per schedule.
+ */
+final class SeatBlockIndex {
+
+    private final SeatLayout layout;
+    private final int leaves;
+    private final int[] tree;
+    private SeatInventory inventory;
+    private byte[] encoded;
+
+    SeatBlockIndex(SeatLayout layout, SeatInventory inventory) {
+        this.layout = layout;
+        int size = 1;
+        while (size < layout.segmentCount()) {
+            size <<= 1;
+        }
+        this.leaves = size;
+        this.tree = new int[2 * size];
+        this.inventory = inventory;
+        this.encoded = inventory.toBytes();
+        for (int segment = 0; segment < layout.segmentCount(); segment++) {
+            tree[leaves + segment] = longestFreeRun(segment);
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Brings the index up to date with a newer inventory of the same schedule.
+     */
+    void update(SeatInventory newInventory) {
+        byte[] newEncoded = newInventory.toBytes();
+        this.inventory = newInventory;
+        int lastSegment = -1;
+        for (int i = SeatInventory.HEADER_BYTES; i < newEncoded.length; i++) {
+            if (newEncoded[i] == encoded[i]) {
+                continue;
+            }
+            int seatsPerByte = 8 / SeatInventory.BITS_PER_SEAT;
+            int firstSeat = (i - SeatInventory.HEADER_BYTES) * seatsPerByte;
+            int lastSeat = Math.min(firstSeat + seatsPerByte, layout.seatCount()) - 1;
+            for (int segment = layout.segmentOf(firstSeat); segment <= layout.segmentOf(lastSeat); segment++) {
+                if (segment != lastSegment) {
+                    set(segment, longestFreeRun(segment));
+                    lastSegment = segment;
+                }
+            }
+        }
+        this.encoded = newEncoded;
+    }
+
+    /**
+     * Finds count adjacent available seats in segments [fromSegment, toSegment), skipping seats for which
+     * blocked is true (e.g. locked but not yet booked). Returns the seat indices of the block in the first
+     * segment in preference order that fits it, placed in that segment's smallest fitting run; null if none.
+     */
+    int[] allocate(int count, int fromSegment, int toSegment, IntPredicate blocked) {
+        int from = fromSegment;
+        while (from < toSegment) {
+            int segment = firstFitting(1, 0, leaves, from, toSegment, count);
+            if (segment < 0) {
+                return null;
+            }
+            int start = bestFitStart(segment, count, blocked);
+            if (start >= 0) {
+                int[] block = new int[count];
+                for (int i = 0; i < count; i++) {
+                    block[i] = start + i;
+                }
+                return block;
+            }
+            // Only blocked seats made this segment fit on paper; keep looking after it.
+            from = segment + 1;
+        }
+        return null;
+    }
+
+    int longestRun(int segment) {
+        return tree[leaves + segment];
+    }
+
+    private int firstFitting(int node, int nodeFrom, int nodeTo, int from, int to, int count) {
+        if (nodeTo <= from || nodeFrom >= to || tree[node] < count) {
+            return -1;
+        }
+        if (node >= leaves) {
+            return node - leaves;
+        }
+        int middle = (nodeFrom + nodeTo) >>> 1;
+        int left = firstFitting(2 * node, nodeFrom, middle, from, to, count);
+        return left >= 0 ? left : firstFitting(2 * node + 1, middle, nodeTo, from, to, count);
+    }
+
+    private void set(int segment, int longestRun) {
+        int node = leaves + segment;
+        tree[node] = longestRun;
+        for (node >>= 1; node > 0; node >>= 1) {
+            tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    private int longestFreeRun(int segment) {
+        int longest = 0;
+        int run = 0;
+        int start = layout.segmentStart(segment);
+        for (int seat = start; seat < start + layout.segmentWidth(segment); seat++) {
+            run = inventory.isAvailable(seat) ? run + 1 : 0;
+            longest = Math.max(longest, run);
+        }
+        return longest;
+    }
+
+    /**
+     * Start of the smallest free run of the segment that holds count seats (ties: leftmost), or -1.
+     * Best fit keeps larger runs whole for later groups.
+     */
+    private int bestFitStart(int segment, int count, IntPredicate blocked) {
+        int start = layout.segmentStart(segment);
+        int end = start + layout.segmentWidth(segment);
+        int bestStart = -1;
+        int bestLength = Integer.MAX_VALUE;
+        int runStart = start;
+        for (int seat = start; seat <= end; seat++) {
+            boolean free = seat < end && inventory.isAvailable(seat) && !blocked.test(seat);
+            if (free) {
+                continue;
+            }
+            int length = seat - runStart;
+            if (length >= count && length < bestLength) {
+                bestStart = runStart;
+                bestLength = length;
+            }
+            runStart = seat + 1;
+        }
+        return bestStart;
+    }
+}
@@ -0,0 +1,203 @@
+package com.booking.flight.services;
+
+import com.aerospike.client.*;
+import com.aerospike.client.Record;
+import com.aerospike.client.cdt.MapOperation;
+import com.aerospike.client.cdt.MapReturnType;
+import com.aerospike.client.policy.RecordExistsAction;
+import com.aerospike.client.policy.WritePolicy;
+import com.booking.flight.config.aeroSpikeConfig.AerospikeConfiguration;
+import com.booking.flight.dto.BookingRequest;
+import com.booking.flight.dto.response.BookingResponse;
+import com.booking.flight.dto.response.HoldResponse;
+import com.booking.flight.exception.AerospikeLockFailureException;
+import com.booking.flight.exception.HoldExpiredException;
+import com.booking.flight.exception.HoldNotFoundException;
+import com.booking.flight.models.Booking;
+import com.booking.flight.models.Schedule;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Two-phase booking: a hold takes leases on the seats for the payment window, and confirming it
+ * persists the booking. Nothing has to clean up after an abandoned hold: its ledger entries are
+ * purged by the next acquire after the lease expires, and the hold record carries the same TTL.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatHoldService {
+
+    static final String HOLD_SET = "seat_holds";
+    static final String SCHEDULE_ID_BIN = "schedule_id";
+    static final String USER_ID_BIN = "user_id";
+    static final String SEATS_BIN = "seats";
+    static final String EXPIRES_AT_BIN = "expires_at";
+
+    private final AerospikeClient aerospikeClient;
+
+    @Qualifier("aerospikeLockingPolicy")
+    private final WritePolicy aerospikeLockingPolicy;
+    private final AerospikeConfiguration aerospikeConfig;
+    private final BookingService bookingService;
+
+    private record Hold(String holdId, Long scheduleId, Long userId, List<String> seatNumbers, long expiresAtMillis) {
+    }
+
+    public HoldResponse createHold(BookingRequest request) {
+        log.info("Placing hold on {} seats of Schedule ID {} for User ID {}",
+                request.seatNumbers().size(), request.scheduleId(), request.userId());
+
+        // Reject sold-out schedules, unknown or already BOOKED seats before taking any lease.
+        bookingService.checkSeatsLeft(request);
+        Schedule schedule = bookingService.loadSchedule(request.scheduleId());
+        bookingService.prevalidate(schedule, request.seatNumbers());
+
+        String holdId = UUID.randomUUID().toString();
+        long expiresAt = AerospikeSeatLockService.leaseExpiry(aerospikeConfig.getHoldTtlSeconds());
+        Hold hold = new Hold(holdId, request.scheduleId(), request.userId(), request.seatNumbers(), expiresAt);
+        Key ledgerKey = AerospikeSeatLockService.ledgerKey(aerospikeConfig, hold.scheduleId());
+
+        try {
+            aerospikeClient.operate(aerospikeLockingPolicy, ledgerKey,
+                    AerospikeSeatLockService.acquireOperations(hold.seatNumbers(), holdId, expiresAt));
+        } catch (AerospikeException e) {
+            RuntimeException failure = AerospikeSeatLockService.translateAcquireFailure(hold.scheduleId(), hold.seatNumbers(), e);
+            if (e.getInDoubt()) {
+                releaseLeases(hold);
+            }
+            throw failure;
+        }
+
+        try {
+            aerospikeClient.put(holdRecordPolicy(), holdKey(holdId),
+                    new Bin(SCHEDULE_ID_BIN, hold.scheduleId()),
+                    new Bin(USER_ID_BIN, hold.userId()),
+                    new Bin(SEATS_BIN, hold.seatNumbers()),
+                    new Bin(EXPIRES_AT_BIN, expiresAt));
+        } catch (AerospikeException e) {
+            log.error("Failed to store hold {}; releasing its seat leases. Error: {}", holdId, e.getMessage(), e);
+            releaseLeases(hold);
+            throw new AerospikeLockFailureException("Aerospike failure while storing the seat hold.", e);
+        }
+
+        log.info("Hold {} placed on seats {} of Schedule ID {} until {}", holdId, hold.seatNumbers(), hold.scheduleId(), expiresAt);
+        return new HoldResponse(holdId, hold.scheduleId(), hold.userId(), hold.seatNumbers(), toDateTime(expiresAt));
+    }
+
+    /**
+     * Persists the booking of a live hold. The leases and the hold record are released once the
+     * booking has committed; if it rolls back, the hold stays valid and can be confirmed again.
+     */
+    @Transactional
+    public List<BookingResponse> confirmHold(String holdId) {
+        Hold hold = readHold(holdId);
+        verifyLeases(hold);
+
+        BookingRequest request = new BookingRequest(hold.scheduleId(), hold.seatNumbers(), hold.userId());
+        Schedule schedule = bookingService.loadSchedule(hold.scheduleId());
+        int[] seatIndices = bookingService.resolveSeatIndices(schedule, hold.seatNumbers());
+        // Re-checks the seats under the schedule row lock, so a confirm racing the lease expiry cannot double-book.
+        List<Booking> savedBookings = bookingService.persistBookings(schedule, request, seatIndices);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(hold);
+            }
+        });
+        log.info("Hold {} confirmed: {} bookings for Schedule ID {}", holdId, savedBookings.size(), hold.scheduleId());
+        return BookingService.toResponses(savedBookings);
+    }
+
+    public void releaseHold(String holdId) {
+        release(readHold(holdId));
+        log.info("Hold {} released", holdId);
+    }
+
+    private Hold readHold(String holdId) {
+        Record record = aerospikeClient.get(null, holdKey(holdId));
+        if (record == null) {
+            throw new HoldNotFoundException(holdId);
+        }
+        @SuppressWarnings("unchecked")
+        List<String> seatNumbers = (List<String>) record.getList(SEATS_BIN);
+        return new Hold(holdId, record.getLong(SCHEDULE_ID_BIN), record.getLong(USER_ID_BIN),
+                seatNumbers, record.getLong(EXPIRES_AT_BIN));
+    }
+
+    /**
+     * A hold is live while its expiry is ahead and every seat still carries its lease.
+     * (The record TTL alone is not enough: expired records may be read until the server evicts them.)
+     */
+    private void verifyLeases(Hold hold) {
+        if (hold.expiresAtMillis() <= System.currentTimeMillis()) {
+            throw new HoldExpiredException(hold.holdId());
+        }
+        List<Value> seatKeys = hold.seatNumbers().stream().map(Value::get).map(Value.class::cast).toList();
+        Record ledger;
+        try {
+            ledger = aerospikeClient.operate(null, AerospikeSeatLockService.ledgerKey(aerospikeConfig, hold.scheduleId()),
+                    MapOperation.getByKeyList(AerospikeSeatLockService.SEAT_LOCK_BIN, seatKeys, MapReturnType.VALUE));
+        } catch (AerospikeException e) {
+            if (e.getResultCode() == ResultCode.KEY_NOT_FOUND_ERROR) {
+                throw new HoldExpiredException(hold.holdId());
+            }
+            throw new AerospikeLockFailureException("Aerospike failure while checking the seat hold.", e);
+        }
+        List<?> leases = ledger == null ? List.of() : ledger.getList(AerospikeSeatLockService.SEAT_LOCK_BIN);
+        List<Object> ownLease = List.of(hold.expiresAtMillis(), hold.holdId());
+        if (leases.size() != hold.seatNumbers().size() || !leases.stream().allMatch(ownLease::equals)) {
+            throw new HoldExpiredException(hold.holdId());
+        }
+    }
+
+    private void release(Hold hold) {
+        releaseLeases(hold);
+        try {
+            aerospikeClient.delete(null, holdKey(hold.holdId()));
+        } catch (AerospikeException e) {
+            // The record expires with its TTL anyway.
+            log.warn("Failed to delete hold {}: {}", hold.holdId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Removes the hold's own ledger entries only: matching on the full lease value leaves alone any
+     * seat that was re-locked by someone else after this hold expired.
+     */
+    private void releaseLeases(Hold hold) {
+        try {
+            aerospikeClient.operate(aerospikeLockingPolicy, AerospikeSeatLockService.ledgerKey(aerospikeConfig, hold.scheduleId()),
+                    AerospikeSeatLockService.releaseOperation(hold.holdId(), hold.expiresAtMillis()));
+        } catch (AerospikeException e) {
+            AerospikeSeatLockService.logReleaseFailure(hold.scheduleId(), hold.seatNumbers(), e);
+        }
+    }
+
+    private WritePolicy holdRecordPolicy() {
+        WritePolicy policy = new WritePolicy(aerospikeLockingPolicy);
+        policy.recordExistsAction = RecordExistsAction.CREATE_ONLY;
+        policy.expiration = aerospikeConfig.getHoldTtlSeconds();
+        return policy;
+    }
+
+    private Key holdKey(String holdId) {
+        return new Key(aerospikeConfig.getNamespace(), HOLD_SET, holdId);
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
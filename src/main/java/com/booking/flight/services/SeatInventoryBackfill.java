@@ -0,0 +1,88 @@
+package com.booking.flight.services;
+
+import com.booking.flight.models.SeatInventory;
+import com.booking.flight.models.SeatLabels;
+import com.booking.flight.models.SeatState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fills schedule.seat_inventory for schedules created before the packed inventory column existed.
+ * ddl-auto=update adds the NOT NULL column with an empty value on existing rows, which cannot be decoded.
+ * <p>
+ * Runs on startup, before the search index is built, and does nothing once every row has an inventory.
+ * A seat is BOOKED if the old schedule_seat_status table (when it is still there) says so or it has a
+ * CONFIRMED booking; every other seat starts AVAILABLE.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class SeatInventoryBackfill implements ApplicationRunner {
+
+    private static final String FIND_MISSING =
+            "SELECT s.schedule_id, p.total_seats FROM schedule s " +
+            "JOIN flight f ON f.flight_id = s.flight_id JOIN plane p ON p.plane_id = f.plane_id " +
+            "WHERE s.seat_inventory IS NULL OR LENGTH(s.seat_inventory) < " + SeatInventory.HEADER_BYTES;
+    private static final String LEGACY_TABLE_EXISTS =
+            "SELECT COUNT(*) FROM information_schema.tables " +
+            "WHERE table_schema = DATABASE() AND table_name = 'schedule_seat_status'";
+    private static final String LEGACY_BOOKED_SEATS =
+            "SELECT seat_number FROM schedule_seat_status WHERE schedule_id = ? AND status = 'BOOKED'";
+    private static final String CONFIRMED_SEATS =
+            "SELECT seat_number FROM booking WHERE schedule_id = ? AND status = 'CONFIRMED'";
+    private static final String UPDATE_INVENTORY = "UPDATE schedule SET seat_inventory = ? WHERE schedule_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private record Missing(long scheduleId, int totalSeats) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Missing> missing = jdbcTemplate.query(FIND_MISSING,
+                (rs, rowNum) -> new Missing(rs.getLong(1), rs.getInt(2)));
+        if (missing.isEmpty()) {
+            return;
+        }
+        boolean legacyTable = jdbcTemplate.queryForObject(LEGACY_TABLE_EXISTS, Integer.class) > 0;
+        log.info("Backfilling the seat inventory of {} schedules (schedule_seat_status {})", missing.size(),
+                legacyTable ? "found" : "not found");
+
+        List<Object[]> updates = new ArrayList<>(missing.size());
+        for (Missing schedule : missing) {
+            Set<String> bookedSeats = new LinkedHashSet<>(
+                    jdbcTemplate.queryForList(CONFIRMED_SEATS, String.class, schedule.scheduleId()));
+            if (legacyTable) {
+                bookedSeats.addAll(jdbcTemplate.queryForList(LEGACY_BOOKED_SEATS, String.class, schedule.scheduleId()));
+            }
+            updates.add(new Object[]{inventory(schedule, bookedSeats).toBytes(), schedule.scheduleId()});
+        }
+        jdbcTemplate.batchUpdate(UPDATE_INVENTORY, updates);
+        log.info("Backfilled the seat inventory of {} schedules", updates.size());
+    }
+
+    private static SeatInventory inventory(Missing schedule, Set<String> bookedSeats) {
+        int[] seatIndices = bookedSeats.stream()
+                .mapToInt(seat -> SeatLabels.indexOf(seat, schedule.totalSeats()))
+                .filter(index -> index >= 0)
+                .distinct()
+                .toArray();
+        if (seatIndices.length < bookedSeats.size()) {
+            log.warn("Schedule ID {}: ignored {} booked seats that do not exist on its plane",
+                    schedule.scheduleId(), bookedSeats.size() - seatIndices.length);
+        }
+        return SeatInventory.allAvailable(schedule.totalSeats()).withState(seatIndices, SeatState.BOOKED);
+    }
+}
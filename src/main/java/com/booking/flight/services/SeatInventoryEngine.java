@@ -0,0 +1,271 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.BookingRequest;
+import com.booking.flight.dto.response.BookingResponse;
+import com.booking.flight.exception.BookingPersistenceException;
+import com.booking.flight.exception.CapacityExceededException;
+import com.booking.flight.exception.InvalidSeatException;
+import com.booking.flight.exception.SeatAlreadyReservedException;
+import com.booking.flight.metrics.BookingMetrics;
+import com.booking.flight.metrics.BookingMetrics.Phase;
+import com.booking.flight.metrics.BookingTimings;
+import com.booking.flight.models.Booking;
+import com.booking.flight.models.SeatInventory;
+import com.booking.flight.models.SeatLabels;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-writer seat inventory for hot schedules (booking.engine.enabled=true).
+ * <p>
+ * Each schedule is owned by one partition thread, which keeps its taken seats in memory and
+ * applies booking commands one at a time, without locks. A request for a seat that is already
+ * taken is rejected on that thread, without touching Aerospike or MariaDB. Accepted seats are
+ * persisted on bookingPersistenceExecutor; if that fails they are handed back to the partition.
+ * <p>
+ * Accepted seats still take leases in the Aerospike lock ledger before they are persisted, so seats
+ * held through holds, write-behind or /together bookings are not sold; a ledger conflict hands the
+ * seats back like any other persistence failure.
+ * <p>
+ * MariaDB stays the source of truth: persistence re-reads the seat inventory under a row lock,
+ * so bookings made by other nodes are still caught, after which the schedule is reloaded.
+ * Schedules with no booking for booking.engine.idle-eviction-seconds are dropped from memory.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "booking.engine.enabled", havingValue = "true")
+public class SeatInventoryEngine {
+
+    /**
+     * Seats taken on one schedule: BOOKED in MariaDB, or accepted and being persisted.
+     * Mutated only by the owning partition thread.
+     */
+    private static final class ScheduleSeats {
+        final int seatCount;
+        final BitSet taken;
+        long lastUsedNanos = System.nanoTime();
+
+        ScheduleSeats(SeatInventory inventory) {
+            this.seatCount = inventory.seatCount();
+            this.taken = new BitSet(seatCount);
+            for (int i = 0; i < seatCount; i++) {
+                if (!inventory.isAvailable(i)) {
+                    taken.set(i);
+                }
+            }
+        }
+    }
+
+    private static final class Partition {
+        final ScheduledExecutorService thread;
+        // Written only by the partition thread; read by request threads to skip loading warm schedules.
+        final Map<Long, ScheduleSeats> schedules = new ConcurrentHashMap<>();
+
+        Partition(int index) {
+            this.thread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread worker = new Thread(runnable, "seat-engine-" + index);
+                worker.setDaemon(true);
+                return worker;
+            });
+        }
+    }
+
+    private final BookingService bookingService;
+    private final ISeatLockService seatLockService;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor bookingPersistenceExecutor;
+    private final BookingMetrics bookingMetrics;
+    private final long idleEvictionNanos;
+    private final Partition[] partitions;
+
+    public SeatInventoryEngine(BookingService bookingService,
+                               ISeatLockService seatLockService,
+                               TransactionTemplate transactionTemplate,
+                               @Qualifier("bookingPersistenceExecutor") Executor bookingPersistenceExecutor,
+                               BookingMetrics bookingMetrics,
+                               @Value("${booking.engine.partitions:0}") int partitionCount,
+                               @Value("${booking.engine.idle-eviction-seconds:600}") long idleEvictionSeconds) {
+        this.bookingService = bookingService;
+        this.seatLockService = seatLockService;
+        this.transactionTemplate = transactionTemplate;
+        this.bookingPersistenceExecutor = bookingPersistenceExecutor;
+        this.bookingMetrics = bookingMetrics;
+        this.idleEvictionNanos = TimeUnit.SECONDS.toNanos(idleEvictionSeconds);
+        int count = partitionCount > 0 ? partitionCount : Runtime.getRuntime().availableProcessors();
+        this.partitions = new Partition[count];
+        for (int i = 0; i < count; i++) {
+            partitions[i] = new Partition(i);
+            if (idleEvictionSeconds > 0) {
+                Partition partition = partitions[i];
+                // Runs on the partition thread itself, so it never races the commands it evicts from.
+                partition.thread.scheduleWithFixedDelay(() -> evictIdle(partition, System.nanoTime()),
+                        idleEvictionSeconds, idleEvictionSeconds, TimeUnit.SECONDS);
+            }
+        }
+        log.info("Seat inventory engine started with {} partitions", count);
+    }
+
+    /**
+     * Books the requested seats, recording the duration of each phase in the given timings.
+     * The availability phase covers the command on the partition thread, not its wait in the queue.
+     */
+    public CompletableFuture<List<BookingResponse>> createBookings(BookingRequest request, BookingTimings timings) {
+        log.info("Attempting engine seat booking for Schedule ID {} and {} seats by User ID {}",
+                request.scheduleId(), request.seatNumbers().size(), request.userId());
+
+        Partition partition = partitionFor(request.scheduleId());
+        // Cold schedule: load its inventory here, so the partition thread never waits on MariaDB.
+        SeatInventory loaded = partition.schedules.containsKey(request.scheduleId())
+                ? null
+                : bookingMetrics.time(Phase.SCHEDULE_LOAD, timings,
+                        () -> bookingService.loadSchedule(request.scheduleId()).getSeatInventory());
+
+        return CompletableFuture.supplyAsync(
+                        () -> bookingMetrics.time(Phase.AVAILABILITY, timings, () -> reserve(partition, request, loaded)),
+                        partition.thread)
+                .thenCompose(seatIndices -> persistAsync(partition, request, seatIndices, timings))
+                .whenComplete((bookings, failure) -> {
+                    if (failure != null) {
+                        bookingMetrics.recordFailure(failure);
+                    }
+                });
+    }
+
+    /**
+     * Runs on the partition thread: takes all requested seats, or none.
+     */
+    private int[] reserve(Partition partition, BookingRequest request, SeatInventory loaded) {
+        ScheduleSeats seats = partition.schedules.computeIfAbsent(request.scheduleId(), id -> new ScheduleSeats(
+                // Only null if the schedule was dropped for reloading after the request thread checked;
+                // rare enough to load here.
+                loaded != null ? loaded : bookingService.loadSchedule(id).getSeatInventory()));
+
+        List<String> seatNumbers = request.seatNumbers();
+        if (seatNumbers.size() > seats.seatCount) {
+            throw new CapacityExceededException("Requested seats exceed plane capacity.", new RuntimeException());
+        }
+        int[] seatIndices = new int[seatNumbers.size()];
+        BitSet requested = new BitSet(seats.seatCount);
+        for (int i = 0; i < seatIndices.length; i++) {
+            seatIndices[i] = SeatLabels.indexOf(seatNumbers.get(i), seats.seatCount);
+            if (seatIndices[i] < 0) {
+                throw new InvalidSeatException(seatNumbers.get(i), request.scheduleId());
+            }
+            if (requested.get(seatIndices[i])) {
+                throw InvalidSeatException.duplicate(seatNumbers.get(i), request.scheduleId());
+            }
+            requested.set(seatIndices[i]);
+            if (seats.taken.get(seatIndices[i])) {
+                throw new SeatAlreadyReservedException("Seat " + seatNumbers.get(i) + " is already booked or being booked.");
+            }
+        }
+        for (int seatIndex : seatIndices) {
+            seats.taken.set(seatIndex);
+        }
+        seats.lastUsedNanos = System.nanoTime();
+        return seatIndices;
+    }
+
+    private CompletableFuture<List<BookingResponse>> persistAsync(Partition partition, BookingRequest request,
+                                                                  int[] seatIndices, BookingTimings timings) {
+        try {
+            return CompletableFuture.supplyAsync(() -> persist(partition, request, seatIndices, timings),
+                    bookingPersistenceExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Booking persistence queue is full; handing seats back for schedule {}", request.scheduleId());
+            handBack(partition, request.scheduleId(), seatIndices, false);
+            return CompletableFuture.failedFuture(new BookingPersistenceException("Booking persistence queue is full.", e));
+        }
+    }
+
+    private List<BookingResponse> persist(Partition partition, BookingRequest request, int[] seatIndices,
+                                          BookingTimings timings) {
+        SeatLease lease;
+        try {
+            // Leased seats are held or being booked elsewhere; the in-memory copy is not stale for them.
+            lease = bookingMetrics.time(Phase.LOCK_ACQUIRE, timings,
+                    () -> seatLockService.acquireLocks(request.scheduleId(), request.seatNumbers(), request.userId()));
+        } catch (RuntimeException e) {
+            handBack(partition, request.scheduleId(), seatIndices, false);
+            throw new CompletionException(e);
+        }
+
+        try {
+            // The schedule is loaded inside the transaction so the row written back is the managed one.
+            List<Booking> savedBookings = bookingMetrics.time(Phase.PERSIST, timings, () -> transactionTemplate.execute(
+                    status -> bookingService.persistBookings(bookingService.loadSchedule(request.scheduleId()),
+                            request, seatIndices)));
+            return BookingService.toResponses(savedBookings);
+        } catch (RuntimeException e) {
+            // A seat booked behind the engine's back (another node) means the in-memory copy is stale.
+            boolean stale = e instanceof SeatAlreadyReservedException;
+            log.error("Engine booking for schedule {} failed to persist; handing seats back. Error: {}",
+                    request.scheduleId(), e.getMessage(), e);
+            handBack(partition, request.scheduleId(), seatIndices, stale);
+            throw new CompletionException(BookingService.asBookingFailure(e));
+        } finally {
+            bookingMetrics.time(Phase.LOCK_RELEASE, timings,
+                    () -> seatLockService.releaseLocks(lease));
+        }
+    }
+
+    private void handBack(Partition partition, Long scheduleId, int[] seatIndices, boolean reload) {
+        partition.thread.execute(() -> {
+            if (reload) {
+                partition.schedules.remove(scheduleId);
+                return;
+            }
+            ScheduleSeats seats = partition.schedules.get(scheduleId);
+            if (seats != null) {
+                for (int seatIndex : seatIndices) {
+                    seats.taken.clear(seatIndex);
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs on the partition thread: drops schedules with no booking since idleEvictionNanos before nowNanos.
+     * Their next request reloads them from MariaDB.
+     */
+    private void evictIdle(Partition partition, long nowNanos) {
+        partition.schedules.values().removeIf(seats -> nowNanos - seats.lastUsedNanos > idleEvictionNanos);
+    }
+
+    /**
+     * Evicts idle schedules on every partition, as the periodic sweep does.
+     */
+    void evictIdle(long nowNanos) {
+        for (Partition partition : partitions) {
+            partition.thread.execute(() -> evictIdle(partition, nowNanos));
+        }
+    }
+
+    private Partition partitionFor(Long scheduleId) {
+        return partitions[Math.floorMod(Long.hashCode(scheduleId), partitions.length)];
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Partition partition : partitions) {
+            partition.thread.shutdown();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.booking.flight.services;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Seats locked by one acquire call. The holder is unique to that call, so releasing the lease removes
+ * only ledger entries that still carry its exact value: a seat whose lease expired and was re-locked
+ * by someone else stays locked.
+ */
+public record SeatLease(Long scheduleId, List<String> seatNumbers, String holder, long expiresAtMillis) {
+
+    static SeatLease forUser(Long scheduleId, List<String> seatNumbers, Long userId, int leaseSeconds) {
+        return new SeatLease(scheduleId, seatNumbers, userId + ":" + UUID.randomUUID(),
+                AerospikeSeatLockService.leaseExpiry(leaseSeconds));
+    }
+}
@@ -0,0 +1,117 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.response.SeatMapResponse;
+import com.booking.flight.models.SeatInventory;
+import com.booking.flight.util.EntityToDtoConverter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * In-process, size-bounded cache of seat maps keyed by schedule ID.
+ * Each cached map carries a version that changes whenever the map does; it is exposed as the
+ * ETag of the seat-map endpoint so clients polling an unchanged map get a 304.
+ * Bookings made on this node write the new inventory through on commit. Bookings made on other nodes
+ * do not reach this cache, so entries also expire ttl-ms after they were written and are then reloaded.
+ * The ETag includes a hash of the seats, so an ETag issued by another node with the same version
+ * number only matches if the seats are the same.
+ */
+@Component
+@Slf4j
+public class SeatMapCache {
+
+    /**
+     * An immutable seat map and the version it was cached under, with the inventory it was built
+     * from for the binary representation. Each representation has its own ETag.
+     */
+    public record VersionedSeatMap(long version, SeatMapResponse seatMap, SeatInventory inventory) {
+        public String eTag() {
+            return "\"" + seatMap.getScheduleId() + "-" + version + "-" + contentHash() + "\"";
+        }
+
+        public String binaryETag() {
+            return "\"" + seatMap.getScheduleId() + "-" + version + "-" + contentHash() + "-bin\"";
+        }
+
+        private String contentHash() {
+            return Integer.toHexString(inventory == null ? 0 : inventory.hashCode());
+        }
+    }
+
+    private final Cache<Long, VersionedSeatMap> seatMaps;
+    private final EntityToDtoConverter converter;
+    // Versions come from one process-wide sequence, so a map reloaded after eviction never reuses an ETag.
+    private final AtomicLong versions = new AtomicLong();
+
+    public SeatMapCache(EntityToDtoConverter converter,
+                        @Value("${seatmap.cache.max-entries:10000}") long maxEntries,
+                        @Value("${seatmap.cache.ttl-ms:5000}") long ttlMillis) {
+        this.converter = converter;
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(maxEntries);
+        // 0 = entries only change through this node's bookings (single node)
+        if (ttlMillis > 0) {
+            builder.expireAfterWrite(Duration.ofMillis(ttlMillis));
+        }
+        this.seatMaps = builder.build();
+    }
+
+    /**
+     * Returns the cached seat map, loading the inventory through the given loader on a miss.
+     * Concurrent misses for the same schedule share one load.
+     */
+    public VersionedSeatMap get(Long scheduleId, Function<Long, SeatInventory> loader) {
+        return seatMaps.get(scheduleId, id -> snapshot(id, loader.apply(id)));
+    }
+
+    /**
+     * Writes the given inventory through when the current transaction commits.
+     * The entry is replaced in beforeCommit, while the booking still holds the schedule's row lock,
+     * so concurrent bookings update the cache in the same order they commit. If the transaction
+     * then rolls back, the entry is dropped and the next read reloads it.
+     */
+    public void updateOnCommit(Long scheduleId, SeatInventory inventory) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(scheduleId, inventory);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                put(scheduleId, inventory);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    invalidate(scheduleId);
+                }
+            }
+        });
+    }
+
+    public void invalidate(Long scheduleId) {
+        seatMaps.invalidate(scheduleId);
+    }
+
+    private void put(Long scheduleId, SeatInventory inventory) {
+        VersionedSeatMap seatMap = snapshot(scheduleId, inventory);
+        seatMaps.put(scheduleId, seatMap);
+        log.debug("Seat map cache updated for Schedule ID {} to version {}", scheduleId, seatMap.version());
+    }
+
+    private VersionedSeatMap snapshot(Long scheduleId, SeatInventory inventory) {
+        SeatMapResponse response = new SeatMapResponse(scheduleId,
+                Collections.unmodifiableMap(converter.toSeatStatusMap(inventory)));
+        return new VersionedSeatMap(versions.incrementAndGet(), response, inventory);
+    }
+}
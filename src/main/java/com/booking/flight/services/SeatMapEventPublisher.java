@@ -0,0 +1,353 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.response.SeatDeltaResponse;
+import com.booking.flight.models.SeatState;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans seat-map changes out to the Server-Sent Events subscribers of each schedule
+ * (GET /flights/schedules/{id}/seats/stream).
+ * <p>
+ * A subscriber first gets a "snapshot" event with the cached seat map, then a "delta" event per
+ * change. Snapshots and deltas are built on the publishing thread (each delta serialized once for
+ * every subscriber of the schedule) and queued per subscriber; a small sender pool writes them out.
+ * A subscriber whose queue fills up is too slow to keep up and is dropped, so it can reconnect for a
+ * fresh snapshot; bookings and other subscribers never wait for it. A write that blocks longer than
+ * the write timeout (a client that stopped reading) drops its subscriber too and frees the sender
+ * thread, so a few stuck clients cannot hold up the streams of everyone else.
+ * <p>
+ * Deltas are idempotent (they carry the new status of each seat), so a delta that is already part
+ * of a subscriber's snapshot does no harm.
+ */
+@Component
+@Slf4j
+public class SeatMapEventPublisher {
+
+    // Stream-only status of seats locked by a booking in progress; never stored in the seat inventory.
+    public static final String LOCKED = "LOCKED";
+
+    static final String SNAPSHOT_EVENT = "snapshot";
+    static final String DELTA_EVENT = "delta";
+
+    /**
+     * One open stream: its pending events, written in order by at most one sender thread at a time.
+     */
+    private final class Subscriber {
+        final Long scheduleId;
+        final SseEmitter emitter;
+        final BlockingDeque<Set<DataWithMediaType>> pending;
+        final AtomicBoolean draining = new AtomicBoolean();
+        // Deltas queued before the snapshot is in place wait for it.
+        volatile boolean ready;
+        // Sender thread in the middle of a write, if any; guarded by this subscriber.
+        private Thread writer;
+
+        Subscriber(Long scheduleId, SseEmitter emitter) {
+            this.scheduleId = scheduleId;
+            this.emitter = emitter;
+            this.pending = new LinkedBlockingDeque<>(queueSize);
+        }
+
+        void enqueue(Set<DataWithMediaType> event) {
+            if (!pending.offer(event)) {
+                drop();
+                return;
+            }
+            drain();
+        }
+
+        void enqueueSnapshot(Set<DataWithMediaType> snapshot) {
+            if (!pending.offerFirst(snapshot)) {
+                drop();
+                return;
+            }
+            ready = true;
+            drain();
+        }
+
+        void drain() {
+            if (ready && draining.compareAndSet(false, true)) {
+                execute(this::sendPending);
+            }
+        }
+
+        private void sendPending() {
+            try {
+                Set<DataWithMediaType> event;
+                while ((event = pending.poll()) != null) {
+                    if (!send(this, event)) {
+                        return;
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            // An event queued after the last poll but before draining was cleared
+            if (!pending.isEmpty()) {
+                drain();
+            }
+        }
+
+        private void drop() {
+            log.debug("Dropping slow seat map subscriber of Schedule ID {}", scheduleId);
+            unsubscribe(this);
+            pending.clear();
+            // The emitter may be blocked in a write; completing it must not hold up the publisher.
+            execute(emitter::complete);
+        }
+
+        private synchronized void startWrite() {
+            writer = Thread.currentThread();
+        }
+
+        // False if the write timed out meanwhile; its interrupt is then cleared from the sender thread.
+        private synchronized boolean endWrite() {
+            if (writer == Thread.currentThread()) {
+                writer = null;
+                return true;
+            }
+            Thread.interrupted();
+            return false;
+        }
+
+        // Runs on the watchdog: interrupting the sender aborts its blocked write to the response.
+        private synchronized void timeOutWrite() {
+            if (writer == null) {
+                return;
+            }
+            log.debug("Seat map subscriber of Schedule ID {} did not take an event within {} ms",
+                    scheduleId, writeTimeoutMillis);
+            writer.interrupt();
+            writer = null;
+            drop();
+        }
+    }
+
+    private final FlightDetailsServiceImpl flightService;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final int queueSize;
+    private final long writeTimeoutMillis;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders;
+    private final ScheduledThreadPoolExecutor watchdog;
+
+    public SeatMapEventPublisher(FlightDetailsServiceImpl flightService, ObjectMapper objectMapper,
+                                 @Value("${seatmap.stream.timeout-ms:1800000}") long timeoutMillis,
+                                 @Value("${seatmap.stream.sender-threads:4}") int senderThreads,
+                                 @Value("${seatmap.stream.subscriber-queue:64}") int queueSize,
+                                 @Value("${seatmap.stream.write-timeout-ms:5000}") long writeTimeoutMillis) {
+        this.flightService = flightService;
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeoutMillis;
+        this.queueSize = queueSize;
+        this.writeTimeoutMillis = writeTimeoutMillis;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "seatmap-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchdog = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "seatmap-stream-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Almost every write finishes in time; its cancelled timeout must not linger in the queue.
+        watchdog.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Opens a stream for the schedule. The snapshot is read here, from the seat map cache.
+     */
+    public SseEmitter subscribe(Long scheduleId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        subscribe(scheduleId, emitter);
+        return emitter;
+    }
+
+    void subscribe(Long scheduleId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(scheduleId, emitter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        // Registered before the snapshot is read: every change after this point is queued behind the
+        // snapshot, and every earlier one is already in the cached map.
+        subscribers.compute(scheduleId, (id, registered) -> {
+            Set<Subscriber> updated = registered != null ? registered : ConcurrentHashMap.newKeySet();
+            updated.add(subscriber);
+            return updated;
+        });
+        try {
+            SeatMapCache.VersionedSeatMap seatMap = flightService.getScheduleSeats(scheduleId);
+            subscriber.enqueueSnapshot(SseEmitter.event()
+                    .name(SNAPSHOT_EVENT)
+                    .data(seatMap.seatMap(), MediaType.APPLICATION_JSON)
+                    .build());
+        } catch (RuntimeException e) {
+            log.warn("Failed to read the seat map snapshot of Schedule ID {}: {}", scheduleId, e.getMessage());
+            unsubscribe(subscriber);
+            emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * Publishes the new status of the given seats to the schedule's subscribers.
+     */
+    public void publish(Long scheduleId, List<String> seatNumbers, String status) {
+        if (!subscribers.containsKey(scheduleId)) {
+            return;
+        }
+        Map<String, String> seatStatuses = new LinkedHashMap<>();
+        for (String seatNumber : seatNumbers) {
+            seatStatuses.put(seatNumber, status);
+        }
+        fanOut(scheduleId, seatStatuses);
+    }
+
+    /**
+     * Publishes the new status of the given seats once the current transaction commits.
+     */
+    public void publishOnCommit(Long scheduleId, List<String> seatNumbers, String status) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(scheduleId, seatNumbers, status);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(scheduleId, seatNumbers, status);
+            }
+        });
+    }
+
+    /**
+     * Publishes seats whose locks were released without booking them. Their status is taken from
+     * the cached seat map rather than assumed AVAILABLE: a failed booking may have lost them to
+     * another booking that committed first.
+     */
+    public void publishReleased(Long scheduleId, List<String> seatNumbers) {
+        if (!subscribers.containsKey(scheduleId)) {
+            return;
+        }
+        Map<String, String> current;
+        try {
+            current = flightService.getScheduleSeats(scheduleId).seatMap().getSeatStatuses();
+        } catch (RuntimeException e) {
+            log.warn("Failed to read the seat map of Schedule ID {}: {}", scheduleId, e.getMessage());
+            return;
+        }
+        Map<String, String> seatStatuses = new LinkedHashMap<>();
+        for (String seatNumber : seatNumbers) {
+            seatStatuses.put(seatNumber, current.getOrDefault(seatNumber, SeatState.AVAILABLE.name()));
+        }
+        fanOut(scheduleId, seatStatuses);
+    }
+
+    int subscriberCount(Long scheduleId) {
+        Set<Subscriber> registered = subscribers.get(scheduleId);
+        return registered == null ? 0 : registered.size();
+    }
+
+    private void fanOut(Long scheduleId, Map<String, String> seatStatuses) {
+        Set<Subscriber> registered = subscribers.get(scheduleId);
+        if (registered == null || registered.isEmpty()) {
+            return;
+        }
+        Set<DataWithMediaType> event;
+        try {
+            String json = objectMapper.writeValueAsString(new SeatDeltaResponse(scheduleId, seatStatuses));
+            event = SseEmitter.event().name(DELTA_EVENT).data(json, MediaType.APPLICATION_JSON).build();
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to build the seat map delta of Schedule ID {}: {}", scheduleId, e.getMessage());
+            return;
+        }
+        for (Subscriber subscriber : registered) {
+            subscriber.enqueue(event);
+        }
+    }
+
+    // Writes one event, bounded by the write timeout (0 = unbounded). False once the subscriber is dropped.
+    private boolean send(Subscriber subscriber, Set<DataWithMediaType> event) {
+        ScheduledFuture<?> timeout = null;
+        if (writeTimeoutMillis > 0) {
+            subscriber.startWrite();
+            try {
+                timeout = watchdog.schedule(subscriber::timeOutWrite, writeTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shutting down: the emitters are being completed anyway.
+                subscriber.endWrite();
+                return false;
+            }
+        }
+        boolean sent;
+        try {
+            subscriber.emitter.send(event);
+            sent = true;
+        } catch (IOException | IllegalStateException e) {
+            // Client gone, stream already completed, or the write timed out; the container completes the request.
+            log.debug("Dropping seat map subscriber of Schedule ID {}: {}", subscriber.scheduleId, e.getMessage());
+            unsubscribe(subscriber);
+            subscriber.pending.clear();
+            sent = false;
+        } finally {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+        }
+        // Also clears the interrupt of a write that timed out just as it went through
+        boolean inTime = timeout == null || subscriber.endWrite();
+        return sent && inTime;
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.scheduleId, (id, registered) -> {
+            registered.remove(subscriber);
+            return registered.isEmpty() ? null : registered;
+        });
+    }
+
+    private void execute(Runnable task) {
+        try {
+            senders.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.debug("Seat map stream is shutting down; event dropped");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        watchdog.shutdownNow();
+        senders.shutdown();
+        subscribers.values().forEach(registered -> registered.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+}
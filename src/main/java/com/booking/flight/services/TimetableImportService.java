@@ -0,0 +1,338 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.PlaneCreationRequest;
+import com.booking.flight.dto.TimetableImportLine;
+import com.booking.flight.dto.response.TimetableImportResponse;
+import com.booking.flight.dto.response.TimetableImportResponse.LineError;
+import com.booking.flight.exception.InvalidSeatLayoutException;
+import com.booking.flight.models.Flight;
+import com.booking.flight.models.Plane;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.models.SeatInventory;
+import com.booking.flight.repository.FlightRepository;
+import com.booking.flight.repository.PlaneRepository;
+import com.booking.flight.repository.ScheduleBatchRepository;
+import com.booking.flight.repository.ScheduleRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming timetable import: planes, flight routes and schedules from NDJSON or CSV, read line by line
+ * so the upload is never held in memory (see {@link TimetableImportLine} for the line formats).
+ * <p>
+ * Plane and flight references are resolved through in-memory maps, loaded once from the database and
+ * extended with what the import creates. Lines are written in batches of up to batch-size rows, each
+ * batch in one transaction: planes and flights through JPA, schedules through JDBC batch inserts. A line
+ * that cannot be imported is reported with its line number and the import goes on; when a batch fails to
+ * write, every line of it is reported. Schedules whose flight already departs at that time are skipped,
+ * so a failed import can be run again.
+ */
+@Service
+@Slf4j
+public class TimetableImportService {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private static final BigDecimal MIN_BASE_PRICE = new BigDecimal("0.01");
+    private static final int MIN_SEATS = 10;
+
+    private record Pending<T>(long line, T entity) {
+    }
+
+    private record DepartureKey(Long flightId, LocalDateTime departureTime) {
+    }
+
+    // Outcome of one batch, applied to the run once it has committed
+    private record Written(int schedulesCreated, int schedulesSkipped) {
+    }
+
+    /**
+     * State of one import: reference maps, the batch being collected and the counts so far.
+     */
+    private final class Run {
+        final Map<Long, Plane> planesById = new HashMap<>();
+        final Map<String, Plane> planesByRef = new HashMap<>();
+        final Map<String, Flight> flightsByNumber = new HashMap<>();
+        // Schedules of planes with the same seat count share one (immutable) all-AVAILABLE inventory.
+        final Map<Integer, SeatInventory> inventoriesBySeatCount = new HashMap<>();
+
+        final List<Pending<Plane>> planes = new ArrayList<>();
+        final List<Pending<Flight>> flights = new ArrayList<>();
+        final List<Pending<Schedule>> schedules = new ArrayList<>();
+
+        long linesRead;
+        int planesCreated;
+        int flightsCreated;
+        int schedulesCreated;
+        int schedulesSkipped;
+        long failedLines;
+        final List<LineError> errors = new ArrayList<>();
+
+        void fail(long line, String message) {
+            failedLines++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new LineError(line, message));
+            }
+        }
+
+        boolean batchFull() {
+            return schedules.size() >= batchSize || planes.size() + flights.size() >= batchSize;
+        }
+    }
+
+    private final PlaneRepository planeRepository;
+    private final FlightRepository flightRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final ScheduleBatchRepository scheduleBatchRepository;
+    private final ScheduleSearchIndex scheduleSearchIndex;
+    private final SeatAvailabilityCounter seatAvailabilityCounter;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public TimetableImportService(PlaneRepository planeRepository,
+                                  FlightRepository flightRepository,
+                                  ScheduleRepository scheduleRepository,
+                                  ScheduleBatchRepository scheduleBatchRepository,
+                                  ScheduleSearchIndex scheduleSearchIndex,
+                                  SeatAvailabilityCounter seatAvailabilityCounter,
+                                  TransactionTemplate transactionTemplate,
+                                  ObjectMapper objectMapper,
+                                  @Value("${booking.import.batch-size:5000}") int batchSize,
+                                  @Value("${booking.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.planeRepository = planeRepository;
+        this.flightRepository = flightRepository;
+        this.scheduleRepository = scheduleRepository;
+        this.scheduleBatchRepository = scheduleBatchRepository;
+        this.scheduleSearchIndex = scheduleSearchIndex;
+        this.seatAvailabilityCounter = seatAvailabilityCounter;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Imports every line of the input. Throws IOException only if the input itself cannot be read;
+     * the batches written up to then stay committed.
+     */
+    public TimetableImportResponse importTimetable(InputStream input, Format format) throws IOException {
+        long started = System.nanoTime();
+        Run run = new Run();
+        planeRepository.findAll().forEach(plane -> run.planesById.put(plane.getPlaneId(), plane));
+        flightRepository.findAllWithPlaneDetails().forEach(flight -> run.flightsByNumber.put(flight.getFlightNumber(), flight));
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String text;
+        while ((text = reader.readLine()) != null) {
+            long line = ++run.linesRead;
+            if (text.isBlank() || (format == Format.CSV && (text.startsWith("#") || text.regionMatches(true, 0, "type,", 0, 5)))) {
+                continue;
+            }
+            try {
+                importLine(run, line, format == Format.CSV
+                        ? TimetableImportLine.fromCsv(text)
+                        : objectMapper.readValue(text, TimetableImportLine.class));
+            } catch (JsonProcessingException e) {
+                run.fail(line, e.getOriginalMessage());
+            } catch (IllegalArgumentException | DateTimeException | InvalidSeatLayoutException e) {
+                run.fail(line, e.getMessage());
+            }
+            if (run.batchFull()) {
+                flush(run);
+            }
+        }
+        flush(run);
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        log.info("Imported {} planes, {} flights and {} schedules from {} lines in {} s ({} schedules skipped, {} lines failed)",
+                run.planesCreated, run.flightsCreated, run.schedulesCreated, run.linesRead,
+                String.format("%.2f", seconds), run.schedulesSkipped, run.failedLines);
+        return new TimetableImportResponse(run.linesRead, run.planesCreated, run.flightsCreated, run.schedulesCreated,
+                run.schedulesSkipped, run.failedLines, run.errors);
+    }
+
+    private void importLine(Run run, long line, TimetableImportLine record) {
+        if (record.type() == null) {
+            throw new IllegalArgumentException("Missing type");
+        }
+        switch (record.type()) {
+            case TimetableImportLine.PLANE -> addPlane(run, line, record);
+            case TimetableImportLine.FLIGHT -> addFlight(run, line, record);
+            case TimetableImportLine.SCHEDULE -> addSchedule(run, line, record);
+            default -> throw new IllegalArgumentException("Unknown type '" + record.type() + "'");
+        }
+    }
+
+    private void addPlane(Run run, long line, TimetableImportLine record) {
+        require(record.model(), "model");
+        if (record.totalSeats() == null || record.totalSeats() < MIN_SEATS || record.totalSeats() > SeatInventory.MAX_SEATS) {
+            throw new IllegalArgumentException("totalSeats must be between " + MIN_SEATS + " and " + SeatInventory.MAX_SEATS);
+        }
+        if (record.ref() != null && run.planesByRef.containsKey(record.ref())) {
+            throw new IllegalArgumentException("Duplicate plane ref '" + record.ref() + "'");
+        }
+        Plane plane = new Plane();
+        plane.setModel(record.model());
+        plane.setTotalSeats(record.totalSeats());
+        plane.setSeatLayout(FlightManagementService.parseSeatLayout(
+                new PlaneCreationRequest(record.model(), record.totalSeats(), record.seatLayout())));
+        run.planes.add(new Pending<>(line, plane));
+        if (record.ref() != null) {
+            run.planesByRef.put(record.ref(), plane);
+        }
+    }
+
+    private void addFlight(Run run, long line, TimetableImportLine record) {
+        require(record.flightNumber(), "flightNumber");
+        require(record.departureAirport(), "departureAirport");
+        require(record.arrivalAirport(), "arrivalAirport");
+        require(record.plane(), "plane");
+        if (run.flightsByNumber.containsKey(record.flightNumber())) {
+            throw new IllegalArgumentException("Flight " + record.flightNumber() + " already exists");
+        }
+        Plane plane = run.planesByRef.get(record.plane());
+        if (plane == null && record.plane().chars().allMatch(Character::isDigit)) {
+            plane = run.planesById.get(Long.valueOf(record.plane()));
+        }
+        if (plane == null) {
+            throw new IllegalArgumentException("Unknown plane '" + record.plane() + "'");
+        }
+        Flight flight = new Flight(null, record.flightNumber(), record.departureAirport(), record.arrivalAirport(), plane);
+        run.flights.add(new Pending<>(line, flight));
+        run.flightsByNumber.put(record.flightNumber(), flight);
+    }
+
+    private void addSchedule(Run run, long line, TimetableImportLine record) {
+        require(record.flightNumber(), "flightNumber");
+        Flight flight = run.flightsByNumber.get(record.flightNumber());
+        if (flight == null) {
+            throw new IllegalArgumentException("Unknown flight " + record.flightNumber());
+        }
+        if (record.departureTime() == null || record.arrivalTime() == null || record.basePrice() == null) {
+            throw new IllegalArgumentException("departureTime, arrivalTime and basePrice are required");
+        }
+        if (!record.departureTime().isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Departure " + record.departureTime() + " is in the past");
+        }
+        if (!record.arrivalTime().isAfter(record.departureTime())) {
+            throw new IllegalArgumentException("Arrival must be after departure");
+        }
+        if (record.basePrice().compareTo(MIN_BASE_PRICE) < 0) {
+            throw new IllegalArgumentException("basePrice must be at least " + MIN_BASE_PRICE);
+        }
+        Schedule schedule = new Schedule();
+        schedule.setFlight(flight);
+        schedule.setDepartureTime(record.departureTime());
+        schedule.setArrivalTime(record.arrivalTime());
+        schedule.setBasePrice(record.basePrice());
+        schedule.setStatus("SCHEDULED");
+        schedule.setSeatInventory(run.inventoriesBySeatCount.computeIfAbsent(
+                flight.getPlane().getTotalSeats(), SeatInventory::allAvailable));
+        run.schedules.add(new Pending<>(line, schedule));
+    }
+
+    private static void require(String value, String field) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+    }
+
+    /**
+     * Writes the collected planes, flights and schedules in one transaction. On failure every line of the
+     * batch is reported, and its planes and flights are dropped from the reference maps.
+     */
+    private void flush(Run run) {
+        if (run.planes.isEmpty() && run.flights.isEmpty() && run.schedules.isEmpty()) {
+            return;
+        }
+        try {
+            Written written = transactionTemplate.execute(status -> {
+                planeRepository.saveAll(run.planes.stream().map(Pending::entity).toList());
+                // The schedule inserts below go through JDBC and reference the new flights' rows.
+                flightRepository.saveAllAndFlush(run.flights.stream().map(Pending::entity).toList());
+                List<Schedule> schedules = withoutExistingDepartures(run.schedules);
+                if (!schedules.isEmpty()) {
+                    scheduleBatchRepository.insertAll(schedules);
+                    scheduleSearchIndex.putAllOnCommit(schedules);
+                    seatAvailabilityCounter.initializeOnCommit(schedules);
+                }
+                return new Written(schedules.size(), run.schedules.size() - schedules.size());
+            });
+            run.planes.forEach(pending -> run.planesById.put(pending.entity().getPlaneId(), pending.entity()));
+            run.planesCreated += run.planes.size();
+            run.flightsCreated += run.flights.size();
+            run.schedulesCreated += written.schedulesCreated();
+            run.schedulesSkipped += written.schedulesSkipped();
+            log.debug("Imported a batch of {} planes, {} flights and {} schedules", run.planes.size(), run.flights.size(),
+                    written.schedulesCreated());
+        } catch (RuntimeException e) {
+            log.warn("Failed to write an import batch ending at line {}: {}", run.linesRead, e.getMessage());
+            String message = "Not imported, its batch failed: " + e.getMessage();
+            List<Pending<?>> batch = new ArrayList<>(run.planes);
+            batch.addAll(run.flights);
+            batch.addAll(run.schedules);
+            batch.sort((a, b) -> Long.compare(a.line(), b.line()));
+            batch.forEach(pending -> run.fail(pending.line(), message));
+            run.planesByRef.values().removeIf(plane -> run.planes.stream().anyMatch(pending -> pending.entity() == plane));
+            run.flights.forEach(pending -> run.flightsByNumber.remove(pending.entity().getFlightNumber()));
+        } finally {
+            run.planes.clear();
+            run.flights.clear();
+            run.schedules.clear();
+        }
+    }
+
+    /**
+     * The batch's schedules whose flight has no departure at the same time yet, in the database or
+     * earlier in the batch. One query for the whole batch.
+     */
+    private List<Schedule> withoutExistingDepartures(List<Pending<Schedule>> pending) {
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> flightIds = new HashSet<>();
+        LocalDateTime from = LocalDateTime.MAX;
+        LocalDateTime to = LocalDateTime.MIN;
+        for (Pending<Schedule> p : pending) {
+            Schedule schedule = p.entity();
+            flightIds.add(schedule.getFlight().getFlightId());
+            from = schedule.getDepartureTime().isBefore(from) ? schedule.getDepartureTime() : from;
+            to = schedule.getDepartureTime().isAfter(to) ? schedule.getDepartureTime() : to;
+        }
+        Set<DepartureKey> departures = new HashSet<>();
+        scheduleRepository.findDepartures(flightIds, from, to)
+                .forEach(existing -> departures.add(new DepartureKey(existing.getFlightId(), existing.getDepartureTime())));
+
+        List<Schedule> schedules = new ArrayList<>(pending.size());
+        for (Pending<Schedule> p : pending) {
+            Schedule schedule = p.entity();
+            if (departures.add(new DepartureKey(schedule.getFlight().getFlightId(), schedule.getDepartureTime()))) {
+                schedules.add(schedule);
+            }
+        }
+        return schedules;
+    }
+}
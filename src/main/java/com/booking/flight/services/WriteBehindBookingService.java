@@ -0,0 +1,81 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.BookingRequest;
+import com.booking.flight.dto.response.BookingResponse;
+import com.booking.flight.exception.ScheduleNotFoundException;
+import com.booking.flight.metrics.BookingMetrics;
+import com.booking.flight.metrics.BookingMetrics.Phase;
+import com.booking.flight.metrics.BookingTimings;
+import com.booking.flight.models.SeatInventory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Write-behind booking (booking.write-behind.enabled=true): the booking is decided and acknowledged
+ * once its seats are leased and it is stored in the outbox, two Aerospike writes. MariaDB is written
+ * afterwards by BookingOutboxWriter, so the response carries status PENDING and the booking reference
+ * instead of booking IDs.
+ * <p>
+ * Seats are prevalidated against the cached seat map instead of a schedule read; a seat booked since the
+ * cache was filled is still caught by its lease or, at the latest, by the writer's row-locked re-check.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "booking.write-behind.enabled", havingValue = "true")
+public class WriteBehindBookingService {
+
+    public static final String PENDING = "PENDING";
+
+    private final BookingService bookingService;
+    private final FlightDetailsServiceImpl flightDetailsService;
+    private final BookingOutbox bookingOutbox;
+    private final BookingOutboxWriter bookingOutboxWriter;
+    private final SeatMapEventPublisher seatMapEventPublisher;
+    private final BookingMetrics bookingMetrics;
+
+    public List<BookingResponse> createBookings(BookingRequest request, BookingTimings timings) {
+        log.info("Attempting write-behind seat booking for Schedule ID {} and {} seats by User ID {}",
+                request.scheduleId(), request.seatNumbers().size(), request.userId());
+
+        try {
+            return book(request, timings);
+        } catch (RuntimeException e) {
+            bookingMetrics.recordFailure(e);
+            throw e;
+        }
+    }
+
+    private List<BookingResponse> book(BookingRequest request, BookingTimings timings) {
+        bookingMetrics.time(Phase.SEATS_LEFT, timings, () -> bookingService.checkSeatsLeft(request));
+        SeatInventory inventory = bookingMetrics.time(Phase.SCHEDULE_LOAD, timings, () -> cachedInventory(request.scheduleId()));
+        bookingMetrics.time(Phase.AVAILABILITY, timings,
+                () -> bookingService.prevalidate(request.scheduleId(), inventory, request.seatNumbers()));
+
+        BookingOutbox.Entry entry = bookingOutbox.newEntry(UUID.randomUUID().toString(), request);
+        // Seat leases and the outbox record; once this returns the booking is decided.
+        bookingMetrics.time(Phase.LOCK_ACQUIRE, timings, () -> bookingOutbox.append(entry));
+        seatMapEventPublisher.publish(request.scheduleId(), request.seatNumbers(), SeatMapEventPublisher.LOCKED);
+        bookingOutboxWriter.enqueue(entry);
+
+        LocalDateTime bookingTime = LocalDateTime.now();
+        return request.seatNumbers().stream()
+                .map(seatNumber -> new BookingResponse(null, request.scheduleId(), request.userId(), seatNumber,
+                        PENDING, bookingTime, entry.bookingReference()))
+                .toList();
+    }
+
+    private SeatInventory cachedInventory(Long scheduleId) {
+        try {
+            return flightDetailsService.getScheduleSeats(scheduleId).inventory();
+        } catch (IllegalArgumentException e) {
+            throw new ScheduleNotFoundException(scheduleId);
+        }
+    }
+}
@@ -3,12 +3,22 @@ package com.booking.flight.util;
 import com.booking.flight.dto.response.PlaneResponse;
 import com.booking.flight.dto.response.FlightResponse;
 import com.booking.flight.dto.response.ScheduleResponse;
+import com.booking.flight.dto.response.SeatLegendResponse;
 import com.booking.flight.models.Plane;
 import com.booking.flight.models.Flight;
 import com.booking.flight.models.Schedule;
+import com.booking.flight.models.SeatInventory;
+import com.booking.flight.models.SeatLabels;
+import com.booking.flight.models.SeatLayout;
+import com.booking.flight.models.SeatState;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 @Slf4j
 public class EntityToDtoConverter {
@@ -19,7 +29,8 @@ public class EntityToDtoConverter {
         return new PlaneResponse(
                 plane.getPlaneId(),
                 plane.getModel(),
-                plane.getTotalSeats()
+                plane.getTotalSeats(),
+                plane.getSeatLayout() == null ? null : plane.getSeatLayout().spec()
         );
     }
 
@@ -54,7 +65,63 @@ public class EntityToDtoConverter {
                 schedule.getArrivalTime(),
                 schedule.getBasePrice(),
                 schedule.getStatus(),
-                schedule.getSeatStatuses()
+                toSeatStatusMap(schedule.getSeatInventory()),
+                schedule.getAvailableSeats()
         );
     }
+
+    // --- Schedule Summary Conversion ---
+    // Same as toScheduleResponse without the seat map, which is served by the seat-map endpoint.
+    public ScheduleResponse toScheduleSummary(Schedule schedule) {
+        if (schedule == null) return null;
+
+        return new ScheduleResponse(
+                schedule.getScheduleId(),
+                toFlightResponse(schedule.getFlight()),
+                schedule.getDepartureTime(),
+                schedule.getArrivalTime(),
+                schedule.getBasePrice(),
+                schedule.getStatus(),
+                null,
+                schedule.getAvailableSeats()
+        );
+    }
+
+    // --- Seat Legend Conversion ---
+    // Decoding key of the binary seat map: seat labels in inventory order plus the state codes.
+    public SeatLegendResponse toSeatLegend(Plane plane) {
+        if (plane == null) return null;
+
+        int seatCount = plane.getTotalSeats();
+        List<String> seatLabels = new ArrayList<>(seatCount);
+        for (int i = 0; i < seatCount; i++) {
+            seatLabels.add(SeatLabels.label(i));
+        }
+        Map<Integer, String> stateCodes = new LinkedHashMap<>();
+        for (SeatState state : SeatState.values()) {
+            stateCodes.put(state.code(), state.name());
+        }
+        List<String> seatNames = null;
+        SeatLayout layout = plane.getSeatLayout();
+        if (layout != null) {
+            seatNames = new ArrayList<>(seatCount);
+            for (int i = 0; i < seatCount; i++) {
+                seatNames.add(layout.seatName(i));
+            }
+        }
+        return new SeatLegendResponse(plane.getPlaneId(), seatCount, SeatInventory.HEADER_BYTES,
+                SeatInventory.BITS_PER_SEAT, stateCodes, seatLabels, seatNames);
+    }
+
+    // --- Seat Inventory Conversion ---
+    // Expands the packed inventory into the public "seat label -> status" contract, in seat order.
+    public Map<String, String> toSeatStatusMap(SeatInventory inventory) {
+        if (inventory == null) return null;
+
+        Map<String, String> seatStatuses = new LinkedHashMap<>(inventory.seatCount() * 4 / 3 + 1);
+        for (int i = 0; i < inventory.seatCount(); i++) {
+            seatStatuses.put(SeatLabels.label(i), inventory.stateOf(i).name());
+        }
+        return seatStatuses;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.booking.flight.config.dataSourceConfig;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReplicaRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private DataSource primary;
+    @Mock
+    private DataSource replica1;
+    @Mock
+    private DataSource replica2;
+
+    private ReplicaLagMonitor lagMonitor;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        LinkedHashMap<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica1);
+        replicas.put("replica-2", replica2);
+        lagMonitor = new ReplicaLagMonitor(replicas, false, meterRegistry);
+        // 5 s for ordinary reads, 1 s for seat maps
+        routing = new ReplicaRoutingDataSource(primary, replicas, lagMonitor, 5_000, 1_000, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void writesGoToPrimary_ReadOnlyTransactionsAlternateReplicas() {
+        lagMonitor.record("replica-1", 0);
+        lagMonitor.record("replica-2", 0);
+
+        assertEquals("primary", routing.determineCurrentLookupKey());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+        assertEquals("replica-2", routing.determineCurrentLookupKey());
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+        assertEquals(2.0, meterRegistry.get("booking.datasource.routed").tag("pool", "replica-1").counter().count());
+    }
+
+    @Test
+    void laggingOrUnknownReplicaIsSkipped_NoneWithinBudgetFallsBackToPrimary() {
+        lagMonitor.record("replica-1", 2_000);
+        // replica-2 was never checked
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+
+        lagMonitor.record("replica-1", 30_000);
+        assertEquals("primary", routing.determineCurrentLookupKey());
+        assertEquals(1.0, meterRegistry.get("booking.datasource.replica.fallbacks").counter().count());
+    }
+
+    @Test
+    void seatMapReadsUseTheirOwnStalenessBudget() {
+        lagMonitor.record("replica-1", 2_000);
+        lagMonitor.record("replica-2", 0);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica-2", ReadRouting.seatMapRead(routing::determineCurrentLookupKey));
+        }
+
+        lagMonitor.record("replica-2", 2_000);
+        assertEquals("primary", ReadRouting.seatMapRead(routing::determineCurrentLookupKey));
+        // Outside a seat-map read the 2 s lag is acceptable
+        assertNotEquals("primary", routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void lagMonitor_ReadsSecondsBehindMaster() throws Exception {
+        stubStatus(replica1, true, 3, false);
+        // Replication threads stopped: Seconds_Behind_Master is NULL
+        stubStatus(replica2, true, 0, true);
+
+        lagMonitor.check();
+
+        assertEquals(3_000, lagMonitor.lagMillis("replica-1"));
+        assertEquals(ReplicaLagMonitor.UNKNOWN, lagMonitor.lagMillis("replica-2"));
+
+        // A database without replication has no status row: unknown, unless explicitly assumed current
+        stubStatus(replica2, false, 0, false);
+        lagMonitor.check();
+        assertEquals(ReplicaLagMonitor.UNKNOWN, lagMonitor.lagMillis("replica-2"));
+
+        ReplicaLagMonitor localMonitor = new ReplicaLagMonitor(Map.of("replica-2", replica2), true, new SimpleMeterRegistry());
+        localMonitor.check();
+        assertEquals(0, localMonitor.lagMillis("replica-2"));
+    }
+
+    private static void stubStatus(DataSource replica, boolean hasRow, long secondsBehind, boolean isNull) throws Exception {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet status = mock(ResultSet.class);
+        when(replica.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SHOW SLAVE STATUS")).thenReturn(status);
+        when(status.next()).thenReturn(hasRow);
+        if (hasRow) {
+            when(status.getLong("Seconds_Behind_Master")).thenReturn(secondsBehind);
+            when(status.wasNull()).thenReturn(isNull);
+        }
+    }
+}
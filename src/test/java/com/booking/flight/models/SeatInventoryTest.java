@@ -0,0 +1,66 @@
+package com.booking.flight.models;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeatInventoryTest {
+
+    @Test
+    void newInventory_AllSeatsAvailable() {
+        SeatInventory inventory = SeatInventory.allAvailable(400);
+
+        assertEquals(400, inventory.seatCount());
+        assertEquals(400, inventory.count(SeatState.AVAILABLE));
+        // 2-byte header + 2 bits per seat
+        assertEquals(102, inventory.toBytes().length);
+    }
+
+    @Test
+    void withState_ReturnsUpdatedCopy() {
+        SeatInventory original = SeatInventory.allAvailable(10);
+
+        SeatInventory updated = original.withState(new int[]{0, 3, 9}, SeatState.BOOKED);
+
+        assertTrue(original.isAvailable(3));
+        assertEquals(SeatState.BOOKED, updated.stateOf(0));
+        assertEquals(SeatState.AVAILABLE, updated.stateOf(1));
+        assertEquals(SeatState.BOOKED, updated.stateOf(3));
+        assertEquals(SeatState.BOOKED, updated.stateOf(9));
+        assertEquals(3, updated.count(SeatState.BOOKED));
+        assertNotEquals(original, updated);
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        SeatInventory inventory = SeatInventory.allAvailable(853).withState(new int[]{0, 500, 852}, SeatState.BOOKED);
+
+        SeatInventory decoded = SeatInventory.fromBytes(inventory.toBytes());
+
+        assertEquals(inventory, decoded);
+        assertEquals(SeatState.BOOKED, decoded.stateOf(852));
+    }
+
+    @Test
+    void fromBytes_RejectsTruncatedColumn() {
+        byte[] encoded = SeatInventory.allAvailable(100).toBytes();
+
+        assertThrows(IllegalArgumentException.class, () ->
+                SeatInventory.fromBytes(java.util.Arrays.copyOf(encoded, encoded.length - 1)));
+    }
+
+    @Test
+    void seatLabels_MapToPositions() {
+        assertEquals("001", SeatLabels.label(0));
+        assertEquals("180", SeatLabels.label(179));
+        assertEquals("1000", SeatLabels.label(999));
+
+        assertEquals(0, SeatLabels.indexOf("001", 180));
+        assertEquals(179, SeatLabels.indexOf("180", 180));
+        assertEquals(999, SeatLabels.indexOf("1000", 1000));
+        assertEquals(-1, SeatLabels.indexOf("181", 180));
+        assertEquals(-1, SeatLabels.indexOf("1", 180));
+        assertEquals(-1, SeatLabels.indexOf("0001", 180));
+        assertEquals(-1, SeatLabels.indexOf("A01", 180));
+    }
+}
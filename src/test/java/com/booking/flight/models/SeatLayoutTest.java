@@ -0,0 +1,44 @@
+package com.booking.flight.models;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeatLayoutTest {
+
+    @Test
+    void seatsFollowCabinsRowsAndColumns() {
+        SeatLayout layout = SeatLayout.parse("J:1-2:AC|DF;Y:10-11:ABC|DEF");
+
+        assertEquals(8 + 12, layout.seatCount());
+        assertEquals("1A", layout.seatName(0));
+        assertEquals("1D", layout.seatName(2));
+        assertEquals("2F", layout.seatName(7));
+        assertEquals("10A", layout.seatName(8));
+        assertEquals("11F", layout.seatName(19));
+
+        // Two segments per row: J rows 1-2 are segments 0-3, Y rows 10-11 segments 4-7
+        assertEquals(8, layout.segmentCount());
+        assertArrayEquals(new int[]{4, 8}, layout.segmentRange("y"));
+        assertArrayEquals(new int[]{0, 8}, layout.segmentRange(null));
+        assertNull(layout.segmentRange("F"));
+        assertEquals(11, layout.segmentStart(5));
+        assertEquals(3, layout.segmentWidth(5));
+        assertEquals(5, layout.segmentOf(13));
+    }
+
+    @Test
+    void sameSpecIsSharedAcrossPlanes() {
+        assertSame(SeatLayout.parse("Y:1-30:ABC|DEF"), SeatLayout.parse("y:1-30:abc|def"));
+        assertEquals("Y:1-30:ABC|DEF", new SeatLayoutConverter().convertToDatabaseColumn(SeatLayout.parse("Y:1-30:ABC|DEF")));
+    }
+
+    @Test
+    void malformedSpecsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SeatLayout.parse("Y:1-30"));
+        assertThrows(IllegalArgumentException.class, () -> SeatLayout.parse("Y:5-1:ABC"));
+        assertThrows(IllegalArgumentException.class, () -> SeatLayout.parse("J:1-5:AC|DF;Y:5-30:ABC|DEF"));
+        assertThrows(IllegalArgumentException.class, () -> SeatLayout.parse("Y:1-30:ABA"));
+        assertThrows(IllegalArgumentException.class, () -> SeatLayout.parse("Y:1-30:ABC||DEF"));
+    }
+}
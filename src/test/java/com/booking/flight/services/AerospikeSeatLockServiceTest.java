@@ -0,0 +1,139 @@
+package com.booking.flight.services;
+
+import com.aerospike.client.*;
+import com.aerospike.client.Record;
+import com.aerospike.client.cdt.MapOperation;
+import com.aerospike.client.cdt.MapReturnType;
+import com.aerospike.client.policy.WritePolicy;
+import com.booking.flight.config.aeroSpikeConfig.AerospikeConfiguration;
+import com.booking.flight.exception.AerospikeLockFailureException;
+import com.booking.flight.exception.SeatAlreadyReservedException;
+import com.booking.flight.metrics.BookingMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+public class AerospikeSeatLockServiceTest {
+
+    @Mock
+    private AerospikeClient aerospikeClient;
+    @Mock
+    private WritePolicy aerospikeLockingPolicy;
+    @Mock
+    private AerospikeConfiguration aerospikeConfig;
+    @Mock
+    private BookingMetrics bookingMetrics;
+
+    @InjectMocks
+    private AerospikeSeatLockService seatLockService;
+
+    private static final String NAMESPACE = "test_namespace";
+    private static final Long SCHEDULE_ID = 100L;
+    private static final Long USER_ID = 200L;
+    private final Key ledgerKey = new Key(NAMESPACE, "seat_locks", "100");
+    private final List<String> sixSeats = Arrays.asList("001", "002", "003", "004", "005", "006");
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(aerospikeConfig.getNamespace()).thenReturn(NAMESPACE);
+    }
+
+    @Test
+    void acquireLocks_GroupBookingIsOneRoundTrip() {
+        seatLockService.acquireLocks(SCHEDULE_ID, sixSeats, USER_ID);
+
+        verify(aerospikeClient, times(1)).operate(eq(aerospikeLockingPolicy), eq(ledgerKey), any(Operation[].class));
+        verifyNoMoreInteractions(aerospikeClient);
+    }
+
+    @Test
+    void acquireLocks_ConflictOnAnySeat_NothingToCompensate() {
+        when(aerospikeClient.operate(eq(aerospikeLockingPolicy), eq(ledgerKey), any(Operation[].class)))
+                .thenThrow(new AerospikeException(ResultCode.ELEMENT_EXISTS));
+
+        assertThrows(SeatAlreadyReservedException.class, () ->
+                seatLockService.acquireLocks(SCHEDULE_ID, sixSeats, USER_ID));
+
+        // The failed putItems left the ledger untouched, so no release call is made
+        verify(aerospikeClient, times(1)).operate(any(WritePolicy.class), any(Key.class), any(Operation[].class));
+        verify(bookingMetrics).recordLockOperation(eq("acquire"), eq(ResultCode.ELEMENT_EXISTS), anyLong());
+    }
+
+    @Test
+    void acquireLocks_InDoubtTimeout_ReleasesInOneCall() {
+        AerospikeException timeout = new AerospikeException(ResultCode.TIMEOUT);
+        timeout.setInDoubt(true, 1);
+        when(aerospikeClient.operate(eq(aerospikeLockingPolicy), eq(ledgerKey), any(Operation[].class)))
+                .thenThrow(timeout)
+                .thenReturn(null);
+
+        assertThrows(AerospikeLockFailureException.class, () ->
+                seatLockService.acquireLocks(SCHEDULE_ID, sixSeats, USER_ID));
+
+        // One acquire attempt plus one compensating release
+        verify(aerospikeClient, times(2)).operate(eq(aerospikeLockingPolicy), eq(ledgerKey), any(Operation[].class));
+    }
+
+    @Test
+    void releaseOperation_RemovesOnlyTheLeaseValue() {
+        Operation release = AerospikeSeatLockService.releaseOperation("200:lease", 1_000L);
+
+        // Matched on [expiry, holder], not on seat keys: a seat re-locked by another holder is left alone
+        assertEquals(AerospikeSeatLockService.SEAT_LOCK_BIN, release.binName);
+        assertEquals(MapOperation.removeByValue(AerospikeSeatLockService.SEAT_LOCK_BIN,
+                AerospikeSeatLockService.leaseValue("200:lease", 1_000L), MapReturnType.NONE).value,
+                release.value);
+    }
+
+    @Test
+    void releaseLocks_IsOneRoundTripAndIgnoresMissingLedger() {
+        when(aerospikeClient.operate(eq(aerospikeLockingPolicy), eq(ledgerKey), any(Operation[].class)))
+                .thenThrow(new AerospikeException(ResultCode.KEY_NOT_FOUND_ERROR));
+
+        assertDoesNotThrow(() -> seatLockService.releaseLocks(new SeatLease(SCHEDULE_ID, sixSeats, "200:lease", 1L)));
+
+        verify(aerospikeClient, times(1)).operate(eq(aerospikeLockingPolicy), eq(ledgerKey), any(Operation[].class));
+    }
+
+    @Test
+    void lockedSeats_IsOneSingleKeyRead() {
+        when(aerospikeClient.operate(isNull(), eq(ledgerKey), any(Operation[].class)))
+                .thenReturn(new Record(Map.of("locks", List.of("001", "002")), 1, 0));
+
+        assertEquals(List.of("001", "002"), seatLockService.lockedSeats(SCHEDULE_ID));
+
+        verify(aerospikeClient, times(1)).operate(isNull(), eq(ledgerKey), any(Operation[].class));
+        verifyNoMoreInteractions(aerospikeClient);
+    }
+
+    @Test
+    void lockedSeats_NoLedgerMeansNoLocks() {
+        when(aerospikeClient.operate(isNull(), eq(ledgerKey), any(Operation[].class))).thenReturn(null);
+
+        assertTrue(seatLockService.lockedSeats(SCHEDULE_ID).isEmpty());
+    }
+
+    @Test
+    void emptySeatList_NoAerospikeCall() {
+        seatLockService.acquireLocks(SCHEDULE_ID, List.of(), USER_ID);
+        seatLockService.releaseLocks(new SeatLease(SCHEDULE_ID, List.of(), "200:lease", 1L));
+
+        verifyNoInteractions(aerospikeClient);
+    }
+}
@@ -0,0 +1,106 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.BookingRequest;
+import com.booking.flight.dto.response.BookingResponse;
+import com.booking.flight.exception.BookingPersistenceException;
+import com.booking.flight.exception.SeatAlreadyReservedException;
+import com.booking.flight.metrics.BookingMetrics;
+import com.booking.flight.models.Booking;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.support.TestFixtures;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AsyncBookingServiceTest {
+
+    @Mock
+    private BookingService bookingService;
+    @Mock
+    private AsyncAerospikeSeatLockService asyncSeatLockService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private SeatMapEventPublisher seatMapEventPublisher;
+
+    private AsyncBookingService asyncBookingService;
+
+    private static final Long SCHEDULE_ID = 100L;
+    private final List<String> seats = List.of("001", "002");
+    private final BookingRequest request = new BookingRequest(SCHEDULE_ID, seats, 200L);
+    private final SeatLease lease = new SeatLease(SCHEDULE_ID, seats, "200:lease", Long.MAX_VALUE);
+    private Schedule schedule;
+
+    @BeforeEach
+    void setUp() {
+        // Run persistence inline so the future is complete when createBookings returns
+        asyncBookingService = new AsyncBookingService(bookingService, asyncSeatLockService, transactionTemplate,
+                new BookingMetrics(new SimpleMeterRegistry()), seatMapEventPublisher, Runnable::run);
+
+        schedule = TestFixtures.schedule(SCHEDULE_ID,
+                TestFixtures.flight(1L, "DEL", "BOM", TestFixtures.plane(1L, 180)), LocalDateTime.now().plusDays(1));
+        when(bookingService.loadSchedule(SCHEDULE_ID)).thenReturn(schedule);
+        when(bookingService.prevalidate(schedule, seats)).thenReturn(new int[]{0, 1});
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(asyncSeatLockService.releaseLocksAsync(lease))
+                .thenReturn(new CompletableFuture<>()); // never completes: release must not be awaited
+    }
+
+    @Test
+    void createBookings_Success_ReleasesLocksWithoutWaiting() {
+        Booking booking = new Booking();
+        booking.setSchedule(schedule);
+        booking.setSeatNumber("001");
+        when(asyncSeatLockService.acquireLocksAsync(SCHEDULE_ID, seats, 200L)).thenReturn(CompletableFuture.completedFuture(lease));
+        when(bookingService.persistBookings(eq(schedule), eq(request), any())).thenReturn(List.of(booking));
+
+        List<BookingResponse> responses = asyncBookingService.createBookings(request).join();
+
+        assertEquals(1, responses.size());
+        verify(asyncSeatLockService, times(1)).releaseLocksAsync(lease);
+    }
+
+    @Test
+    void createBookings_LockConflict_NothingPersisted() {
+        when(asyncSeatLockService.acquireLocksAsync(SCHEDULE_ID, seats, 200L)).thenReturn(
+                CompletableFuture.failedFuture(new SeatAlreadyReservedException("One or more requested seats are currently reserved or locked.")));
+
+        CompletionException failure = assertThrows(CompletionException.class, () ->
+                asyncBookingService.createBookings(request).join());
+
+        assertInstanceOf(SeatAlreadyReservedException.class, failure.getCause());
+        verify(bookingService, never()).persistBookings(any(), any(), any());
+        verify(asyncSeatLockService, never()).releaseLocksAsync(any());
+    }
+
+    @Test
+    void createBookings_PersistenceFailure_CompensatesLocks() {
+        when(asyncSeatLockService.acquireLocksAsync(SCHEDULE_ID, seats, 200L)).thenReturn(CompletableFuture.completedFuture(lease));
+        when(bookingService.persistBookings(eq(schedule), eq(request), any()))
+                .thenThrow(new BookingPersistenceException("Failed to save bookings to MariaDB.", new RuntimeException()));
+
+        CompletionException failure = assertThrows(CompletionException.class, () ->
+                asyncBookingService.createBookings(request).join());
+
+        assertInstanceOf(BookingPersistenceException.class, failure.getCause());
+        verify(asyncSeatLockService, times(1)).releaseLocksAsync(lease);
+        verify(seatMapEventPublisher).publishReleased(SCHEDULE_ID, seats);
+    }
+}
@@ -0,0 +1,159 @@
+package com.booking.flight.services;
+
+import com.booking.flight.metrics.BookingMetrics;
+import com.booking.flight.models.Booking;
+import com.booking.flight.models.Flight;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.models.SeatState;
+import com.booking.flight.repository.BookingRepository;
+import com.booking.flight.repository.ScheduleRepository;
+import com.booking.flight.support.InMemoryRepositories;
+import com.booking.flight.support.InMemorySeatAvailabilityCounter;
+import com.booking.flight.support.InMemorySeatLockService;
+import com.booking.flight.support.InMemoryTransactionManager;
+import com.booking.flight.support.TestFixtures;
+import com.booking.flight.util.EntityToDtoConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingOutboxWriterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<Long, Schedule> schedules = InMemoryRepositories.newStore();
+    private final Map<Long, Booking> bookings = InMemoryRepositories.newStore();
+
+    @Mock
+    private BookingOutbox bookingOutbox;
+
+    private BookingRepository bookingRepository;
+    private SeatMapEventPublisher seatMapEventPublisher;
+    private BookingOutboxWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        ScheduleRepository scheduleRepository = InMemoryRepositories.scheduleRepository(schedules);
+        // Delegates to the in-memory store; individual tests make some saves fail
+        bookingRepository = mock(BookingRepository.class, withSettings()
+                .defaultAnswer(delegatesTo(InMemoryRepositories.bookingRepository(bookings)))
+                .strictness(Strictness.LENIENT));
+        BookingMetrics bookingMetrics = new BookingMetrics(meterRegistry);
+        seatMapEventPublisher = new SeatMapEventPublisher(null, new ObjectMapper(), 0, 1, 64, 0);
+        BookingService bookingService = new BookingService(bookingRepository, scheduleRepository,
+                new InMemorySeatLockService(), new SeatMapCache(new EntityToDtoConverter(), 100, 0),
+                new InMemorySeatAvailabilityCounter(), new ScheduleSearchIndex(scheduleRepository, new EntityToDtoConverter()),
+                seatMapEventPublisher, bookingMetrics);
+        writer = new BookingOutboxWriter(bookingOutbox, bookingService, bookingRepository, scheduleRepository,
+                new TransactionTemplate(new InMemoryTransactionManager()), bookingMetrics, 200, 10, 60_000);
+
+        Flight flight = TestFixtures.flight(1L, "DEL", "BOM", TestFixtures.plane(1L, 180));
+        schedules.put(100L, TestFixtures.schedule(100L, flight, LocalDateTime.now().plusDays(1)));
+        schedules.put(200L, TestFixtures.schedule(200L, flight, LocalDateTime.now().plusDays(2)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        seatMapEventPublisher.shutdown();
+    }
+
+    @Test
+    void flush_PersistsBatchAcrossSchedules_ThenCompletesEntries() {
+        List<BookingOutbox.Entry> batch = List.of(
+                entry("ref-1", 100L, "001", "002"),
+                entry("ref-2", 100L, "003"),
+                entry("ref-3", 200L, "001"));
+
+        writer.flush(batch);
+
+        assertEquals(4, bookings.size());
+        assertTrue(bookings.values().stream().allMatch(booking -> booking.getBookingReference() != null));
+        // Both bookings on schedule 100 are in its inventory; the second re-read saw the first
+        assertEquals(3, schedules.get(100L).getSeatInventory().count(SeatState.BOOKED));
+        verify(bookingOutbox).complete(batch);
+        verify(bookingOutbox, never()).markFailed(any(), anyString());
+        assertEquals(1L, meterRegistry.get("booking.outbox.flushes").timer().count());
+    }
+
+    @Test
+    void flush_ReplayOfPersistedEntryOnlyCompletesIt() {
+        BookingOutbox.Entry entry = entry("ref-1", 100L, "001");
+        writer.flush(List.of(entry));
+
+        // e.g. the node crashed before deleting the outbox record, and recovery queued it again
+        writer.flush(List.of(entry));
+
+        assertEquals(1, bookings.size());
+        verify(bookingOutbox, times(2)).complete(List.of(entry));
+        verify(bookingOutbox, never()).markFailed(any(), anyString());
+    }
+
+    @Test
+    void flush_SeatBookedMeanwhile_EntryMarkedFailedOthersPersisted() {
+        writer.flush(List.of(entry("ref-1", 100L, "001")));
+        // Same seat under another reference: only possible after its lease expired
+        BookingOutbox.Entry late = entry("ref-2", 100L, "001");
+        BookingOutbox.Entry other = entry("ref-3", 100L, "002");
+
+        writer.flush(List.of(late, other));
+
+        assertEquals(2, bookings.size());
+        verify(bookingOutbox).complete(List.of(other));
+        verify(bookingOutbox).markFailed(eq(late), anyString());
+        assertEquals(1.0, meterRegistry.get("booking.outbox.rejected").counter().count());
+    }
+
+    @Test
+    void flush_EntryFailingOnItsOwn_OthersPersisted_RetriedUntilItsLeasesExpire() {
+        // Any transaction holding a "bad-" reference fails in MariaDB. It fails before the seat inventory
+        // is written, since a rollback does not undo writes to the in-memory stores.
+        doThrow(new DataAccessException("Lost connection to server during query") {})
+                .when(bookingRepository).findBookingReferencesIn(argThat((Collection<String> references) ->
+                        references.stream().anyMatch(reference -> reference.startsWith("bad-"))));
+        BookingOutbox.Entry first = entry("ref-1", 100L, "001");
+        BookingOutbox.Entry bad = entry("bad-1", 100L, "002");
+        BookingOutbox.Entry last = entry("ref-2", 200L, "001");
+
+        // The batch transaction fails; each entry is then persisted in a transaction of its own
+        assertEquals(1, writer.flush(List.of(first, bad, last)));
+
+        assertEquals(2, bookings.size());
+        verify(bookingOutbox).complete(List.of(first, last));
+        verify(bookingOutbox, never()).markFailed(any(), anyString());
+        // Its seat leases still hold, so the failing entry goes back in the queue
+        assertEquals(1, writer.queuedCount());
+
+        long now = System.currentTimeMillis();
+        BookingOutbox.Entry expired = new BookingOutbox.Entry("bad-2", 100L, 7L, List.of("003"), now - 700_000, now - 100_000);
+        assertEquals(0, writer.flush(List.of(expired)));
+
+        verify(bookingOutbox).markFailed(eq(expired), startsWith("could not be persisted"));
+        assertEquals(1.0, meterRegistry.get("booking.outbox.rejected").counter().count());
+    }
+
+    private static BookingOutbox.Entry entry(String reference, Long scheduleId, String... seatNumbers) {
+        long now = System.currentTimeMillis();
+        return new BookingOutbox.Entry(reference, scheduleId, 7L, List.of(seatNumbers), now, now + 600_000);
+    }
+}
@@ -0,0 +1,115 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.ScheduleSearchPageRequest;
+import com.booking.flight.dto.response.ScheduleSearchPageResponse;
+import com.booking.flight.dto.response.ScheduleSummaryResponse;
+import com.booking.flight.exception.InvalidSearchCursorException;
+import com.booking.flight.models.Flight;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.repository.ScheduleRepository;
+import com.booking.flight.support.TestFixtures;
+import com.booking.flight.util.EntityToDtoConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FlightDetailsServiceImplTest {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(3);
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+    @Mock
+    private SeatAvailabilityCounter seatAvailabilityCounter;
+
+    private ScheduleSearchIndex scheduleSearchIndex;
+    private FlightDetailsServiceImpl flightService;
+
+    @BeforeEach
+    void setUp() {
+        EntityToDtoConverter converter = new EntityToDtoConverter();
+        scheduleSearchIndex = new ScheduleSearchIndex(scheduleRepository, converter);
+        flightService = new FlightDetailsServiceImpl(scheduleRepository, null, null, converter, null,
+                scheduleSearchIndex, seatAvailabilityCounter);
+        lenient().when(seatAvailabilityCounter.availableSeats(anyList())).thenReturn(Map.of(1L, 150));
+    }
+
+    private static ScheduleSummaryResponse row(long id, int hour) {
+        return new ScheduleSummaryResponse(id, "FB1", DATE.atTime(hour, 0), DATE.atTime(hour + 2, 0),
+                new BigDecimal("5500.00"), "SCHEDULED");
+    }
+
+    @Test
+    void searchSchedulePage_IndexMiss_KeysetPagesFromSummaryQuery() {
+        LocalDateTime endOfDay = DATE.plusDays(1).atStartOfDay();
+        when(scheduleRepository.findScheduleSummaries("DEL", "BOM", DATE.atStartOfDay(), 0L, endOfDay, Limit.of(3)))
+                .thenReturn(List.of(row(1L, 6), row(2L, 9), row(3L, 9)));
+
+        ScheduleSearchPageResponse first = flightService.searchSchedulePage(
+                new ScheduleSearchPageRequest("DEL", "BOM", DATE, 2, null));
+
+        assertEquals(List.of(1L, 2L), first.schedules().stream().map(ScheduleSummaryResponse::id).toList());
+        assertEquals(150, first.schedules().get(0).availableSeats());
+        assertNull(first.schedules().get(1).availableSeats());
+        assertNotNull(first.nextCursor());
+
+        // The next page starts after schedule 2, which shares its departure time with schedule 3
+        when(scheduleRepository.findScheduleSummaries("DEL", "BOM", DATE.atTime(9, 0), 2L, endOfDay, Limit.of(3)))
+                .thenReturn(List.of(row(3L, 9)));
+        ScheduleSearchPageResponse second = flightService.searchSchedulePage(
+                new ScheduleSearchPageRequest("DEL", "BOM", DATE, 2, first.nextCursor()));
+
+        assertEquals(List.of(3L), second.schedules().stream().map(ScheduleSummaryResponse::id).toList());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void searchSchedulePage_IndexHit_PagesWithoutQueries() {
+        Flight flight = TestFixtures.flight(1L, "DEL", "BOM", TestFixtures.plane(1L, 180));
+        List<Schedule> schedules = List.of(
+                TestFixtures.schedule(1L, flight, DATE.atTime(6, 0)),
+                TestFixtures.schedule(2L, flight, DATE.atTime(9, 0)),
+                TestFixtures.schedule(3L, flight, DATE.atTime(12, 0)));
+        when(scheduleRepository.findScheduledDepartingFrom(any(LocalDateTime.class))).thenReturn(schedules);
+        scheduleSearchIndex.build();
+
+        ScheduleSearchPageResponse first = flightService.searchSchedulePage(
+                new ScheduleSearchPageRequest("del", "bom", DATE, 2, null));
+        ScheduleSearchPageResponse second = flightService.searchSchedulePage(
+                new ScheduleSearchPageRequest("DEL", "BOM", DATE, 2, first.nextCursor()));
+
+        assertEquals(List.of(1L, 2L), first.schedules().stream().map(ScheduleSummaryResponse::id).toList());
+        assertEquals("FB1", first.schedules().get(0).flightNumber());
+        assertEquals(List.of(3L), second.schedules().stream().map(ScheduleSummaryResponse::id).toList());
+        assertNull(second.nextCursor());
+        // A route the built index does not hold has no schedules: an empty page, still without a query
+        assertTrue(flightService.searchSchedulePage(
+                new ScheduleSearchPageRequest("BOM", "DEL", DATE, 2, null)).schedules().isEmpty());
+        verify(scheduleRepository, never()).findScheduleSummaries(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void searchSchedulePage_CursorOfAnotherDate_IsRejected() {
+        String otherDay = new FlightDetailsServiceImpl.SearchCursor(DATE.plusDays(1).atTime(6, 0), 1L).encode();
+
+        assertThrows(InvalidSearchCursorException.class, () -> flightService.searchSchedulePage(
+                new ScheduleSearchPageRequest("DEL", "BOM", DATE, 2, otherDay)));
+        assertThrows(InvalidSearchCursorException.class, () -> flightService.searchSchedulePage(
+                new ScheduleSearchPageRequest("DEL", "BOM", DATE, 2, "not-a-cursor")));
+    }
+}
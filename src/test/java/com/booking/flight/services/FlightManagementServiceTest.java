@@ -0,0 +1,58 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.RecurringScheduleRequest;
+import com.booking.flight.models.Flight;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.models.SeatState;
+import com.booking.flight.support.TestFixtures;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlightManagementServiceTest {
+
+    // Only generateSchedules is exercised here; it needs none of the collaborators
+    private final FlightManagementService managementService =
+            new FlightManagementService(null, null, null, null, null, null, null, null, null);
+
+    private final Flight flight = TestFixtures.flight(1L, "DEL", "BOM", TestFixtures.plane(1L, 180));
+    // Monday 2030-01-07 .. Sunday 2030-01-20: two weeks
+    private final LocalDate monday = LocalDate.of(2030, 1, 7);
+    private final RecurringScheduleRequest mondaysAndFridays = new RecurringScheduleRequest(1L,
+            Set.of(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), monday, monday.plusDays(13),
+            LocalTime.of(22, 30), 150, new BigDecimal("4999.00"));
+
+    @Test
+    void generateSchedules_OnePerMatchingDayInOrder() {
+        List<Schedule> schedules = managementService.generateSchedules(flight, mondaysAndFridays, Set.of(),
+                monday.atStartOfDay());
+
+        assertEquals(List.of(monday, monday.plusDays(4), monday.plusDays(7), monday.plusDays(11)),
+                schedules.stream().map(schedule -> schedule.getDepartureTime().toLocalDate()).toList());
+        Schedule first = schedules.get(0);
+        // Overnight arrival is derived from the duration
+        assertEquals(monday.plusDays(1).atTime(1, 0), first.getArrivalTime());
+        assertEquals("SCHEDULED", first.getStatus());
+        assertEquals(180, first.getSeatInventory().count(SeatState.AVAILABLE));
+    }
+
+    @Test
+    void generateSchedules_SkipsExistingAndPastDepartures() {
+        LocalDateTime existing = monday.plusDays(4).atTime(22, 30);
+        // "now" is after the first Monday departure
+        LocalDateTime now = monday.atTime(23, 0);
+
+        List<Schedule> schedules = managementService.generateSchedules(flight, mondaysAndFridays, Set.of(existing), now);
+
+        assertEquals(List.of(monday.plusDays(7), monday.plusDays(11)),
+                schedules.stream().map(schedule -> schedule.getDepartureTime().toLocalDate()).toList());
+    }
+}
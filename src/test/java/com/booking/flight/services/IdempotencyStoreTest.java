@@ -0,0 +1,109 @@
+package com.booking.flight.services;
+
+import com.aerospike.client.*;
+import com.aerospike.client.Record;
+import com.aerospike.client.policy.RecordExistsAction;
+import com.aerospike.client.policy.WritePolicy;
+import com.booking.flight.config.aeroSpikeConfig.AerospikeConfiguration;
+import com.booking.flight.dto.BookingRequest;
+import com.booking.flight.dto.response.BookingResponse;
+import com.booking.flight.exception.IdempotencyKeyInUseException;
+import com.booking.flight.exception.IdempotencyKeyMismatchException;
+import com.booking.flight.exception.InvalidIdempotencyKeyException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyStoreTest {
+
+    private static final String NAMESPACE = "test_namespace";
+    private static final String IDEMPOTENCY_KEY = "retry-1";
+
+    @Mock
+    private AerospikeClient aerospikeClient;
+    @Mock
+    private AerospikeConfiguration aerospikeConfig;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final BookingRequest request = new BookingRequest(100L, List.of("001", "002"), 200L);
+    private final Key key = new Key(NAMESPACE, "idempotency_keys", IDEMPOTENCY_KEY);
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(aerospikeConfig.getNamespace()).thenReturn(NAMESPACE);
+        store = new IdempotencyStore(aerospikeClient, new WritePolicy(), aerospikeConfig, objectMapper, 86400, 60, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    private void keyAlreadyClaimed() {
+        doThrow(new AerospikeException(ResultCode.KEY_EXISTS_ERROR))
+                .when(aerospikeClient).put(any(WritePolicy.class), eq(key), any(Bin[].class));
+    }
+
+    @Test
+    void begin_NewKey_ClaimedWithExpiringMarker() {
+        assertEquals(Optional.empty(), store.begin(IDEMPOTENCY_KEY, request));
+
+        verify(aerospikeClient).put(argThat(policy -> policy.recordExistsAction == RecordExistsAction.CREATE_ONLY
+                && policy.expiration == 60), eq(key), any(Bin[].class));
+    }
+
+    @Test
+    void begin_CompletedKey_ReplaysStoredResponse() throws Exception {
+        List<BookingResponse> bookings = List.of(new BookingResponse(1L, 100L, 200L, "001", "CONFIRMED",
+                LocalDateTime.of(2030, 1, 7, 6, 0), "REF-1"));
+        keyAlreadyClaimed();
+        when(aerospikeClient.get(null, key)).thenReturn(new Record(Map.of(
+                "request", IdempotencyStore.fingerprint(request),
+                "status", 201L,
+                "body", objectMapper.writeValueAsString(bookings)), 1, 0));
+
+        assertEquals(Optional.of(new IdempotencyStore.StoredResponse(201, bookings)), store.begin(IDEMPOTENCY_KEY, request));
+    }
+
+    @Test
+    void begin_KeyOfDifferentRequest_Rejected() {
+        keyAlreadyClaimed();
+        when(aerospikeClient.get(null, key)).thenReturn(new Record(Map.of("request", "100:999:001"), 1, 0));
+
+        assertThrows(IdempotencyKeyMismatchException.class, () -> store.begin(IDEMPOTENCY_KEY, request));
+    }
+
+    @Test
+    void begin_KeyStillInProgress_InUse() {
+        keyAlreadyClaimed();
+        when(aerospikeClient.get(null, key)).thenReturn(new Record(Map.of("request", IdempotencyStore.fingerprint(request)), 1, 0));
+
+        assertThrows(IdempotencyKeyInUseException.class, () -> store.begin(IDEMPOTENCY_KEY, request));
+        // Reported right away, without waiting for the first request
+        verify(aerospikeClient, times(1)).get(null, key);
+    }
+
+    @Test
+    void begin_BlankKey_RejectedWithoutAerospikeCall() {
+        assertThrows(InvalidIdempotencyKeyException.class, () -> store.begin(" ", request));
+
+        verifyNoInteractions(aerospikeClient);
+    }
+}
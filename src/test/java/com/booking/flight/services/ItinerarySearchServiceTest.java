@@ -0,0 +1,119 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.ItinerarySearchRequest;
+import com.booking.flight.dto.response.ItineraryResponse;
+import com.booking.flight.dto.response.ScheduleResponse;
+import com.booking.flight.exception.SearchIndexUnavailableException;
+import com.booking.flight.models.Flight;
+import com.booking.flight.models.Plane;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.repository.ScheduleRepository;
+import com.booking.flight.support.TestFixtures;
+import com.booking.flight.util.EntityToDtoConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItinerarySearchServiceTest {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(3);
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+    @Mock
+    private SeatAvailabilityCounter seatAvailabilityCounter;
+
+    private ScheduleSearchIndex scheduleSearchIndex;
+    private ItinerarySearchService itinerarySearchService;
+    private final List<Schedule> schedules = new ArrayList<>();
+    private final Plane plane = TestFixtures.plane(1L, 180);
+
+    @BeforeEach
+    void setUp() {
+        scheduleSearchIndex = new ScheduleSearchIndex(scheduleRepository, new EntityToDtoConverter());
+        // 45 minutes to connect, 90 at BOM; at most 4 hours on the ground
+        itinerarySearchService = new ItinerarySearchService(scheduleSearchIndex, seatAvailabilityCounter,
+                45, "bom=90", 240, 20);
+        lenient().when(seatAvailabilityCounter.availableSeats(anyList())).thenReturn(Map.of());
+    }
+
+    private void schedule(long id, String origin, String destination, LocalTime departure, LocalTime arrival) {
+        Flight flight = TestFixtures.flight(id, origin, destination, plane);
+        Schedule schedule = TestFixtures.schedule(id, flight, DATE.atTime(departure));
+        schedule.setArrivalTime(DATE.atTime(arrival));
+        schedules.add(schedule);
+    }
+
+    private void buildIndex() {
+        when(scheduleRepository.findScheduledDepartingFrom(any(LocalDateTime.class))).thenReturn(schedules);
+        scheduleSearchIndex.build();
+    }
+
+    private List<ItineraryResponse> search(String origin, String destination, Integer maxStops) {
+        return itinerarySearchService.searchItineraries(new ItinerarySearchRequest(origin, destination, DATE, maxStops));
+    }
+
+    private static List<List<Long>> legIds(List<ItineraryResponse> itineraries) {
+        return itineraries.stream().map(i -> i.legs().stream().map(ScheduleResponse::id).toList()).toList();
+    }
+
+    @Test
+    void search_DirectAndConnectingItineraries_RankedByArrival() {
+        schedule(1L, "DEL", "BLR", LocalTime.of(15, 0), LocalTime.of(18, 0));
+        schedule(2L, "DEL", "BOM", LocalTime.of(8, 0), LocalTime.of(10, 0));
+        schedule(3L, "BOM", "BLR", LocalTime.of(11, 0), LocalTime.of(12, 30)); // 60 min at BOM: too short
+        schedule(4L, "BOM", "BLR", LocalTime.of(12, 0), LocalTime.of(13, 30));
+        schedule(5L, "BOM", "BLR", LocalTime.of(16, 0), LocalTime.of(17, 30)); // 6 hours at BOM: too long
+        schedule(6L, "BOM", "HYD", LocalTime.of(11, 30), LocalTime.of(12, 45));
+        schedule(7L, "HYD", "BLR", LocalTime.of(13, 30), LocalTime.of(14, 30));
+        buildIndex();
+
+        List<ItineraryResponse> itineraries = search("del", "blr", null);
+
+        assertEquals(List.of(List.of(2L, 4L), List.of(2L, 6L, 7L), List.of(1L)), legIds(itineraries));
+        ItineraryResponse first = itineraries.get(0);
+        assertEquals(List.of("DEL", "BOM", "BLR"), first.airports());
+        assertEquals(1, first.stops());
+        assertEquals(330, first.durationMinutes());
+        assertEquals(0, first.totalBasePrice().compareTo(new BigDecimal("11000.00")));
+
+        assertEquals(List.of(List.of(2L, 4L), List.of(1L)), legIds(search("DEL", "BLR", 1)));
+        assertEquals(List.of(List.of(1L)), legIds(search("DEL", "BLR", 0)));
+    }
+
+    @Test
+    void search_SoldOutLeg_ItineraryReplacedByNextBest() {
+        schedule(1L, "DEL", "BLR", LocalTime.of(15, 0), LocalTime.of(18, 0));
+        schedule(2L, "DEL", "BOM", LocalTime.of(8, 0), LocalTime.of(10, 0));
+        schedule(4L, "BOM", "BLR", LocalTime.of(12, 0), LocalTime.of(13, 30));
+        buildIndex();
+        when(seatAvailabilityCounter.availableSeats(anyList())).thenReturn(Map.of(1L, 12, 2L, 40, 4L, 0));
+
+        List<ItineraryResponse> itineraries = search("DEL", "BLR", null);
+
+        assertEquals(List.of(List.of(1L)), legIds(itineraries));
+        assertEquals(12, itineraries.get(0).legs().get(0).availableSeats());
+    }
+
+    @Test
+    void search_BeforeIndexIsBuilt_IsUnavailable() {
+        assertThrows(SearchIndexUnavailableException.class, () -> search("DEL", "BLR", null));
+        verifyNoInteractions(scheduleRepository);
+    }
+}
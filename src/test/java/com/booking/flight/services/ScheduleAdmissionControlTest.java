@@ -0,0 +1,106 @@
+package com.booking.flight.services;
+
+import com.booking.flight.exception.ScheduleBusyException;
+import com.booking.flight.metrics.BookingMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScheduleAdmissionControlTest {
+
+    private static final Long HOT = 1L;
+    private static final Long OTHER = 2L;
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Engages above 3 requests/s; then 1 request/s, bursts of 1, two waiting places, 10 s cool-down
+    private final ScheduleAdmissionControl admissionControl =
+            new ScheduleAdmissionControl(true, 3, 1, 1, 2, 10, new BookingMetrics(meterRegistry));
+
+    private ScheduleBusyException rejected(Long scheduleId, String ticket, long now) {
+        return assertThrows(ScheduleBusyException.class, () -> admissionControl.admit(scheduleId, ticket, now));
+    }
+
+    private void rush() {
+        for (int i = 0; i < 5; i++) {
+            // The 4th request engages the gate; it and the 5th (the burst token) still get in
+            admissionControl.admit(HOT, null, 0);
+        }
+    }
+
+    @Test
+    void admit_RushedSchedule_QueuesThenRejectsWithoutHoldingBackOthers() {
+        rush();
+
+        ScheduleBusyException first = rejected(HOT, null, 0);
+        assertNotNull(first.getTicket());
+        assertEquals(1, first.getPosition());
+        assertEquals(first.getTicket(), first.getHeaders().getFirst(ScheduleBusyException.TICKET_HEADER));
+        assertEquals(2, rejected(HOT, null, 0).getPosition());
+        // Waiting room full: no ticket, just Retry-After
+        ScheduleBusyException full = rejected(HOT, null, 0);
+        assertNull(full.getTicket());
+        assertEquals("2", full.getHeaders().getFirst("Retry-After"));
+
+        assertDoesNotThrow(() -> admissionControl.admit(OTHER, null, 0));
+        assertEquals(2, meterRegistry.get("booking.admission").tag("result", "queued").counter().count());
+        assertEquals(1, meterRegistry.get("booking.admission").tag("result", "rejected").counter().count());
+    }
+
+    @Test
+    void admit_TicketsCalledInOrderAsTokensComeIn() {
+        rush();
+        String first = rejected(HOT, null, 0).getTicket();
+        String second = rejected(HOT, null, 0).getTicket();
+
+        // One token a second: the first ticket is called after a second, the second is then first in line
+        assertDoesNotThrow(() -> admissionControl.admit(HOT, first, SECOND));
+        assertEquals(1, rejected(HOT, second, SECOND).getPosition());
+        // A new arrival queues behind the second ticket
+        assertEquals(2, rejected(HOT, null, SECOND).getPosition());
+        assertDoesNotThrow(() -> admissionControl.admit(HOT, second, 2 * SECOND));
+    }
+
+    @Test
+    void admit_TicketIsSingleUseAndCannotBeForged() {
+        rush();
+        String ticket = rejected(HOT, null, 0).getTicket();
+
+        assertDoesNotThrow(() -> admissionControl.admit(HOT, ticket, SECOND));
+        // Used once: sending it again counts as arriving without a ticket
+        ScheduleBusyException reused = rejected(HOT, ticket, SECOND);
+        assertNotEquals(ticket, reused.getTicket());
+        // Made-up tickets and tickets of other schedules are unknown as well
+        assertNotEquals("1", rejected(HOT, "1", SECOND).getTicket());
+        assertNull(rejected(HOT, reused.getTicket() + "x", SECOND).getTicket());
+    }
+
+    @Test
+    void admit_TicketsOfAnEarlierRush_NotHonoured() {
+        rush();
+        String ticket = rejected(HOT, null, 0).getTicket();
+        // Never used; the gate opens after the cool-down, then the schedule is rushed again
+        assertDoesNotThrow(() -> admissionControl.admit(HOT, null, 20 * SECOND));
+        for (int i = 0; i < 5; i++) {
+            admissionControl.admit(HOT, null, 30 * SECOND);
+        }
+
+        ScheduleBusyException stale = rejected(HOT, ticket, 30 * SECOND);
+        assertNotEquals(ticket, stale.getTicket());
+        assertEquals(1, stale.getPosition());
+    }
+
+    @Test
+    void admit_QuietAfterCoolDown_GateOpensAgain() {
+        rush();
+        rejected(HOT, null, 0);
+
+        for (int i = 0; i < 3; i++) {
+            long now = 20 * SECOND;
+            assertDoesNotThrow(() -> admissionControl.admit(HOT, null, now));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.response.FlightResponse;
+import com.booking.flight.dto.response.ScheduleResponse;
+import com.booking.flight.models.Flight;
+import com.booking.flight.models.Plane;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.repository.ScheduleRepository;
+import com.booking.flight.support.TestFixtures;
+import com.booking.flight.util.EntityToDtoConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ScheduleSearchIndexTest {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(3);
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+
+    private EntityToDtoConverter converter;
+    private ScheduleSearchIndex scheduleSearchIndex;
+    private Flight flight;
+
+    @BeforeEach
+    void setUp() {
+        converter = new EntityToDtoConverter();
+        scheduleSearchIndex = new ScheduleSearchIndex(scheduleRepository, converter);
+        flight = TestFixtures.flight(1L, "DEL", "BOM", TestFixtures.plane(1L, 180));
+    }
+
+    @Test
+    void find_BeforeBuild_FallsBackToDatabase() {
+        scheduleSearchIndex.put(TestFixtures.schedule(1L, flight, DATE.atTime(9, 0)));
+
+        assertTrue(scheduleSearchIndex.find("DEL", "BOM", DATE).isEmpty());
+    }
+
+    @Test
+    void find_AfterBuild_ReturnsSummariesInDepartureOrder() {
+        Schedule late = TestFixtures.schedule(1L, flight, DATE.atTime(18, 0));
+        Schedule early = TestFixtures.schedule(2L, flight, DATE.atTime(6, 0));
+        Schedule nextDay = TestFixtures.schedule(3L, flight, DATE.plusDays(1).atTime(6, 0));
+        when(scheduleRepository.findScheduledDepartingFrom(any(LocalDateTime.class)))
+                .thenReturn(List.of(late, early, nextDay));
+
+        scheduleSearchIndex.build();
+        List<ScheduleResponse> result = scheduleSearchIndex.find("del", "bom", DATE).orElseThrow();
+
+        assertEquals(List.of(2L, 1L), result.stream().map(ScheduleResponse::id).toList());
+        assertNull(result.get(0).seatStatuses());
+        // Built: a route without schedules is answered empty instead of going to the database
+        assertEquals(List.of(), scheduleSearchIndex.find("BOM", "DEL", DATE).orElseThrow());
+        // Departed dates are not held, so those searches still fall back
+        assertTrue(scheduleSearchIndex.find("DEL", "BOM", LocalDate.now().minusDays(1)).isEmpty());
+    }
+
+    @Test
+    void putOnCommit_CancelledSchedule_IsRemoved() {
+        Schedule schedule = TestFixtures.schedule(1L, flight, DATE.atTime(9, 0));
+        when(scheduleRepository.findScheduledDepartingFrom(any(LocalDateTime.class))).thenReturn(List.of(schedule));
+        scheduleSearchIndex.build();
+
+        schedule.setStatus("CANCELLED");
+        scheduleSearchIndex.putOnCommit(schedule);
+
+        assertEquals(List.of(), scheduleSearchIndex.find("DEL", "BOM", DATE).orElseThrow());
+    }
+
+    @Test
+    void refresh_PicksUpSchedulesWrittenElsewhere() {
+        Schedule kept = TestFixtures.schedule(1L, flight, DATE.atTime(9, 0));
+        Schedule cancelledElsewhere = TestFixtures.schedule(2L, flight, DATE.atTime(12, 0));
+        when(scheduleRepository.findScheduledDepartingFrom(any(LocalDateTime.class)))
+                .thenReturn(List.of(kept, cancelledElsewhere));
+        scheduleSearchIndex.build();
+
+        // Another node cancelled schedule 2 and created schedule 3
+        Schedule createdElsewhere = TestFixtures.schedule(3L, flight, DATE.atTime(15, 0));
+        when(scheduleRepository.findScheduledDepartingFrom(any(LocalDateTime.class)))
+                .thenReturn(List.of(kept, createdElsewhere));
+        scheduleSearchIndex.refresh();
+
+        assertEquals(List.of(1L, 3L), scheduleSearchIndex.find("DEL", "BOM", DATE).orElseThrow()
+                .stream().map(ScheduleResponse::id).toList());
+    }
+
+    @Test
+    void fareCalendar_LowestFareOfSchedulesWithSeats_FollowsSellOutsAndCancellations() {
+        Schedule standard = TestFixtures.schedule(1L, flight, DATE.atTime(9, 0));
+        Schedule cheap = TestFixtures.schedule(2L, flight, DATE.atTime(21, 0));
+        cheap.setBasePrice(new BigDecimal("4000.00"));
+        Schedule later = TestFixtures.schedule(3L, flight, DATE.plusDays(2).atTime(9, 0));
+        when(scheduleRepository.findScheduledDepartingFrom(any(LocalDateTime.class)))
+                .thenReturn(List.of(standard, cheap, later));
+        scheduleSearchIndex.build();
+
+        List<FareCalendar.DayFares> days = scheduleSearchIndex.fareCalendar("del", "bom", DATE, DATE.plusDays(3)).orElseThrow();
+        assertEquals(List.of(DATE, DATE.plusDays(2)), days.stream().map(FareCalendar.DayFares::date).toList());
+        assertEquals(new FareCalendar.DayFares(DATE, 2, 2, new BigDecimal("4000.00")), days.get(0));
+
+        scheduleSearchIndex.markSoldOutOnCommit(2L);
+        assertEquals(new FareCalendar.DayFares(DATE, 2, 1, new BigDecimal("5500.00")),
+                scheduleSearchIndex.fareCalendar("DEL", "BOM", DATE, DATE).orElseThrow().get(0));
+
+        standard.setStatus("CANCELLED");
+        scheduleSearchIndex.putOnCommit(standard);
+        assertEquals(new FareCalendar.DayFares(DATE, 1, 0, null),
+                scheduleSearchIndex.fareCalendar("DEL", "BOM", DATE, DATE).orElseThrow().get(0));
+    }
+
+    @Test
+    void updateFlightOnCommit_SwapsPlaneIntoIndexedSchedules() {
+        when(scheduleRepository.findScheduledDepartingFrom(any(LocalDateTime.class)))
+                .thenReturn(List.of(TestFixtures.schedule(1L, flight, DATE.atTime(9, 0))));
+        scheduleSearchIndex.build();
+
+        Plane biggerPlane = TestFixtures.plane(2L, 300);
+        FlightResponse reassigned = converter.toFlightResponse(TestFixtures.flight(1L, "DEL", "BOM", biggerPlane));
+        scheduleSearchIndex.updateFlightOnCommit(reassigned);
+
+        ScheduleResponse result = scheduleSearchIndex.find("DEL", "BOM", DATE).orElseThrow().get(0);
+        assertEquals(300, result.flight().plane().totalSeats());
+    }
+}
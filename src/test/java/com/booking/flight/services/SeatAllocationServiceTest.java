@@ -0,0 +1,123 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.AdjacentSeatsRequest;
+import com.booking.flight.dto.BookingRequest;
+import com.booking.flight.exception.InvalidSeatLayoutException;
+import com.booking.flight.exception.NoAdjacentSeatsException;
+import com.booking.flight.exception.SeatAlreadyReservedException;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.models.SeatInventory;
+import com.booking.flight.models.SeatLayout;
+import com.booking.flight.models.SeatState;
+import com.booking.flight.repository.ScheduleRepository;
+import com.booking.flight.support.TestFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SeatAllocationServiceTest {
+
+    private static final Long SCHEDULE_ID = 100L;
+    // Seats 0-3: 1A 1C | 1D 1F; seats 4-21: rows 10-12 as ABC | DEF
+    private static final SeatLayout LAYOUT = SeatLayout.parse("J:1-1:AC|DF;Y:10-12:ABC|DEF");
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+    @Mock
+    private FlightDetailsServiceImpl flightDetailsService;
+    @Mock
+    private ISeatLockService seatLockService;
+    @Mock
+    private BookingService bookingService;
+
+    private SeatAllocationService seatAllocationService;
+    private Schedule schedule;
+
+    @BeforeEach
+    void setUp() {
+        seatAllocationService = new SeatAllocationService(scheduleRepository, flightDetailsService,
+                seatLockService, bookingService, 100, 60_000);
+        schedule = TestFixtures.schedule(SCHEDULE_ID,
+                TestFixtures.flight(1L, "DEL", "BOM", TestFixtures.plane(1L, LAYOUT)), LocalDateTime.now().plusDays(7));
+        lenient().when(scheduleRepository.findByIdWithFlightDetails(SCHEDULE_ID)).thenReturn(Optional.of(schedule));
+        lenient().when(seatLockService.lockedSeats(SCHEDULE_ID)).thenReturn(List.of());
+    }
+
+    private void seatMapVersion(long version, SeatInventory inventory) {
+        when(flightDetailsService.getScheduleSeats(SCHEDULE_ID))
+                .thenReturn(new SeatMapCache.VersionedSeatMap(version, null, inventory));
+    }
+
+    @Test
+    void findAdjacentSeats_FrontRowOfCabin() {
+        seatMapVersion(1, SeatInventory.allAvailable(LAYOUT.seatCount()));
+
+        assertEquals(List.of("005", "006", "007"), seatAllocationService.findAdjacentSeats(SCHEDULE_ID, 3, "Y", Set.of()));
+        assertEquals(List.of("001", "002"), seatAllocationService.findAdjacentSeats(SCHEDULE_ID, 2, null, Set.of()));
+    }
+
+    @Test
+    void findAdjacentSeats_FollowsNewerSeatMapsAndSkipsLockedSeats() {
+        SeatInventory inventory = SeatInventory.allAvailable(LAYOUT.seatCount());
+        seatMapVersion(1, inventory);
+        seatAllocationService.findAdjacentSeats(SCHEDULE_ID, 3, "Y", Set.of());
+
+        // 10B is booked, 10D is locked by a booking in flight: row 10 cannot seat 3 together
+        seatMapVersion(2, inventory.withState(new int[]{5}, SeatState.BOOKED));
+        when(seatLockService.lockedSeats(SCHEDULE_ID)).thenReturn(List.of("008"));
+
+        assertEquals(List.of("011", "012", "013"), seatAllocationService.findAdjacentSeats(SCHEDULE_ID, 3, "Y", Set.of()));
+        // A pair goes to the smallest run that fits it (10E-10F), keeping row 11 whole
+        assertEquals(List.of("009", "010"), seatAllocationService.findAdjacentSeats(SCHEDULE_ID, 2, "Y", Set.of()));
+    }
+
+    @Test
+    void findAdjacentSeats_PlaneReassigned_SameSeatCountNewLayout() {
+        seatMapVersion(1, SeatInventory.allAvailable(LAYOUT.seatCount()));
+        assertEquals(List.of("005", "006"), seatAllocationService.findAdjacentSeats(SCHEDULE_ID, 2, "Y", Set.of()));
+
+        // Another plane with as many seats, all economy in pairs
+        schedule.getFlight().setPlane(TestFixtures.plane(2L, SeatLayout.parse("Y:1-11:AB")));
+        seatAllocationService.invalidateFlightOnCommit(1L);
+
+        assertEquals(List.of("001", "002"), seatAllocationService.findAdjacentSeats(SCHEDULE_ID, 2, "Y", Set.of()));
+    }
+
+    @Test
+    void findAdjacentSeats_NoFittingBlockOrUnknownCabin() {
+        seatMapVersion(1, SeatInventory.allAvailable(LAYOUT.seatCount()));
+
+        assertThrows(NoAdjacentSeatsException.class,
+                () -> seatAllocationService.findAdjacentSeats(SCHEDULE_ID, 3, "J", Set.of()));
+        assertThrows(InvalidSeatLayoutException.class,
+                () -> seatAllocationService.findAdjacentSeats(SCHEDULE_ID, 2, "F", Set.of()));
+    }
+
+    @Test
+    void bookTogether_SeatsTakenConcurrently_ChoosesOtherSeats() {
+        seatMapVersion(1, SeatInventory.allAvailable(LAYOUT.seatCount()));
+        when(bookingService.createBookings(any(BookingRequest.class)))
+                .thenThrow(new SeatAlreadyReservedException("Seats 005, 006 are already reserved"))
+                .thenReturn(List.of());
+
+        seatAllocationService.bookTogether(new AdjacentSeatsRequest(SCHEDULE_ID, 7L, 2, "Y"));
+
+        ArgumentCaptor<BookingRequest> requests = ArgumentCaptor.forClass(BookingRequest.class);
+        verify(bookingService, times(2)).createBookings(requests.capture());
+        assertEquals(List.of("005", "006"), requests.getAllValues().get(0).seatNumbers());
+        assertEquals(List.of("008", "009"), requests.getAllValues().get(1).seatNumbers());
+    }
+}
@@ -0,0 +1,98 @@
+package com.booking.flight.services;
+
+import com.aerospike.client.*;
+import com.aerospike.client.Record;
+import com.aerospike.client.policy.WritePolicy;
+import com.booking.flight.config.aeroSpikeConfig.AerospikeConfiguration;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.models.SeatState;
+import com.booking.flight.support.TestFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SeatAvailabilityCounterTest {
+
+    @Mock
+    private AerospikeClient aerospikeClient;
+    @Mock
+    private AerospikeConfiguration aerospikeConfig;
+
+    private SeatAvailabilityCounter counter;
+
+    private static final String NAMESPACE = "test_namespace";
+
+    @BeforeEach
+    void setUp() {
+        counter = new SeatAvailabilityCounter(aerospikeClient, new WritePolicy(), aerospikeConfig);
+        lenient().when(aerospikeConfig.getNamespace()).thenReturn(NAMESPACE);
+    }
+
+    @Test
+    void availableSeats_SearchResultsAreOneBatchRead_MissingCountersAreUnknown() {
+        Record counted = new Record(Map.of("available", 42L), 1, 0);
+        when(aerospikeClient.get(isNull(), any(Key[].class), eq("available")))
+                .thenReturn(new Record[]{counted, null});
+
+        Map<Long, Integer> available = counter.availableSeats(List.of(1L, 2L));
+
+        assertEquals(Map.of(1L, 42), available);
+        verify(aerospikeClient, times(1)).get(isNull(), any(Key[].class), eq("available"));
+    }
+
+    @Test
+    void reconcile_WritesFreeSeatsOfEachInventory() {
+        Schedule schedule = TestFixtures.schedule(7L,
+                TestFixtures.flight(1L, "DEL", "BOM", TestFixtures.plane(1L, 180)), LocalDateTime.now().plusDays(3));
+        schedule.setSeatInventory(schedule.getSeatInventory().withState(new int[]{0, 1, 2}, SeatState.BOOKED));
+        when(aerospikeClient.operate(isNull(), anyList())).thenAnswer(invocation -> {
+            List<BatchRecord> writes = invocation.getArgument(1);
+            writes.forEach(write -> write.resultCode = ResultCode.OK);
+            return true;
+        });
+
+        assertEquals(1, counter.reconcile(List.of(schedule)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BatchRecord>> writes = ArgumentCaptor.forClass(List.class);
+        verify(aerospikeClient).operate(isNull(), writes.capture());
+        BatchWrite write = (BatchWrite) writes.getValue().get(0);
+        assertEquals(new Key(NAMESPACE, "seat_availability", "7"), write.key);
+        assertEquals(177, write.ops[0].value.toInteger());
+    }
+
+    @Test
+    void decrementOnCommit_OutsideTransaction_IsOneGuardedWrite() {
+        counter.decrementOnCommit(7L, 2);
+
+        ArgumentCaptor<WritePolicy> policy = ArgumentCaptor.forClass(WritePolicy.class);
+        verify(aerospikeClient).operate(policy.capture(), eq(new Key(NAMESPACE, "seat_availability", "7")),
+                any(Operation[].class));
+        // Never below zero, and the TTL set at initialization is kept
+        assertNotNull(policy.getValue().filterExp);
+        assertEquals(-2, policy.getValue().expiration);
+    }
+
+    @Test
+    void retentionSeconds_KeepsTheCounterUntilADayAfterDeparture() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        assertEquals(2 * 86_400, SeatAvailabilityCounter.retentionSeconds(now.plusDays(1), now));
+        assertEquals(86_400, SeatAvailabilityCounter.retentionSeconds(now.minusDays(5), now));
+    }
+}
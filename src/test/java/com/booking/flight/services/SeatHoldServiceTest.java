@@ -0,0 +1,109 @@
+package com.booking.flight.services;
+
+import com.aerospike.client.*;
+import com.aerospike.client.Record;
+import com.aerospike.client.policy.WritePolicy;
+import com.booking.flight.config.aeroSpikeConfig.AerospikeConfiguration;
+import com.booking.flight.dto.BookingRequest;
+import com.booking.flight.dto.response.HoldResponse;
+import com.booking.flight.exception.HoldExpiredException;
+import com.booking.flight.exception.HoldNotFoundException;
+import com.booking.flight.exception.SeatAlreadyReservedException;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.support.TestFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SeatHoldServiceTest {
+
+    @Mock
+    private AerospikeClient aerospikeClient;
+    @Mock
+    private WritePolicy aerospikeLockingPolicy;
+    @Mock
+    private AerospikeConfiguration aerospikeConfig;
+    @Mock
+    private BookingService bookingService;
+
+    @InjectMocks
+    private SeatHoldService seatHoldService;
+
+    private static final String NAMESPACE = "test_namespace";
+    private static final String HOLD_ID = "hold-1";
+    private static final Long SCHEDULE_ID = 100L;
+    private final List<String> seats = List.of("001", "002");
+    private final Key holdKey = new Key(NAMESPACE, "seat_holds", HOLD_ID);
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(aerospikeConfig.getNamespace()).thenReturn(NAMESPACE);
+        lenient().when(aerospikeConfig.getHoldTtlSeconds()).thenReturn(600);
+    }
+
+    @Test
+    void createHold_SeatsLeasedByOthers_NoHoldStored() {
+        Schedule schedule = TestFixtures.schedule(SCHEDULE_ID,
+                TestFixtures.flight(1L, "DEL", "BOM", TestFixtures.plane(1L, 180)), LocalDateTime.now().plusDays(1));
+        when(bookingService.loadSchedule(SCHEDULE_ID)).thenReturn(schedule);
+        when(aerospikeClient.operate(eq(aerospikeLockingPolicy), any(Key.class), any(Operation[].class)))
+                .thenThrow(new AerospikeException(ResultCode.ELEMENT_EXISTS));
+
+        assertThrows(SeatAlreadyReservedException.class, () ->
+                seatHoldService.createHold(new BookingRequest(SCHEDULE_ID, seats, 200L)));
+
+        verify(aerospikeClient, never()).put(any(), any(), any(Bin[].class));
+    }
+
+    @Test
+    void confirmHold_UnknownHold_NotFound() {
+        when(aerospikeClient.get(null, holdKey)).thenReturn(null);
+
+        assertThrows(HoldNotFoundException.class, () -> seatHoldService.confirmHold(HOLD_ID));
+    }
+
+    @Test
+    void confirmHold_LeasePastExpiry_GoneAndNothingPersisted() {
+        long expired = System.currentTimeMillis() - 1_000;
+        when(aerospikeClient.get(null, holdKey)).thenReturn(holdRecord(expired));
+
+        assertThrows(HoldExpiredException.class, () -> seatHoldService.confirmHold(HOLD_ID));
+
+        verify(bookingService, never()).persistBookings(any(), any(), any());
+    }
+
+    @Test
+    void confirmHold_SeatReleasedAndRelocked_Gone() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        when(aerospikeClient.get(null, holdKey)).thenReturn(holdRecord(expiresAt));
+        // The second seat now carries another holder's lease
+        Record ledger = new Record(Map.of("locks", List.of(List.of(expiresAt, HOLD_ID), List.of(expiresAt, "hold-2"))), 1, 0);
+        when(aerospikeClient.operate(isNull(), any(Key.class), any(Operation[].class))).thenReturn(ledger);
+
+        assertThrows(HoldExpiredException.class, () -> seatHoldService.confirmHold(HOLD_ID));
+
+        verify(bookingService, never()).persistBookings(any(), any(), any());
+    }
+
+    private Record holdRecord(long expiresAtMillis) {
+        return new Record(Map.of(
+                "schedule_id", SCHEDULE_ID,
+                "user_id", 200L,
+                "seats", seats,
+                "expires_at", expiresAtMillis), 1, 600);
+    }
+}
@@ -0,0 +1,145 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.BookingRequest;
+import com.booking.flight.dto.response.BookingResponse;
+import com.booking.flight.exception.BookingPersistenceException;
+import com.booking.flight.exception.InvalidSeatException;
+import com.booking.flight.exception.SeatAlreadyReservedException;
+import com.booking.flight.metrics.BookingMetrics;
+import com.booking.flight.metrics.BookingTimings;
+import com.booking.flight.models.Booking;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.support.InMemorySeatLockService;
+import com.booking.flight.support.TestFixtures;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SeatInventoryEngineTest {
+
+    @Mock
+    private BookingService bookingService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final InMemorySeatLockService seatLockService = new InMemorySeatLockService();
+    private SeatInventoryEngine engine;
+
+    private static final Long SCHEDULE_ID = 100L;
+    private Schedule schedule;
+
+    @BeforeEach
+    void setUp() {
+        // Persist inline: the future is complete once the partition thread has run the command
+        engine = new SeatInventoryEngine(bookingService, seatLockService, transactionTemplate, Runnable::run,
+                new BookingMetrics(new SimpleMeterRegistry()), 2, 0);
+
+        schedule = TestFixtures.schedule(SCHEDULE_ID,
+                TestFixtures.flight(1L, "DEL", "BOM", TestFixtures.plane(1L, 180)), LocalDateTime.now().plusDays(1));
+        when(bookingService.loadSchedule(SCHEDULE_ID)).thenReturn(schedule);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void createBookings_SecondRequestForTakenSeat_RejectedWithoutPersistence() {
+        BookingRequest first = new BookingRequest(SCHEDULE_ID, List.of("001", "002"), 1L);
+        BookingRequest second = new BookingRequest(SCHEDULE_ID, List.of("002", "003"), 2L);
+        when(bookingService.persistBookings(any(), eq(first), any())).thenReturn(List.of(booking("001"), booking("002")));
+
+        List<BookingResponse> booked = engine.createBookings(first, new BookingTimings()).join();
+        CompletionException failure = assertThrows(CompletionException.class, () ->
+                engine.createBookings(second, new BookingTimings()).join());
+
+        assertEquals(2, booked.size());
+        assertInstanceOf(SeatAlreadyReservedException.class, failure.getCause());
+        verify(bookingService, never()).persistBookings(any(), eq(second), any());
+    }
+
+    @Test
+    void createBookings_PersistenceFailure_HandsSeatsBack() {
+        BookingRequest request = new BookingRequest(SCHEDULE_ID, List.of("001"), 1L);
+        when(bookingService.persistBookings(any(), eq(request), any()))
+                .thenThrow(new BookingPersistenceException("Failed to save bookings to MariaDB.", new RuntimeException()))
+                .thenReturn(List.of(booking("001")));
+
+        CompletionException failure = assertThrows(CompletionException.class, () ->
+                engine.createBookings(request, new BookingTimings()).join());
+        List<BookingResponse> retried = engine.createBookings(request, new BookingTimings()).join();
+
+        assertInstanceOf(BookingPersistenceException.class, failure.getCause());
+        assertEquals(1, retried.size());
+    }
+
+    @Test
+    void createBookings_SeatLeasedElsewhere_HandsSeatsBackWithoutPersistence() {
+        BookingRequest request = new BookingRequest(SCHEDULE_ID, List.of("001", "002"), 1L);
+        // A hold on seat 002, taken outside the engine
+        SeatLease hold = seatLockService.acquireLocks(SCHEDULE_ID, List.of("002"), 9L);
+
+        CompletionException failure = assertThrows(CompletionException.class, () ->
+                engine.createBookings(request, new BookingTimings()).join());
+        seatLockService.releaseLocks(hold);
+        when(bookingService.persistBookings(any(), eq(request), any())).thenReturn(List.of(booking("001"), booking("002")));
+        List<BookingResponse> retried = engine.createBookings(request, new BookingTimings()).join();
+
+        assertInstanceOf(SeatAlreadyReservedException.class, failure.getCause());
+        assertEquals(2, retried.size());
+        assertEquals(0, seatLockService.lockedSeatCount(SCHEDULE_ID));
+        verify(bookingService, times(1)).persistBookings(any(), eq(request), any());
+    }
+
+    @Test
+    void createBookings_DuplicateSeat_Rejected() {
+        BookingRequest request = new BookingRequest(SCHEDULE_ID, List.of("001", "001"), 1L);
+
+        CompletionException failure = assertThrows(CompletionException.class, () ->
+                engine.createBookings(request, new BookingTimings()).join());
+
+        assertInstanceOf(InvalidSeatException.class, failure.getCause());
+        assertEquals(0, seatLockService.lockedSeatCount(SCHEDULE_ID));
+        verify(bookingService, never()).persistBookings(any(), any(), any());
+    }
+
+    @Test
+    void evictIdle_DropsScheduleUntilItsNextBooking() {
+        BookingRequest request = new BookingRequest(SCHEDULE_ID, List.of("001"), 1L);
+        when(bookingService.persistBookings(any(), eq(request), any())).thenReturn(List.of(booking("001")));
+        engine.createBookings(request, new BookingTimings()).join();
+
+        engine.evictIdle(System.nanoTime() + TimeUnit.HOURS.toNanos(1));
+        engine.createBookings(new BookingRequest(SCHEDULE_ID, List.of("002"), 2L), new BookingTimings()).join();
+
+        // Once by each booking's transaction, once by each cold load
+        verify(bookingService, times(4)).loadSchedule(SCHEDULE_ID);
+    }
+
+    private Booking booking(String seatNumber) {
+        Booking booking = new Booking();
+        booking.setSchedule(schedule);
+        booking.setSeatNumber(seatNumber);
+        return booking;
+    }
+}
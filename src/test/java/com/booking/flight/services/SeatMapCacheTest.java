@@ -0,0 +1,74 @@
+package com.booking.flight.services;
+
+import com.booking.flight.models.SeatInventory;
+import com.booking.flight.models.SeatState;
+import com.booking.flight.util.EntityToDtoConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeatMapCacheTest {
+
+    private static final Long SCHEDULE_ID = 100L;
+
+    private SeatMapCache seatMapCache;
+    private AtomicInteger loads;
+    private Function<Long, SeatInventory> loader;
+
+    @BeforeEach
+    void setUp() {
+        seatMapCache = new SeatMapCache(new EntityToDtoConverter(), 100, 0);
+        loads = new AtomicInteger();
+        loader = id -> {
+            loads.incrementAndGet();
+            return SeatInventory.allAvailable(3);
+        };
+    }
+
+    @Test
+    void get_LoadsOnceAndServesSameVersion() {
+        SeatMapCache.VersionedSeatMap first = seatMapCache.get(SCHEDULE_ID, loader);
+        SeatMapCache.VersionedSeatMap second = seatMapCache.get(SCHEDULE_ID, loader);
+
+        assertEquals(1, loads.get());
+        assertSame(first, second);
+        assertEquals("AVAILABLE", first.seatMap().getSeatStatuses().get("001"));
+    }
+
+    @Test
+    void updateOnCommit_WithoutTransaction_ReplacesEntryWithNewVersion() {
+        SeatMapCache.VersionedSeatMap before = seatMapCache.get(SCHEDULE_ID, loader);
+
+        seatMapCache.updateOnCommit(SCHEDULE_ID, SeatInventory.allAvailable(3).withState(new int[]{1}, SeatState.BOOKED));
+        SeatMapCache.VersionedSeatMap after = seatMapCache.get(SCHEDULE_ID, loader);
+
+        assertEquals(1, loads.get());
+        assertNotEquals(before.eTag(), after.eTag());
+        assertEquals("BOOKED", after.seatMap().getSeatStatuses().get("002"));
+    }
+
+    @Test
+    void invalidate_ReloadsUnderNewETag() {
+        SeatMapCache.VersionedSeatMap before = seatMapCache.get(SCHEDULE_ID, loader);
+
+        seatMapCache.invalidate(SCHEDULE_ID);
+        SeatMapCache.VersionedSeatMap after = seatMapCache.get(SCHEDULE_ID, loader);
+
+        assertEquals(2, loads.get());
+        assertNotEquals(before.eTag(), after.eTag());
+    }
+
+    @Test
+    void binaryRepresentation_IsThePackedInventoryUnderItsOwnETag() {
+        seatMapCache.updateOnCommit(SCHEDULE_ID, SeatInventory.allAvailable(3).withState(new int[]{1}, SeatState.BOOKED));
+        SeatMapCache.VersionedSeatMap seatMap = seatMapCache.get(SCHEDULE_ID, loader);
+
+        // 2-byte seat count, then seat 002 (code 1) in bits 2-3 of the first packed byte
+        assertArrayEquals(new byte[]{0, 3, 0b0100}, seatMap.inventory().toBytes());
+        assertNotEquals(seatMap.eTag(), seatMap.binaryETag());
+    }
+}
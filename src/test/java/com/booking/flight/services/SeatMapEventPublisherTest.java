@@ -0,0 +1,189 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.response.SeatMapResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SeatMapEventPublisherTest {
+
+    private static final Long SCHEDULE_ID = 100L;
+
+    @Mock
+    private FlightDetailsServiceImpl flightService;
+
+    private SeatMapEventPublisher publisher;
+
+    /**
+     * Records the events written to it instead of writing to a response.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        final BlockingQueue<Set<DataWithMediaType>> events = new LinkedBlockingQueue<>();
+        final CountDownLatch writable;
+        volatile boolean broken;
+        volatile boolean completed;
+
+        RecordingEmitter() {
+            this(new CountDownLatch(0));
+        }
+
+        // A client that stops reading: every write blocks until the latch opens
+        RecordingEmitter(CountDownLatch writable) {
+            this.writable = writable;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            try {
+                writable.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            if (broken) {
+                throw new IOException("Broken pipe");
+            }
+            events.add(items);
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        String next() throws InterruptedException {
+            Set<DataWithMediaType> event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "no event received");
+            return event.stream().map(item -> item.getData().toString()).collect(Collectors.joining());
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        publisher = new SeatMapEventPublisher(flightService, new ObjectMapper(), 0, 2, 2, 5000);
+        SeatMapResponse seatMap = new SeatMapResponse(SCHEDULE_ID, Map.of("001", "AVAILABLE", "002", "BOOKED"));
+        lenient().when(flightService.getScheduleSeats(SCHEDULE_ID)).thenReturn(new SeatMapCache.VersionedSeatMap(1, seatMap, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    void subscribe_SnapshotThenDeltas_SerializedOnceForAllSubscribers() throws Exception {
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        publisher.subscribe(SCHEDULE_ID, first);
+        publisher.subscribe(SCHEDULE_ID, second);
+        assertTrue(first.next().contains("event:snapshot"));
+        assertTrue(second.next().contains("event:snapshot"));
+
+        publisher.publish(SCHEDULE_ID, List.of("001"), SeatMapEventPublisher.LOCKED);
+
+        Set<DataWithMediaType> delivered = first.events.poll(5, TimeUnit.SECONDS);
+        assertSame(delivered, second.events.poll(5, TimeUnit.SECONDS));
+        String event = delivered.stream().map(item -> item.getData().toString()).collect(Collectors.joining());
+        assertTrue(event.contains("event:delta"));
+        assertTrue(event.contains("{\"scheduleId\":100,\"seatStatuses\":{\"001\":\"LOCKED\"}}"));
+        // Both snapshots came from the seat map cache; the delta needed no read at all
+        verify(flightService, times(2)).getScheduleSeats(SCHEDULE_ID);
+    }
+
+    @Test
+    void publishReleased_TakesStatusFromCurrentSeatMap() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        publisher.subscribe(SCHEDULE_ID, emitter);
+        emitter.next();
+
+        // Seat 002 was booked by someone else while our booking held its lock
+        publisher.publishReleased(SCHEDULE_ID, List.of("001", "002"));
+
+        assertTrue(emitter.next().contains("{\"001\":\"AVAILABLE\",\"002\":\"BOOKED\"}"));
+    }
+
+    @Test
+    void brokenSubscriberIsDropped_ThenPublishingDoesNoWork() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        publisher.subscribe(SCHEDULE_ID, emitter);
+        emitter.next();
+        emitter.broken = true;
+
+        publisher.publish(SCHEDULE_ID, List.of("001"), SeatMapEventPublisher.LOCKED);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (publisher.subscriberCount(SCHEDULE_ID) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, publisher.subscriberCount(SCHEDULE_ID));
+
+        // Without subscribers a release does not even read the seat map
+        publisher.publishReleased(SCHEDULE_ID, List.of("001"));
+        verify(flightService, times(1)).getScheduleSeats(SCHEDULE_ID);
+    }
+
+    @Test
+    void slowSubscriberIsDroppedWhenItsQueueFills_OthersKeepReceiving() throws Exception {
+        CountDownLatch writable = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(writable);
+        RecordingEmitter fast = new RecordingEmitter();
+        publisher.subscribe(SCHEDULE_ID, slow);
+        publisher.subscribe(SCHEDULE_ID, fast);
+        fast.next();
+
+        // The slow subscriber is stuck writing its snapshot; its queue holds two events
+        for (String seat : List.of("001", "002", "003", "004")) {
+            publisher.publish(SCHEDULE_ID, List.of(seat), SeatMapEventPublisher.LOCKED);
+            assertTrue(fast.next().contains("\"" + seat + "\":\"LOCKED\""));
+        }
+        assertEquals(1, publisher.subscriberCount(SCHEDULE_ID));
+        writable.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!slow.completed && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(slow.completed);
+    }
+
+    @Test
+    void blockedWriteTimesOut_SenderFreedForOtherSubscribers() throws Exception {
+        publisher.shutdown();
+        // One sender thread: while the stuck client holds it, nobody else would get an event
+        publisher = new SeatMapEventPublisher(flightService, new ObjectMapper(), 0, 1, 64, 100);
+        RecordingEmitter stuck = new RecordingEmitter(new CountDownLatch(1));
+        RecordingEmitter other = new RecordingEmitter();
+        publisher.subscribe(SCHEDULE_ID, stuck);
+        publisher.subscribe(SCHEDULE_ID, other);
+
+        assertTrue(other.next().contains("event:snapshot"));
+        publisher.publish(SCHEDULE_ID, List.of("001"), SeatMapEventPublisher.LOCKED);
+        assertTrue(other.next().contains("\"001\":\"LOCKED\""));
+
+        assertEquals(1, publisher.subscriberCount(SCHEDULE_ID));
+        assertTrue(stuck.events.isEmpty());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!stuck.completed && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(stuck.completed);
+    }
+}
@@ -0,0 +1,163 @@
+package com.booking.flight.services;
+
+import com.booking.flight.dto.response.TimetableImportResponse;
+import com.booking.flight.dto.response.TimetableImportResponse.LineError;
+import com.booking.flight.models.Flight;
+import com.booking.flight.models.Plane;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.repository.FlightRepository;
+import com.booking.flight.repository.PlaneRepository;
+import com.booking.flight.repository.ScheduleBatchRepository;
+import com.booking.flight.repository.ScheduleRepository;
+import com.booking.flight.support.InMemoryTransactionManager;
+import com.booking.flight.support.TestFixtures;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TimetableImportServiceTest {
+
+    private static final LocalDateTime DEPARTURE = LocalDateTime.of(2030, 1, 7, 6, 0);
+
+    @Mock
+    private PlaneRepository planeRepository;
+    @Mock
+    private FlightRepository flightRepository;
+    @Mock
+    private ScheduleRepository scheduleRepository;
+    @Mock
+    private ScheduleBatchRepository scheduleBatchRepository;
+    @Mock
+    private ScheduleSearchIndex scheduleSearchIndex;
+    @Mock
+    private SeatAvailabilityCounter seatAvailabilityCounter;
+
+    private final Flight existingFlight = TestFixtures.flight(7L, "DEL", "BOM", TestFixtures.plane(3L, 180));
+
+    @BeforeEach
+    void setUp() {
+        when(planeRepository.findAll()).thenReturn(List.of(existingFlight.getPlane()));
+        when(flightRepository.findAllWithPlaneDetails()).thenReturn(List.of(existingFlight));
+    }
+
+    private TimetableImportService service(int batchSize) {
+        return new TimetableImportService(planeRepository, flightRepository, scheduleRepository, scheduleBatchRepository,
+                scheduleSearchIndex, seatAvailabilityCounter, new TransactionTemplate(new InMemoryTransactionManager()),
+                new ObjectMapper().findAndRegisterModules(), batchSize, 100);
+    }
+
+    private static ByteArrayInputStream lines(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // The mocked JPA saves assign IDs like persist does
+    private void assignIdsOnSave() {
+        when(planeRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Plane> planes = invocation.getArgument(0);
+            planes.forEach(plane -> plane.setPlaneId(100L));
+            return planes;
+        });
+        when(flightRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<Flight> flights = invocation.getArgument(0);
+            flights.forEach(flight -> flight.setFlightId(200L));
+            return flights;
+        });
+    }
+
+    private static ScheduleRepository.DepartureKey departure(Long flightId, LocalDateTime departureTime) {
+        return new ScheduleRepository.DepartureKey() {
+            @Override
+            public Long getFlightId() {
+                return flightId;
+            }
+
+            @Override
+            public LocalDateTime getDepartureTime() {
+                return departureTime;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void importTimetable_Ndjson_ResolvesRefsAndSkipsExistingDepartures() throws IOException {
+        assignIdsOnSave();
+        when(scheduleRepository.findDepartures(any(), any(), any()))
+                .thenReturn(List.of(departure(7L, DEPARTURE)));
+
+        TimetableImportResponse response = service(5000).importTimetable(lines(
+                "{\"type\":\"plane\",\"ref\":\"a320\",\"model\":\"A320\",\"totalSeats\":150}",
+                "{\"type\":\"flight\",\"flightNumber\":\"AI101\",\"departureAirport\":\"DEL\",\"arrivalAirport\":\"BLR\",\"plane\":\"a320\"}",
+                "{\"type\":\"schedule\",\"flightNumber\":\"AI101\",\"departureTime\":\"2030-01-07T06:00\",\"arrivalTime\":\"2030-01-07T08:45\",\"basePrice\":4999}",
+                // Already in the database
+                "{\"type\":\"schedule\",\"flightNumber\":\"FB7\",\"departureTime\":\"2030-01-07T06:00\",\"arrivalTime\":\"2030-01-07T08:00\",\"basePrice\":5500}",
+                "",
+                "{\"type\":\"schedule\",\"flightNumber\":\"FB7\",\"departureTime\":\"2030-01-08T06:00\",\"arrivalTime\":\"2030-01-08T08:00\",\"basePrice\":5500}"),
+                TimetableImportService.Format.NDJSON);
+
+        assertEquals(new TimetableImportResponse(6, 1, 1, 2, 1, 0, List.of()), response);
+        ArgumentCaptor<List<Schedule>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(scheduleBatchRepository).insertAll(inserted.capture());
+        assertEquals(List.of(200L, 7L), inserted.getValue().stream().map(s -> s.getFlight().getFlightId()).toList());
+        assertEquals(150, inserted.getValue().get(0).getSeatInventory().seatCount());
+        verify(scheduleSearchIndex).putAllOnCommit(inserted.getValue());
+        verify(seatAvailabilityCounter).initializeOnCommit(inserted.getValue());
+    }
+
+    @Test
+    void importTimetable_Csv_ReportsInvalidLinesByNumber() throws IOException {
+        TimetableImportResponse response = service(5000).importTimetable(lines(
+                "type,flightNumber,departureTime,arrivalTime,basePrice",
+                "# existing route",
+                "schedule,FB7,2030-01-07T06:00,2030-01-07T08:00,5500",
+                "schedule,XX999,2030-01-07T06:00,2030-01-07T08:00,5500",
+                "schedule,FB7,2030-01-07T09:00,2030-01-07T08:00,5500",
+                "schedule,FB7,2020-01-07T06:00,2020-01-07T08:00,5500",
+                "flight,FB7,DEL,BOM,3",
+                "plane,big,A380,not-a-number"),
+                TimetableImportService.Format.CSV);
+
+        assertEquals(8, response.linesRead());
+        assertEquals(1, response.schedulesCreated());
+        assertEquals(5, response.failedLines());
+        assertEquals(List.of(4L, 5L, 6L, 7L, 8L), response.errors().stream().map(LineError::line).toList());
+        assertEquals("Unknown flight XX999", response.errors().get(0).message());
+        verify(scheduleBatchRepository).insertAll(anyList());
+    }
+
+    @Test
+    void importTimetable_FailedBatch_ReportsItsLinesAndContinues() throws IOException {
+        when(scheduleBatchRepository.insertAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenReturn(1);
+
+        TimetableImportResponse response = service(2).importTimetable(lines(
+                "schedule,FB7,2030-01-07T06:00,2030-01-07T08:00,5500",
+                "schedule,FB7,2030-01-08T06:00,2030-01-08T08:00,5500",
+                "schedule,FB7,2030-01-09T06:00,2030-01-09T08:00,5500"),
+                TimetableImportService.Format.CSV);
+
+        assertEquals(1, response.schedulesCreated());
+        assertEquals(List.of(1L, 2L), response.errors().stream().map(LineError::line).toList());
+        verify(scheduleBatchRepository, times(2)).insertAll(anyList());
+        verify(scheduleSearchIndex, times(1)).putAllOnCommit(anyList());
+    }
+}
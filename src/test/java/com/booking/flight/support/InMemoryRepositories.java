@@ -0,0 +1,124 @@
+package com.booking.flight.support;
+
+import com.booking.flight.models.Booking;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.repository.BookingRepository;
+import com.booking.flight.repository.ScheduleRepository;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Map-backed stand-ins for the JPA repositories, used by benchmarks and load tests.
+ * Only the methods the booking path calls are implemented; anything else throws
+ * UnsupportedOperationException so a missing stand-in is obvious.
+ */
+public final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    /**
+     * Inside a transaction (see InMemoryTransactionManager), lockSeatInventory holds a per-schedule
+     * lock until the transaction completes, like the row lock taken by MariaDB. Outside one it does not lock.
+     */
+    public static ScheduleRepository scheduleRepository(Map<Long, Schedule> store) {
+        Map<Long, ReentrantLock> rowLocks = new ConcurrentHashMap<>();
+        return repository(ScheduleRepository.class, store, Schedule::getScheduleId, Schedule::setScheduleId, Map.of(
+                "lockSeatInventory", args -> {
+                    Long scheduleId = (Long) args[0];
+                    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                        ReentrantLock rowLock = rowLocks.computeIfAbsent(scheduleId, id -> new ReentrantLock());
+                        rowLock.lock();
+                        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                            @Override
+                            public void afterCompletion(int status) {
+                                rowLock.unlock();
+                            }
+                        });
+                    }
+                    Schedule schedule = store.get(scheduleId);
+                    return schedule == null ? null : schedule.getSeatInventory().toBytes();
+                },
+                "findScheduledDepartingFrom", args -> store.values().stream()
+                        .filter(s -> "SCHEDULED".equals(s.getStatus()) && !s.getDepartureTime().isBefore((LocalDateTime) args[0]))
+                        .toList(),
+                "findAvailableSchedules", args -> store.values().stream()
+                        .filter(s -> "SCHEDULED".equals(s.getStatus())
+                                && s.getFlight().getDepartureAirport().equalsIgnoreCase((String) args[0])
+                                && s.getFlight().getArrivalAirport().equalsIgnoreCase((String) args[1])
+                                && !s.getDepartureTime().isBefore((LocalDateTime) args[2])
+                                && s.getDepartureTime().isBefore((LocalDateTime) args[3]))
+                        .toList()));
+    }
+
+    public static BookingRepository bookingRepository(Map<Long, Booking> store) {
+        return repository(BookingRepository.class, store, Booking::getBookingId, Booking::setBookingId, Map.of(
+                "findBookingReferencesIn", args -> store.values().stream()
+                        .map(Booking::getBookingReference)
+                        .filter(reference -> reference != null && ((Collection<?>) args[0]).contains(reference))
+                        .collect(Collectors.toSet())));
+    }
+
+    public static <T> Map<Long, T> newStore() {
+        return new ConcurrentHashMap<>();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R, T> R repository(Class<R> repositoryType, Map<Long, T> store,
+                                       Function<T, Long> idGetter, BiConsumer<T, Long> idSetter,
+                                       Map<String, Function<Object[], Object>> customQueries) {
+        AtomicLong sequence = new AtomicLong();
+        Function<T, T> save = entity -> {
+            Long id = idGetter.apply(entity);
+            if (id == null) {
+                id = sequence.incrementAndGet();
+                idSetter.accept(entity, id);
+            }
+            store.put(id, entity);
+            return entity;
+        };
+
+        return (R) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> {
+                    Function<Object[], Object> customQuery = customQueries.get(method.getName());
+                    if (customQuery != null) {
+                        return customQuery.apply(args);
+                    }
+                    return switch (method.getName()) {
+                        case "findById", "findByIdWithFlightDetails" -> Optional.ofNullable(store.get((Long) args[0]));
+                        case "existsById" -> store.containsKey((Long) args[0]);
+                        case "findAll" -> new ArrayList<>(store.values());
+                        case "count" -> (long) store.size();
+                        case "save", "saveAndFlush" -> save.apply((T) args[0]);
+                        case "saveAll", "saveAllAndFlush" -> {
+                            List<T> saved = new ArrayList<>();
+                            for (T entity : (Iterable<T>) args[0]) {
+                                saved.add(save.apply(entity));
+                            }
+                            yield saved;
+                        }
+                        case "flush" -> null;
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        case "toString" -> "InMemory" + repositoryType.getSimpleName();
+                        default -> throw new UnsupportedOperationException(
+                                repositoryType.getSimpleName() + "." + method.getName() + " has no in-memory stand-in");
+                    };
+                });
+    }
+}
@@ -0,0 +1,59 @@
+package com.booking.flight.support;
+
+import com.booking.flight.models.Schedule;
+import com.booking.flight.models.SeatState;
+import com.booking.flight.services.SeatAvailabilityCounter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory stand-in for the Aerospike seat counters: one count per schedule, updated immediately
+ * instead of after commit. Schedules without a count read as unknown, like a missing counter record.
+ */
+public class InMemorySeatAvailabilityCounter extends SeatAvailabilityCounter {
+
+    private final Map<Long, Integer> counts = new ConcurrentHashMap<>();
+
+    public InMemorySeatAvailabilityCounter() {
+        super(null, null, null);
+    }
+
+    @Override
+    public OptionalInt availableSeats(Long scheduleId) {
+        Integer count = counts.get(scheduleId);
+        return count == null ? OptionalInt.empty() : OptionalInt.of(count);
+    }
+
+    @Override
+    public Map<Long, Integer> availableSeats(List<Long> scheduleIds) {
+        Map<Long, Integer> available = new ConcurrentHashMap<>();
+        for (Long scheduleId : scheduleIds) {
+            Integer count = counts.get(scheduleId);
+            if (count != null) {
+                available.put(scheduleId, count);
+            }
+        }
+        return available;
+    }
+
+    @Override
+    public void initializeOnCommit(List<Schedule> schedules) {
+        reconcile(schedules);
+    }
+
+    @Override
+    public void decrementOnCommit(Long scheduleId, int seats) {
+        counts.computeIfPresent(scheduleId, (id, count) -> count >= seats ? count - seats : count);
+    }
+
+    @Override
+    public int reconcile(List<Schedule> schedules) {
+        for (Schedule schedule : schedules) {
+            counts.put(schedule.getScheduleId(), schedule.getSeatInventory().count(SeatState.AVAILABLE));
+        }
+        return schedules.size();
+    }
+}
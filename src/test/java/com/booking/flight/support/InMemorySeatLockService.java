@@ -0,0 +1,70 @@
+package com.booking.flight.support;
+
+import com.booking.flight.exception.SeatAlreadyReservedException;
+import com.booking.flight.services.ISeatLockService;
+import com.booking.flight.services.SeatLease;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory stand-in for the Aerospike seat-lock ledger: one map of seat -> lease holder per schedule,
+ * acquired all-or-nothing and released by holder like AerospikeSeatLockService. Leases never expire.
+ */
+public class InMemorySeatLockService implements ISeatLockService {
+
+    private final Map<Long, Map<String, String>> ledgers = new ConcurrentHashMap<>();
+
+    @Override
+    public SeatLease acquireLocks(Long scheduleId, List<String> seatNumbers, Long userId) {
+        SeatLease lease = new SeatLease(scheduleId, seatNumbers, userId + ":" + UUID.randomUUID(), Long.MAX_VALUE);
+        Map<String, String> ledger = ledgers.computeIfAbsent(scheduleId, id -> new HashMap<>());
+        synchronized (ledger) {
+            for (String seatNumber : seatNumbers) {
+                if (ledger.containsKey(seatNumber)) {
+                    throw new SeatAlreadyReservedException("One or more requested seats are currently reserved or locked.");
+                }
+            }
+            for (String seatNumber : seatNumbers) {
+                ledger.put(seatNumber, lease.holder());
+            }
+        }
+        return lease;
+    }
+
+    @Override
+    public void releaseLocks(SeatLease lease) {
+        Map<String, String> ledger = ledgers.get(lease.scheduleId());
+        if (ledger == null) {
+            return;
+        }
+        synchronized (ledger) {
+            ledger.values().removeIf(lease.holder()::equals);
+        }
+    }
+
+    @Override
+    public List<String> lockedSeats(Long scheduleId) {
+        Map<String, String> ledger = ledgers.get(scheduleId);
+        if (ledger == null) {
+            return List.of();
+        }
+        synchronized (ledger) {
+            return new ArrayList<>(ledger.keySet());
+        }
+    }
+
+    public int lockedSeatCount(Long scheduleId) {
+        Map<String, String> ledger = ledgers.get(scheduleId);
+        if (ledger == null) {
+            return 0;
+        }
+        synchronized (ledger) {
+            return ledger.size();
+        }
+    }
+}
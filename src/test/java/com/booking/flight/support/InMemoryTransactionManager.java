@@ -0,0 +1,31 @@
+package com.booking.flight.support;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * Transaction manager without a resource: it only drives the transaction synchronizations, so
+ * before/after-commit callbacks (seat map write-through, seat counters, row-lock release in
+ * InMemoryRepositories) run as they do around a MariaDB transaction.
+ * A rollback does not undo writes already made to the in-memory stores.
+ */
+public class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+
+    @Override
+    protected Object doGetTransaction() {
+        return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+    }
+}
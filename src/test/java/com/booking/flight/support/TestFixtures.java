@@ -0,0 +1,43 @@
+package com.booking.flight.support;
+
+import com.booking.flight.models.Flight;
+import com.booking.flight.models.Plane;
+import com.booking.flight.models.Schedule;
+import com.booking.flight.models.SeatInventory;
+import com.booking.flight.models.SeatLayout;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entity builders shared by benchmarks and load tests.
+ */
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    public static Plane plane(long planeId, int totalSeats) {
+        return new Plane(planeId, "Plane-" + totalSeats, totalSeats, null);
+    }
+
+    public static Plane plane(long planeId, SeatLayout layout) {
+        return new Plane(planeId, "Plane-" + layout.spec(), layout.seatCount(), layout);
+    }
+
+    public static Flight flight(long flightId, String origin, String destination, Plane plane) {
+        return new Flight(flightId, "FB" + flightId, origin, destination, plane);
+    }
+
+    public static Schedule schedule(long scheduleId, Flight flight, LocalDateTime departureTime) {
+        Schedule schedule = new Schedule();
+        schedule.setScheduleId(scheduleId);
+        schedule.setFlight(flight);
+        schedule.setDepartureTime(departureTime);
+        schedule.setArrivalTime(departureTime.plusHours(2));
+        schedule.setBasePrice(new BigDecimal("5500.00"));
+        schedule.setStatus("SCHEDULED");
+        schedule.setSeatInventory(SeatInventory.allAvailable(flight.getPlane().getTotalSeats()));
+        return schedule;
+    }
+}